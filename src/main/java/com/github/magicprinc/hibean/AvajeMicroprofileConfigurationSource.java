@@ -2,12 +2,15 @@ package com.github.magicprinc.hibean;
 
 import io.avaje.config.Configuration;
 import io.avaje.config.ConfigurationSource;
+import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.jspecify.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 /**
  [private {@link java.util.ServiceLoader ServiceLoader} Implementation] Avaje ConfigurationSource backed by MicroProfile Config
@@ -18,8 +21,10 @@ import java.util.stream.StreamSupport;
  How it works:
  - Implements Avaje's ConfigurationSource SPI interface
  - Registered via Java ServiceLoader (META-INF/services/io.avaje.config.ConfigurationSource:20)
- - load() iterates all property names from SmartConfig.MICROPROFILE_CONFIG (a SmallRyeConfig instance, which is the MicroProfile Config implementation)
- 			and copies them into Avaje's Configuration via putAll()
+ - load() walks the shared prefix-indexed {@link ConfigSnapshot} of SmartConfig.MICROPROFILE_CONFIG (a SmallRyeConfig instance, which is the MicroProfile Config implementation)
+ 			and copies matching properties into Avaje's Configuration via putAll()
+ - {@code ebean.hikari.avaje-prefixes = ebean., datasource.} limits what is copied: every prefix is a range scan → thousands of env vars are neither read nor copied
+ - {@link #refreshLoaded()} pushes only changed (and removed) entries, so Avaje onChange listeners see real changes only
 
  Why it exists:
  the HiBean library sits between MicroProfile Config (SmallRye) and Avaje Config ecosystems.
@@ -30,21 +35,82 @@ import java.util.stream.StreamSupport;
  @see io.avaje.config.CoreConfiguration#loadSources
  @see SmartConfig#MICROPROFILE_CONFIG
 */
+@Slf4j
 public class AvajeMicroprofileConfigurationSource implements ConfigurationSource {
+	/** The instance Avaje has loaded: target of {@link #refreshLoaded()} */
+	private static volatile @Nullable AvajeMicroprofileConfigurationSource loaded;
+
+	private @Nullable Configuration configuration;
+	/** key → value as pushed to Avaje: base of the {@link #refreshChanged()} diff */
+	private Map<String,String> published = Map.of();
+
 	/// @see io.avaje.config.Configuration
 	@Override
-	public void load (Configuration configuration) {
-		val map = StreamSupport.stream(
-				SmartConfig.propertyNames().spliterator(),
-				false/*not parallel*/
-			)
-			.filter(Objects::nonNull)
-			.map(key ->Map.entry(key, SmartConfig.opt(key)))
-			.collect(Collectors.toMap(
-				e->e.getKey().replace("\"", ""),
-				Map.Entry::getValue
-			));
-
-		configuration.putAll(map);
+	public synchronized void load (Configuration configuration) {
+		this.configuration = configuration;
+		published = properties(prefixes());
+		configuration.putAll(published);
+		loaded = this;
+	}
+
+	/**
+	 Push changed MicroProfile properties to Avaje (e.g. after a config source was reloaded).
+	 @return number of changed or removed keys; 0 if Avaje has not loaded this source
+	 */
+	public static int refreshLoaded () {
+		val source = loaded;
+		return source == null ? 0
+				: source.refreshChanged();
+	}
+
+	/** Avaje reload hook (if Avaje calls it): the same as {@link #refreshLoaded()} */
+	public void refresh (){ refreshChanged(); }
+
+	synchronized int refreshChanged () {
+		val cfg = configuration;
+		if (cfg == null){ return 0; }
+
+		val current = properties(prefixes());
+		int changed = 0;
+		for (val e : current.entrySet()){
+			if (!e.getValue().equals(published.get(e.getKey()))){
+				cfg.setProperty(e.getKey(), e.getValue());
+				changed++;
+			}
+		}
+		for (val key : published.keySet()){
+			if (!current.containsKey(key)){
+				cfg.clearProperty(key);
+				changed++;
+			}
+		}
+		published = current;
+		if (changed > 0)
+				log.debug("{} changed MicroProfile properties pushed to Avaje", changed);
+		return changed;
+	}
+
+	/** ebean.hikari.avaje-prefixes (lowerCase) or empty: all properties */
+	static List<String> prefixes () {
+		String list = SmartConfig.opt("ebean.hikari.avaje-prefixes", SmartConfig.opt("ebean.hikari.avajePrefixes"));
+		return Arrays.stream(list.split("[;,]"))
+			.map(SmartConfig::trim)
+			.filter(pre->!pre.isEmpty())
+			.map(pre->pre.toLowerCase(Locale.ENGLISH))
+			.toList();
+	}
+
+	/** Clean key (without yaml "quotes") → value of MicroProfile properties starting with any of prefixes (all if empty) */
+	static Map<String,String> properties (List<String> prefixes) {
+		val snapshot = ConfigSnapshot.shared();
+		val map = new HashMap<String,String>(prefixes.isEmpty() ? snapshot.size() * 4 / 3 + 1 : 256);
+		for (String prefix : prefixes.isEmpty() ? List.of("") : prefixes){
+			for (val keys : snapshot.startingWith(prefix).values()){
+				for (val key : keys){
+					map.put(key.clean(), SmartConfig.opt(key.verbatim()));
+				}
+			}
+		}
+		return map;
 	}
 }
\ No newline at end of file
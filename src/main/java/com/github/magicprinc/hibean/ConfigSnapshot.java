@@ -0,0 +1,112 @@
+package com.github.magicprinc.hibean;
+
+import lombok.val;
+import org.eclipse.microprofile.config.spi.ConfigSource;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.github.magicprinc.hibean.SmartConfig.MICROPROFILE_CONFIG;
+import static com.github.magicprinc.hibean.SmartConfig.trim;
+
+/**
+ Immutable, prefix-indexed snapshot of all MicroProfile config keys: one pass over {@link SmartConfig#propertyNames()} shared by all pools.
+
+ Keys are cleaned (SmallRye yaml key "foo.bar" becomes "\"foo.bar\"") and lowerCase(EN)-ed once and kept in a sorted map,
+ so every prefix from {@link SmartConfig#collectPrefixes()} is a range scan → resolving a pool costs O(its own keys), not O(all keys).
+
+ Values are not copied: they are read with {@link SmartConfig#opt(String)} only for the matched keys.
+ The snapshot is rebuilt only if the key-set fingerprint (hash of every config source's key names + System properties' keys) has changed:
+ a renamed or added key rebuilds it; a changed value needs no rebuild (values are always read from the config).
+ The fingerprint itself is O(all keys): pools created together ({@link #batch}) take it once.
+
+ @see HikariEbeanDataSourcePool#filter
+ */
+final class ConfigSnapshot {
+	private static final AtomicReference<ConfigSnapshot> SHARED = new AtomicReference<>();
+	/** Snapshot checked at the start of the current {@link #batch} of this thread */
+	private static final ThreadLocal<@Nullable ConfigSnapshot> BATCH = new ThreadLocal<>();
+
+	/** Config key: verbatim (to read its value) and cleaned (trim, without yaml "quotes"), but case is preserved */
+	record Key (String verbatim, String clean) {}
+
+	/** lowerCase(EN) clean key → conf keys (usually one; more if they differ only in case) */
+	private final NavigableMap<String,List<Key>> keys;
+	private final long fingerprint;
+
+	private ConfigSnapshot (long fingerprint) {
+		this.fingerprint = fingerprint;
+		val map = new TreeMap<String,List<Key>>();
+		for (val verbatimConfKey : SmartConfig.propertyNames()){
+			if (verbatimConfKey == null){ continue; }
+			val confKey = trim(verbatimConfKey).replace("\"", "");
+			map.computeIfAbsent(confKey.toLowerCase(Locale.ENGLISH), k->new ArrayList<>(1))
+				.add(new Key(verbatimConfKey, confKey));
+		}
+		keys = Collections.unmodifiableNavigableMap(map);
+	}//new
+
+	/** Shared snapshot: the same instance for all pools, until config keys change; within a {@link #batch} without a new check */
+	static ConfigSnapshot shared () {
+		ConfigSnapshot checked = BATCH.get();
+		if (checked != null){ return checked; }
+		long fp = fingerprint();
+		ConfigSnapshot snapshot = SHARED.get();
+		if (snapshot != null && snapshot.fingerprint == fp){ return snapshot; }
+
+		snapshot = new ConfigSnapshot(fp);
+		SHARED.set(snapshot);
+		return snapshot;
+	}
+
+	/** Forget the shared snapshot, e.g. after a config source was reloaded in place */
+	static void invalidate (){ SHARED.set(null); }
+
+	/**
+	 Pools created together (a pool with its standbys, a replica set, generated configs) check the key fingerprint once:
+	 within the batch {@link #shared()} of this thread returns the snapshot checked at its start. A nested batch joins the outer one.
+	 */
+	static <T> T batch (Supplier<T> pools) {
+		if (BATCH.get() != null){ return pools.get(); }
+		BATCH.set(shared());
+		try {
+			return pools.get();
+		} finally {
+			BATCH.remove();
+		}
+	}
+
+	/** All keys (lowerCase) starting with the lowerCase prefix: range scan of the sorted map */
+	NavigableMap<String,List<Key>> startingWith (String lowerCasePrefix) {
+		return keys.subMap(lowerCasePrefix, true, lowerCasePrefix + Character.MAX_VALUE, false);
+	}
+
+	int size (){ return keys.size(); }
+
+	/**
+	 "Have keys changed?" check without {@code getLatestPropertyNames} (it reloads the config): O(keys) hashing, no sorting or copying.
+	 Values are read lazily → only the key set matters. A source that can't list its keys counts by its name only.
+	 */
+	static long fingerprint () {
+		long h = System.getProperties().keySet().hashCode();
+		for (ConfigSource src : MICROPROFILE_CONFIG.getConfigSources()){
+			h = 31 * h + Objects.hashCode(src.getName());
+			try {
+				val names = src.getPropertyNames();
+				h = 31 * h + names.size();
+				h = 31 * h + names.hashCode();// Set.hashCode: sum of the names' hashes → a rename changes it
+			} catch (RuntimeException ignore){}
+		}
+		return h;
+	}
+
+	@Override public String toString (){ return "ConfigSnapshot("+ keys.size() +" keys)"; }
+}
\ No newline at end of file
@@ -1,13 +1,25 @@
 package com.github.magicprinc.hibean;
 
 import com.github.magicprinc.hibean.util.HikariEbeanDataSourceWrapper;
+import com.github.magicprinc.hibean.util.PoolContext;
+import com.github.magicprinc.hibean.util.ReplicaSetDataSourcePool;
 import io.ebean.datasource.DataSourceConfig;
 import io.ebean.datasource.DataSourceFactory;
 import io.ebean.datasource.DataSourcePool;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.val;
 import org.jspecify.annotations.Nullable;
 
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import static com.github.magicprinc.hibean.HikariEbeanDataSourcePool.millis;
+import static com.github.magicprinc.hibean.HikariEbeanDataSourcePool.ownSetting;
+
 /**
  [private {@link java.util.ServiceLoader ServiceLoader} Implementation] HikariCP backed {@link DataSourceFactory}.
  It is service loaded → Do have only one implementation in ClassPath!
@@ -28,6 +40,65 @@ public class HikariEbeanConnectionPoolFactory implements DataSourceFactory {
 
   @Override
   public DataSourcePool createPool (String name, DataSourceConfig config) {
-    return new HikariEbeanDataSourcePool(name, config);
+		return ConfigSnapshot.batch(()->new HikariEbeanDataSourcePool(name, config));// the pool and its failover standbys
   }
+
+	/**
+	 Read-only pool over replicas of the database: {@code db.replicas = r1, r2} (every replica is a usual pool: r1.url = …)
+	 and {@code db.balance = round-robin | latency}, {@code db.hedge = p95} (hedged reads, see {@link ReplicaSetDataSourcePool#hedged}).
+	 Replication lag: {@code db.lagQuery = postgresql | <sql returning lag millis>}, {@code db.lagInterval = 1s},
+	 {@code db.maxLag = 30s} (replicas lagging more get no reads), {@code db.stickiness = 10s} (read-your-writes window, see {@link PoolContext})
+	 @param primary fallback, if no replica is available
+	 @return null: the database has no replicas
+	 @see io.ebean.config.DatabaseConfig#readOnlyDataSource(DataSource)
+	 */
+	public static @Nullable ReplicaSetDataSourcePool replicaSet (String databaseName, DataSource primary) {
+		return ConfigSnapshot.batch(()->newReplicaSet(databaseName, primary));// the replicas check config keys once
+	}
+
+	private static @Nullable ReplicaSetDataSourcePool newReplicaSet (String databaseName, DataSource primary) {
+		Properties p = HikariEbeanDataSourcePool.resolve(databaseName, null).properties();
+		List<String> names = HikariEbeanDataSourcePool.replicaNames(p);
+		if (names.isEmpty()){ return null; }
+
+		val replicas = new ArrayList<HikariEbeanDataSourcePool>(names.size());
+		try {
+			for (String replicaName : names){
+				replicas.add(new HikariEbeanDataSourcePool(replicaName, new DataSourceConfig(), true));
+			}
+			val balance = ReplicaSetDataSourcePool.Balance.of(ownSetting(p, "balance"));
+			val set = new ReplicaSetDataSourcePool(databaseName, primary, replicas, balance)
+					.hedgePercentile(percentile(ownSetting(p, "hedge")));
+			String stickiness = ownSetting(p, "stickiness");
+			if (!stickiness.isEmpty()){
+				set.stickinessMillis(millis(stickiness));
+			}
+			set.maxLagMillis(millis(ownSetting(p, "maxLag")));
+			String lagQuery = ownSetting(p, "lagQuery");
+			if (!lagQuery.isEmpty()){
+				String interval = ownSetting(p, "lagInterval");
+				set.monitorLag(lagQuery, interval.isEmpty() ? 1000 : millis(interval));
+			}
+			return set;
+		} catch (RuntimeException | Error e){
+			for (val replica : replicas){// the replicas started so far
+				try {
+					replica.shutdown();
+				} catch (RuntimeException ex){
+					e.addSuppressed(ex);
+				}
+			}
+			throw e;
+		}
+	}
+
+	/** p95, p99.9, 95 → 95, 99.9; "" → 0 (off) */
+	static double percentile (String value) {
+		String v = value.trim().toLowerCase(Locale.ROOT);
+		if (v.startsWith("p")){ v = v.substring(1); }
+		if (v.isEmpty()){ return 0; }
+		double p = Double.parseDouble(v);
+		if (p < 0 || p >= 100){ throw new IllegalArgumentException("Percentile must be in [0, 100): "+ value); }
+		return p;
+	}
 }
\ No newline at end of file
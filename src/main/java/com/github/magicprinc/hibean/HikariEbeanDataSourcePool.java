@@ -1,6 +1,12 @@
 package com.github.magicprinc.hibean;
 
+import com.github.magicprinc.hibean.util.AdaptivePoolSizer;
+import com.github.magicprinc.hibean.util.CircuitBreaker;
 import com.github.magicprinc.hibean.util.HikariEbeanDataSourceWrapper;
+import com.github.magicprinc.hibean.util.Lane;
+import com.github.magicprinc.hibean.util.PoolExecutors;
+import com.github.magicprinc.hibean.util.PoolGroup;
+import com.github.magicprinc.hibean.util.PriorityGate;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import com.zaxxer.hikari.util.IsolationLevel;
@@ -11,15 +17,23 @@ import io.ebean.datasource.DataSourcePool;
 import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.jspecify.annotations.Nullable;
 
-import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.IntConsumer;
 import java.util.function.LongConsumer;
@@ -31,6 +45,7 @@ import static com.github.magicprinc.hibean.SmartConfig.determineDefaultServerNam
 import static com.github.magicprinc.hibean.SmartConfig.makeDatabaseNamePrefix;
 import static com.github.magicprinc.hibean.SmartConfig.normValue;
 import static com.github.magicprinc.hibean.SmartConfig.opt;
+import static com.github.magicprinc.hibean.SmartConfig.stripKey;
 import static com.github.magicprinc.hibean.SmartConfig.trim;
 import static io.ebean.util.CamelCaseHelper.toCamelFromUnderscore;
 import static java.util.Objects.requireNonNullElseGet;
@@ -62,6 +77,306 @@ import static java.util.Objects.requireNonNullElseGet;
 @Slf4j
 class HikariEbeanDataSourcePool extends HikariEbeanDataSourceWrapper {
 	public HikariEbeanDataSourcePool (String callerPoolName, DataSourceConfig config) {
+		this(callerPoolName, config, false);
+	}//new
+
+	/** @param replica read replica of another database (see {@link #replicaNames}): readOnly by default */
+	HikariEbeanDataSourcePool (String callerPoolName, DataSourceConfig config, boolean replica) {
+		this(callerPoolName, config, replica, false);
+	}//new
+
+	/** @param standby failover pool of another database (see {@link #failoverNames}): its own failover setting is ignored */
+	HikariEbeanDataSourcePool (String callerPoolName, DataSourceConfig config, boolean replica, boolean standby) {
+		this(callerPoolName, config, replica, standby, null);
+	}//new
+
+	/**
+	 @param tenantTemplate (optional) the pool is a tenant pool of {@link TenantPoolRegistry}: callerPoolName is the tenant,
+	 settings of the template database fill in the tenant's own ({@code copyFrom}), {@code %tenant%} in values is the tenant; lazy by default
+	 */
+	HikariEbeanDataSourcePool (String callerPoolName, DataSourceConfig config, boolean replica, boolean standby, @Nullable String tenantTemplate) {
+		this.replica = replica;
+		this.tenantTemplate = tenantTemplate;
+		val prebuilt = tenantTemplate != null ? null : prebuilt(callerPoolName);
+		Resolved resolved = null;
+		String poolName;
+		Properties own;// our own (not Hikari) settings
+		if (prebuilt != null){// resolved at build time: no config scan, no reflection
+			poolName = prebuilt.hikariPoolName();
+			own = new Properties();
+			own.putAll(prebuilt.ownSettings());
+		} else {
+			resolved = resolve(callerPoolName, null, tenantTemplate);
+			poolName = resolved.hikariPoolName();
+			own = resolved.properties();// before toHikariConfig: it removes own keys
+		}
+		long reloadMillis = millis(ownSetting(own, "reloadInterval"));
+		if (prebuilt != null && reloadMillis > 0){
+			throw new IllegalArgumentException("EbeanPool '"+ poolName +"' reloadInterval needs runtime config resolution: ebean.hikari.prebuilt = false");
+		}
+		String asyncSetting = ownSetting(own, "async");
+		async = "true".equalsIgnoreCase(asyncSetting.isEmpty() ? opt("ebean.hikari.async") : asyncSetting);
+		String lazySetting = ownSetting(own, "lazy");
+		lazy = lazySetting.isEmpty() ? tenantTemplate != null || "true".equalsIgnoreCase(opt("ebean.hikari.lazy"))
+				: "true".equalsIgnoreCase(lazySetting);
+		long hibernateMillis = millis(ownSetting(own, "hibernateAfter"));
+		val lanes = lanes(own);
+		long healthMillis = millis(ownSetting(own, "healthInterval"));
+		String breakerFailures = ownSetting(own, "breakerFailures");
+		String breakerOpenTime = ownSetting(own, "breakerOpenTime");
+		long drainMillis = millis(ownSetting(own, "drainTimeout"));
+		String statementCacheSize = ownSetting(own, "statementCacheSize");
+		int statementCache = statementCacheSize.isEmpty() ? 0 : Integer.parseInt(normValue(statementCacheSize));
+		String priorityReserved = ownSetting(own, "priorityReserved");
+		PriorityGate gate = priorityReserved.isEmpty() ? null : new PriorityGate(Integer.parseInt(normValue(priorityReserved)), ()->ds.getMaximumPoolSize());
+		String group = ownSetting(own, "group");
+		PoolGroup sharedBudget = null;
+		int weight = 1;
+		if (!group.isEmpty()){
+			String budget = opt(GROUP_PREFIX + group);
+			if (budget.isEmpty()){ throw new IllegalArgumentException("EbeanPool '"+ poolName +"' group "+ group +" without budget: "+ GROUP_PREFIX + group +" = max connections"); }
+			String groupWeight = ownSetting(own, "groupWeight");
+			weight = groupWeight.isEmpty() ? 1 : Integer.parseInt(normValue(groupWeight));
+			sharedBudget = PoolGroup.of(group, Integer.parseInt(normValue(budget)));
+		}
+		List<String> failoverNames = standby ? List.of() : failoverNames(own);
+		if (!failoverNames.isEmpty() && healthMillis <= 0){
+			healthMillis = 2000;// switch back needs the probe
+		}
+		CircuitBreaker cb = healthMillis > 0 || !breakerFailures.isEmpty() || !breakerOpenTime.isEmpty()
+				? new CircuitBreaker(poolName,
+						breakerFailures.isEmpty() ? 3 : Integer.parseInt(normValue(breakerFailures)),
+						breakerOpenTime.isEmpty() ? 5000 : millis(breakerOpenTime), 1)
+				: null;
+		String autosize = ownSetting(own, "autosize");
+		String autosizeInterval = ownSetting(own, "autosizeInterval");
+		long autosizeMillis = autosizeInterval.isEmpty() ? 5000 : millis(autosizeInterval);
+		int autosizeMin = 0, autosizeMax = 0;
+		if (!autosize.isEmpty()){
+			String[] bounds = autosize.split("\\.\\.|[;,]");
+			if (bounds.length == 2){
+				autosizeMin = Integer.parseInt(normValue(trim(bounds[0])));
+				autosizeMax = Integer.parseInt(normValue(trim(bounds[1])));
+			}
+			if (autosizeMin < 1 || autosizeMax < autosizeMin){ throw new IllegalArgumentException("EbeanPool '"+ poolName +"' autosize must be min..max: "+ autosize); }
+		}
+		HikariConfig hc;
+		if (prebuilt != null){
+			log.debug("EbeanPool '{}' uses build-time resolved settings: {}", poolName, prebuilt.getClass().getName());
+			hc = new HikariConfig();
+			hc.setPoolName(poolName);
+			if (!prebuilt.fullDelegation()){
+				mergeFromDataSourceConfig(hc, config);//1.ebean
+				hc.setReadOnly(hc.isReadOnly() || replica);
+			}
+			prebuilt.apply(hc);//2.hikari (overrides) + secrets at runtime
+		} else {
+			if (reloadMillis > 0){
+				lastResolved = (Properties) resolved.properties().clone();
+				dataSourceConfig = config;
+				this.callerPoolName = callerPoolName;
+			}
+			hc = toHikariConfig(resolved, config);
+		}
+		if (tenantTemplate != null){// TenantPoolRegistry reserves maximumPoolSize connections for the tenant: no implicit default
+			if (!setsMaximumPoolSize(own)){
+				throw new IllegalArgumentException("EbeanPool '"+ poolName +"' tenant pool without maximumPoolSize: "+ tenantTemplate +".maximumPoolSize = …");
+			}
+			if (autosizeMax > 0){
+				autosizeMax = Math.min(autosizeMax, hc.getMaximumPoolSize());
+				autosizeMin = Math.min(autosizeMin, autosizeMax);
+			}
+		}
+		// all own settings are parsed: a bad one can't leave a started pool behind
+		ds = createDataSource(hc, poolName);
+		try {
+			drainTimeoutMillis(drainMillis);
+			if (sharedBudget != null){
+				group(sharedBudget.join(poolName, weight));
+				log.info("EbeanPool '{}' shares the connection budget: {}", poolName, group());
+			}
+			if (hibernateMillis > 0){
+				hibernateAfter(hibernateMillis);
+				log.info("EbeanPool '{}' hibernates after {} ms without borrows", poolName, hibernateMillis);
+			}
+			if (statementCache > 0){
+				statementCacheSize(statementCache);
+			}
+			if (gate != null){
+				priorityGate(gate);
+				log.info("EbeanPool '{}' priority admission: {}", poolName, gate);
+			}
+			if (!lanes.isEmpty()){
+				lanes(lanes);
+				log.info("EbeanPool '{}' lanes: {}", poolName, lanes);
+			}
+
+			if (reloadMillis > 0){
+				log.info("EbeanPool '{}' reloads settings every {} ms", poolName, reloadMillis);
+				reloadTask = PoolExecutors.scheduler().scheduleWithFixedDelay(this::reloadQuietly, reloadMillis, reloadMillis, TimeUnit.MILLISECONDS);
+			}
+			if (cb != null){
+				setBreaker(cb);
+				if (healthMillis > 0){
+					startHealthProbe(healthMillis);
+				}
+				log.info("EbeanPool '{}' fails fast when the database is down: {}, health probe every {} ms", poolName, cb, healthMillis);
+			}
+			if (!failoverNames.isEmpty()){
+				val standbyPools = new ArrayList<DataSourcePool>(failoverNames.size());
+				for (String name : failoverNames){
+					standbyPools.add(new HikariEbeanDataSourcePool(name, new DataSourceConfig(), replica, true));
+				}
+				failover(standbyPools);
+				log.info("EbeanPool '{}' fails over to {}", poolName, failoverNames);
+			}
+			if (autosizeMax > 0){
+				sizer = new AdaptivePoolSizer(this, autosizeMin, autosizeMax).start(autosizeMillis);
+				log.info("EbeanPool '{}' is sized automatically: {} every {} ms", poolName, sizer, autosizeMillis);
+			}
+		} catch (RuntimeException e){// e.g. a standby pool has failed: stop what has been started
+			shutdown();
+			throw e;
+		}
+  }//new
+
+	/** Resolved settings → HikariConfig: ebean {@link DataSourceConfig} + hikari settings (override) or confFile (full delegation) */
+	HikariConfig toHikariConfig (Resolved resolved, DataSourceConfig config) {
+		val dst = resolved.properties();
+		//4. load from another <hikari>.properties file == full delegation!
+		String confFile = resolved.confFile();
+		if (!confFile.isEmpty()){
+			return new HikariConfig(confFile);
+		}
+    val hc = new HikariConfig();
+    hc.setPoolName(resolved.hikariPoolName());// helps to know poolName during init phase
+    mergeFromDataSourceConfig(hc, config);//1.ebean
+		hc.setReadOnly(hc.isReadOnly() || replica);
+		fixErrors(dst);
+    setTargetFromProperties(hc, dst);//2.hikari (overrides)
+		return hc;
+	}
+
+	private final boolean replica;
+	private final @Nullable String tenantTemplate;
+
+	/** Replica pool names of the database: {@code db.replicas = r1, r2}; @param resolved properties of the database */
+	static List<String> replicaNames (Properties resolved){ return names(resolved, "replicas"); }
+
+	/** Failover (warm standby) pool names of the database in order: {@code db.failover = dr1, dr2}; @param resolved properties of the database */
+	static List<String> failoverNames (Properties resolved){ return names(resolved, "failover"); }
+
+	/** Own setting as a list of pool names: {@code r1, r2} or {@code r1;r2} */
+	private static List<String> names (Properties resolved, String setting) {
+		val names = new ArrayList<String>();
+		for (var r : ownSetting(resolved, setting).split("[;,]")){
+			r = trim(r);
+			if (!r.isEmpty())
+					names.add(r);
+		}
+		return names;
+	}
+
+	/** Reload: state of the last resolution. Null → reload is not enabled (no reloadInterval or prebuilt config) */
+	private @Nullable Properties lastResolved;
+	private @Nullable DataSourceConfig dataSourceConfig;
+	private String callerPoolName = "";
+	private @Nullable ScheduledFuture<?> reloadTask;
+	private @Nullable AdaptivePoolSizer sizer;
+
+	@Nullable AdaptivePoolSizer sizer (){ return sizer; }
+
+	/**
+	 Re-resolve config keys of this pool. Only hikari keys are re-read: ebean {@link DataSourceConfig} is fixed at pool creation.
+	 @return null if nothing has changed since the last resolution
+	 */
+	@Override
+	protected @Nullable HikariConfig reloadConfig () {
+		if (lastResolved == null || dataSourceConfig == null){ return null; }
+
+		val resolved = resolve(callerPoolName, null, tenantTemplate);
+		if (resolved.properties().equals(lastResolved)){ return null; }// the most likely case
+
+		lastResolved = (Properties) resolved.properties().clone();
+		val hc = toHikariConfig(resolved, dataSourceConfig);
+		hc.setPoolName(resolved.hikariPoolName());
+		return hc;
+	}
+
+	/** The old pool of a {@link #hotSwap} is closed at the latest after it */
+	static final long HOT_SWAP_DRAIN_MILLIS = 30_000;
+
+	/** Scheduled reload: runtime-mutable settings are applied in place, others (url, driver, …) by a hot swap of the pool */
+	private void reloadQuietly () {
+		try {
+			HikariConfig fresh;
+			ReloadResult result;
+			synchronized (this){
+				fresh = reloadConfig();
+				if (fresh == null){ return; }
+				result = reload(fresh);
+			}
+			if (!result.requiresRebuild().isEmpty()){
+				log.info("EbeanPool '{}' hot-swaps the pool to apply {}", name(), result.requiresRebuild());
+				decorate(fresh);
+				hotSwap(fresh, HOT_SWAP_DRAIN_MILLIS).whenComplete((w, e)->{
+					if (e != null)
+							log.error("EbeanPool '{}' hot swap failed, the old pool stays in use", name(), e);
+				});
+			}
+		} catch (Throwable e){
+			log.error("EbeanPool '{}' failed to reload settings", name(), e);
+		}
+	}
+
+	@Override
+	public void shutdown () {
+		val task = reloadTask;
+		if (task != null){
+			task.cancel(false);
+		}
+		if (sizer != null){
+			sizer.close();
+		}
+		super.shutdown();
+	}
+
+	/** Build-time resolved configs by database name, see {@link PrebuiltPoolConfigGenerator} */
+	private static final class Prebuilt {
+		static final Map<String,PrebuiltPoolConfig> BY_NAME = new HashMap<>();
+		static {
+			if (!"false".equalsIgnoreCase(opt("ebean.hikari.prebuilt"))){
+				for (val p : ServiceLoader.load(PrebuiltPoolConfig.class)){
+					BY_NAME.putIfAbsent(trim(p.databaseName()), p);
+				}
+			}
+		}
+	}
+	static @Nullable PrebuiltPoolConfig prebuilt (String callerPoolName) {
+		return Prebuilt.BY_NAME.get(trim(callerPoolName));
+	}
+
+	/**
+	 Resolved settings of one database
+	 @param hikariPoolName ebean (default database) or ebean.db_name
+	 @param databaseName prefix of the database, e.g. db. or my-db_name.
+	 @param properties property name (after prefix and alias) → value, including copyFrom and appendFrom settings
+	 */
+	record Resolved (String hikariPoolName, String databaseName, Properties properties) {
+		String confFile (){ return trim(properties.getProperty("confFile")); }
+	}
+
+	/**
+	 Config resolution pipeline: prefixes, aliases, copyFrom, appendFrom (confFile is returned as-is).
+	 @param origins (optional) property name → verbatim config key it was read from
+	 */
+	static Resolved resolve (String callerPoolName, @Nullable Map<String,String> origins){ return resolve(callerPoolName, origins, null); }
+
+	/**
+	 @param tenantTemplate (optional) callerPoolName is a tenant: the template database is copied from after the tenant's own copyFrom,
+	 {@code %tenant%} in values is replaced by the tenant
+	 */
+	static Resolved resolve (String callerPoolName, @Nullable Map<String,String> origins, @Nullable String tenantTemplate) {
 		val defaultDatabaseName = determineDefaultServerName();// usually "db"
     val tmpTrimPoolName = trim(callerPoolName);
     val hikariPoolName = tmpTrimPoolName.isEmpty() || tmpTrimPoolName.equals(defaultDatabaseName) ? "ebean"
@@ -69,18 +384,28 @@ class HikariEbeanDataSourcePool extends HikariEbeanDataSourceWrapper {
 		val databaseName = makeDatabaseNamePrefix(tmpTrimPoolName, defaultDatabaseName);
 		Map<String,String> aliasMap = alias();
     val prefixes = collectPrefixes();
+		val snapshot = ConfigSnapshot.shared();// one pass over all conf keys for all pools
     val dst = new Properties(127);
 
     //1. search settings with our db_name
-    filter(aliasMap, dst, databaseName, prefixes, defaultDatabaseName);
+    filter(snapshot, aliasMap, dst, origins, databaseName, prefixes, defaultDatabaseName);
     //2. use also settings of another db_name
-		for (var db : trim(dst.getProperty("copyFrom")).split("[;,]")){
+		String copyFrom = trim(dst.getProperty("copyFrom"));
+		if (tenantTemplate != null){
+			copyFrom = copyFrom.isEmpty() ? tenantTemplate : copyFrom +','+ tenantTemplate;
+		}
+		for (var db : copyFrom.split("[;,]")){
 			db = trim(db);
 			if (!db.isEmpty()){
 				log.debug("EbeanPool '{}' with database name '{}' also USES settings from '{}'", hikariPoolName, databaseName, db);
 				val tmp = new Properties(127);
-    	  filter(aliasMap, tmp, db, prefixes, defaultDatabaseName);
-				tmp.forEach(dst::putIfAbsent);
+				val tmpOrigins = origins == null ? null : new HashMap<String,String>();
+    	  filter(snapshot, aliasMap, tmp, tmpOrigins, db, prefixes, defaultDatabaseName);
+				tmp.forEach((k, v)->{
+					if (dst.putIfAbsent(k, v) == null && origins != null){
+						origins.put(k.toString(), tmpOrigins.get(k.toString()));
+					}
+				});
 			}
     }
 		//3. add settings from another "template" db_name. They override our own settings!
@@ -88,24 +413,32 @@ class HikariEbeanDataSourcePool extends HikariEbeanDataSourceWrapper {
 			db = trim(db);
 			if (!db.isEmpty()){
 				log.debug("EbeanPool '{}' with database name '{}' appends-over settings from '{}'", hikariPoolName, databaseName, db);
-				filter(aliasMap, dst, db, prefixes, defaultDatabaseName);
+				filter(snapshot, aliasMap, dst, origins, db, prefixes, defaultDatabaseName);
 			}
 		}
-		//4. load from another <hikari>.properties file == full delegation!
-		String confFile = trim(dst.getProperty("confFile"));
-		if (!confFile.isEmpty()){
-			ds = createDataSource(new HikariConfig(confFile), hikariPoolName);
-			return;
+		if (tenantTemplate != null){
+			dst.replaceAll((k, v)->v.toString().replace(TENANT_PLACEHOLDER, tmpTrimPoolName));
 		}
-    val hc = new HikariConfig();
-    hc.setPoolName(hikariPoolName);// helps to know poolName during init phase
-    mergeFromDataSourceConfig(hc, config);//1.ebean
-		fixErrors(hc, dst);
-    setTargetFromProperties(hc, dst);//2.hikari (overrides)
-    ds = createDataSource(hc, hikariPoolName);
-  }//new
+		return new Resolved(hikariPoolName, databaseName, dst);
+	}
 
-	private static void fixErrors (HikariConfig hc, Properties dst) {
+	/** The settings have maximumPoolSize in any spelling or alias: an explicit 10 can't be told from Hikari's default */
+	static boolean setsMaximumPoolSize (Properties resolved) {
+		val aliasMap = alias();
+		for (Object k : resolved.keySet()){
+			String key = stripKey(k);
+			if (key.equals("maximumpoolsize") || "maximumPoolSize".equals(aliasMap.get(key))){ return true; }
+		}
+		return false;
+	}
+
+	/** {@code ebean.hikari.group.<name> = max connections}: budget of a {@link PoolGroup} */
+	static final String GROUP_PREFIX = "ebean.hikari.group.";
+
+	/** In setting values of a tenant template: the tenant, e.g. {@code tenants.url = jdbc:postgresql://db/%tenant%} */
+	static final String TENANT_PLACEHOLDER = "%tenant%";
+
+	static void fixErrors (Properties dst) {
 		dst.entrySet().removeIf(e->{
 			if (e == null || e.getKey() == null || e.getValue() == null){ return true; }
 			val key = e.getKey().toString();
@@ -115,13 +448,40 @@ class HikariEbeanDataSourcePool extends HikariEbeanDataSourceWrapper {
 		});
 	}
 
+	/** Start the pool asynchronously on a bounded executor: per-db {@code async} or global {@code ebean.hikari.async} */
+	private boolean async;
+	/** Start the pool on the first getConnection: per-db {@code lazy} or global {@code ebean.hikari.lazy} */
+	private boolean lazy;
+
 	protected HikariDataSource createDataSource (HikariConfig hc, String poolName){
+		decorate(hc);
+    hc.setPoolName(poolName);
+    return lazy ? lazy(hc)// config is resolved now, connections on demand
+				: async ? startAsync(hc)// see ready()
+				: new HikariDataSource(hc);
+  }
+
+	/** Monitoring and executors of a new Hikari pool: the first one and every hot-swap replacement */
+	static void decorate (HikariConfig hc) {
     try {// setupMonitoring
       hc.setMetricRegistry(Metrics.globalRegistry);
     } catch (Throwable ignore){}// no Micrometer in classPath; see also hikariConfig.setRegisterMbeans(true)
-    hc.setPoolName(poolName);
-    return new HikariDataSource(hc);
-  }
+		sharedExecutors(hc);
+	}
+
+	/**
+	 Opt-in {@code ebean.hikari.sharedExecutors = true}: shared (jittered) housekeeping scheduler and thread factory of all pools
+	 instead of threads per pool, unless the config has its own. Off by default: a keepalive blocked on one database
+	 delays housekeeping of the other pools. {@code ebean.hikari.virtualThreads = true} → virtual adder/closer threads (also without sharing)
+	 */
+	static void sharedExecutors (HikariConfig hc) {
+		boolean shared = "true".equalsIgnoreCase(opt("ebean.hikari.sharedExecutors"));
+		boolean virtual = "true".equalsIgnoreCase(opt("ebean.hikari.virtualThreads"));
+		if (shared && hc.getScheduledExecutor() == null)
+				hc.setScheduledExecutor(PoolExecutors.housekeeping());
+		if ((shared || virtual) && hc.getThreadFactory() == null)
+				hc.setThreadFactory(PoolExecutors.poolThreads(virtual));
+	}
 
   /**
 	 sub-prefix for real-vendor-jdbc-driver settings (e.g. MSSQL statementPoolingCacheSize)
@@ -132,31 +492,99 @@ class HikariEbeanDataSourcePool extends HikariEbeanDataSourceWrapper {
 		"datasource." // Hikari way to pass driver-specific properties, see https://github.com/brettwooldridge/HikariCP/wiki/MySQL-Configuration + PropertyElf#setTargetFromProperties
 	};
 
+  /** Our own (not Hikari) keys: they are processed during resolution */
+  static void removeOwnKeys (Properties p){
+    p.keySet().removeIf(HikariEbeanDataSourcePool::isOwnKey);
+  }
+
+	/** Our own (not Hikari) key: {@link #OWN_KEYS} or a lane setting */
+	static boolean isOwnKey (Object key) {
+		String stripped = SmartConfig.stripKey(key);
+		return OWN_KEYS.contains(stripped) || stripped.startsWith(LANE_PREFIX);
+	}
+
+	/** Own keys consumed by the resolution itself: not settings of the pool */
+	static final Set<String> RESOLUTION_KEYS = Set.of("appendfrom", "copyfrom", "conffile");
+	/** {@link SmartConfig#stripKey stripped} names of our own keys: appendFrom, copyFrom, confFile, reloadInterval, async, lazy, hibernateAfter, drainTimeout, statementCacheSize, group, priorityReserved, autosize, circuit breaker, failover, replicas and replica set settings */
+	static final Set<String> OWN_KEYS = Set.of("appendfrom", "copyfrom", "conffile", "reloadinterval", "async",
+			"replicas", "balance", "hedge", "lagquery", "laginterval", "maxlag", "stickiness", "autosize", "autosizeinterval",
+			"healthinterval", "breakerfailures", "breakeropentime", "failover", "draintimeout", "statementcachesize", "lazy", "hibernateafter", "group", "groupweight", "priorityreserved");
+
+	/** {@code lane.<name>.<setting>}: {@link Lane bulkheads} */
+	static final String LANE_PREFIX = "lane.";
+
+	/** {@code lane.<name>.max-concurrent} (required), {@code .max-queue} (0), {@code .timeout} (connectionTimeout) → lanes */
+	static List<Lane> lanes (Properties p) {
+		val settings = new TreeMap<String,Map<String,String>>();
+		for (val e : p.entrySet()){
+			String key = trim(e.getKey());
+			if (!SmartConfig.stripKey(key).startsWith(LANE_PREFIX)){ continue; }
+			int last = key.lastIndexOf('.');
+			if (last <= LANE_PREFIX.length()){ throw new IllegalArgumentException("Lane setting without lane name: "+ key); }
+			settings.computeIfAbsent(key.substring(LANE_PREFIX.length(), last), n->new HashMap<>())
+					.put(SmartConfig.stripKey(key.substring(last + 1)), trim(e.getValue()));
+		}
+		val lanes = new ArrayList<Lane>(settings.size());
+		for (val e : settings.entrySet()){
+			val m = e.getValue();
+			String max = m.getOrDefault("maxconcurrent", "");
+			if (max.isEmpty()){ throw new IllegalArgumentException("Lane "+ e.getKey() +" without max-concurrent: "+ m); }
+			lanes.add(new Lane(e.getKey(), Integer.parseInt(normValue(max)),
+					Integer.parseInt(normValue(m.getOrDefault("maxqueue", "0"))),
+					millis(m.getOrDefault("timeout", ""))));
+		}
+		return lanes;
+	}
+
+	/** Value of our own (not Hikari) key: spelling-insensitive, e.g. reloadInterval, reload-interval, reload_interval */
+	static String ownSetting (Properties p, String name) {
+		String stripped = SmartConfig.stripKey(name);
+		for (val e : p.entrySet()){
+			if (SmartConfig.stripKey(e.getKey()).equals(stripped))
+					return trim(e.getValue());
+		}
+		return "";
+	}
+
+	/** 30s, 500ms, 5m, 2h, 1d or plain millis; "" → 0 */
+	static long millis (String value) {
+		String v = normValue(value);
+		if (v.isEmpty()){ return 0; }
+		return SmartConfig.parseDuration(v).map(Duration::toMillis).orElseGet(()->Long.decode(v));
+	}
+
   /** @see PropertyElf#setTargetFromProperties*/
   static void setTargetFromProperties (HikariConfig hc, Properties p){
-    p.remove("appendFrom");  p.remove("copyFrom");  p.remove("confFile");
+    removeOwnKeys(p);
 
-    List<Method> methods = Arrays.asList(hc.getClass().getMethods());
     p.forEach((keyObj, value) -> {
       String key = trim(keyObj);
-      String k = key.toLowerCase(Locale.ENGLISH);
-
-      for (String prefix : VENDOR_SETTINGS_PREFIX){
-        if (k.startsWith(prefix)){
-          hc.addDataSourceProperty(key.substring(prefix.length()), value);
-          return;// ~ break
-        }
-      }//f else: HikariConfig.setter
+      String vendorKey = vendorProperty(key);
+      if (vendorKey != null){
+				hc.addDataSourceProperty(vendorKey, value);
+				return;
+      }// else: HikariConfig.setter
 
       String javaPropertyName = toCamelFromUnderscore(key.replace('-', '_'));// spring.boot-key_fmt
 
-      boolean success = SmartConfig.setProperty(hc, javaPropertyName, value, methods);
+      boolean success = SmartConfig.setProperty(hc, javaPropertyName, value);
       if (!success && !javaPropertyName.equals(key)){// fallback to property_name as-is
-				SmartConfig.setProperty(hc, key, value, methods);
+				SmartConfig.setProperty(hc, key, value);
 			}
     });//f
   }
 
+  /** @return real-vendor-jdbc-driver property name (without prefix) or null: not a vendor property */
+  static @Nullable String vendorProperty (String key) {
+		String k = key.toLowerCase(Locale.ENGLISH);
+		for (String prefix : VENDOR_SETTINGS_PREFIX){
+			if (k.startsWith(prefix)){
+				return key.substring(prefix.length());
+			}
+		}
+		return null;
+  }
+
   protected void mergeFromDataSourceConfig (HikariConfig hc, DataSourceConfig dsc) {
     hc.setReadOnly(dsc.isReadOnly());//!
     sets(dsc.getUrl(), hc::setJdbcUrl);
@@ -216,8 +644,10 @@ class HikariEbeanDataSourcePool extends HikariEbeanDataSourceWrapper {
    *   dbName.
    *
    * }</pre>
+   * Every prefix is a range scan of the shared {@link ConfigSnapshot} → cost is O(keys of this db), not O(all keys).
    */
-  void filter (Map<String,String> aliasMap, Properties dst, String dbName, List<String> prefixTemplates, String defaultDatabaseName){
+  static void filter (ConfigSnapshot snapshot, Map<String,String> aliasMap, Properties dst, @Nullable Map<String,String> origins,
+											String dbName, List<String> prefixTemplates, String defaultDatabaseName){
     dbName = trim(dbName).toLowerCase(Locale.ENGLISH);// "", "db", "mycoolbase", "TooSmart."
     val db = dbName + (dbName.isEmpty() || dbName.endsWith(".") ? "" : ".");// "", "db.", "mycoolbase.", "toosmart."
 
@@ -247,33 +677,38 @@ class HikariEbeanDataSourcePool extends HikariEbeanDataSourceWrapper {
 				.sorted(Comparator.comparing(String::length).reversed())
 				.toArray(String[]::new);
 		}
-		// datasource.db.url [= jdbc:h2:mem:testMix]
-    for (val verbatimConfKey : SmartConfig.propertyNames()){
-			val confKey = trim(verbatimConfKey).replace("\"", "");// SmallRyeConfig yaml key "foo.bar" becomes "\"foo.bar\""
-			String k = confKey.toLowerCase(Locale.ENGLISH);// fullKey
-
-			String propertyName = "";
-			for (String pre : prefixes){// 1) somedb. 2) datasource.somedb.  E.g.:  db., datasource.db.
-				if (k.startsWith(pre)){
-					propertyName = confKey.substring(pre.length());
-					k = k.substring(pre.length());
-					break;// found
+		record Match (int prefixLength, String lowerCaseKey, ConfigSnapshot.Key key) {}
+		val matches = new ArrayList<Match>();
+		val claimed = new HashSet<String>();
+		for (String pre : prefixes){// 1) datasource.somedb. 2) somedb.  Longest first: a key belongs to its longest prefix only
+			for (val e : snapshot.startingWith(pre).entrySet()){
+				if (claimed.add(e.getKey())){
+					for (val key : e.getValue()){
+						matches.add(new Match(pre.length(), e.getKey(), key));
+					}
 				}
 			}
+		}
+		// datasource.db.url [= jdbc:h2:mem:testMix]; shortest prefix first → the most specific prefix wins: datasource.db.url over db.url
+		for (int i = matches.size() - 1; i >= 0; i--){
+			val m = matches.get(i);
+			String propertyName = m.key().clean().substring(m.prefixLength());
 			if (propertyName.isEmpty()){
-				continue;// skip lines without prefix
+				continue;// prefix itself
 			}
-
-			k = k.replace("-", "").replace("_", ""); // [datasource.db.] max-Connections → maxconnections
+			String k = m.lowerCaseKey().substring(m.prefixLength())
+				.replace("-", "").replace("_", ""); // [datasource.db.] max-Connections → maxconnections
 			String alias = trim(aliasMap.get(k));
 			if (!alias.isEmpty())
 					propertyName = alias; // e.g. url (ebean name) → jdbcUrl (hikari name)
 
-			String confValue = opt(verbatimConfKey);
-			if (!confValue.isEmpty())
-					dst.setProperty(propertyName, normValue(confValue));
-			else
-					log.warn("filter: Config has property name {} without value @ {}.{}", verbatimConfKey, db, propertyName);
+			String confValue = opt(m.key().verbatim());
+			if (!confValue.isEmpty()){
+				dst.setProperty(propertyName, normValue(confValue));
+				if (origins != null)
+						origins.put(propertyName, m.key().verbatim());
+			} else
+					log.warn("filter: Config has property name {} without value @ {}.{}", m.key().verbatim(), db, propertyName);
 		}//f
   }
 }
\ No newline at end of file
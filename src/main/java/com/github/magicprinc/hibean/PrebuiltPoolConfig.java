@@ -0,0 +1,59 @@
+package com.github.magicprinc.hibean;
+
+import com.zaxxer.hikari.HikariConfig;
+import io.ebean.datasource.DataSourceConfig;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ Build-time resolved pool configuration of one database: generated by {@link PrebuiltPoolConfigGenerator}.
+
+ The whole {@link HikariEbeanDataSourcePool} resolution pipeline (prefixes, aliases, copyFrom, appendFrom, confFile) runs at build time,
+ and the generated class calls {@link HikariConfig} setters directly → no config scan, no {@code getMethods()}, no {@code Class.forName} at startup.
+ Only secrets (and explicitly requested runtime properties) are re-read from MicroProfile Config at runtime.
+ Our own per-database settings (lanes, breaker, failover, group, autosize, …) are resolved at build time too: {@link #ownSettings()}.
+
+ 🤖 META-INF/services/com.github.magicprinc.hibean.PrebuiltPoolConfig (generated too).
+ {@code ebean.hikari.prebuilt=false} ignores generated configs.
+
+ @see PrebuiltPoolConfigGenerator
+ @see HikariEbeanDataSourcePool
+ */
+public interface PrebuiltPoolConfig {
+	/** Database name as Ebean passes it to {@link io.ebean.datasource.DataSourceFactory#createPool}: db, mix, my_db */
+	String databaseName ();
+
+	/** ebean (default database) or ebean.db_name */
+	String hikariPoolName ();
+
+	/** true: confFile = full delegation → {@link DataSourceConfig} (ebean settings) is ignored */
+	default boolean fullDelegation (){ return false; }
+
+	/** Our own (not Hikari) settings of the database, as resolved at build time: {@code lane.reporting.max-concurrent → 3} */
+	default Map<String,String> ownSettings (){ return Map.of(); }
+
+	/** Calls HikariConfig setters. It is called after ebean {@link DataSourceConfig} settings are applied (hikari settings override them) */
+	void apply (HikariConfig hc);
+
+	/** Secret (e.g. password) is never written to generated code: it is read at runtime from MicroProfile Config */
+	static void runtimeSecret (String confKey, Consumer<String> setter) {
+		String value = SmartConfig.opt(confKey);
+		if (!value.isEmpty())
+				setter.accept(value);
+	}
+
+	/** Secret of confFile (full delegation): the file is read at runtime */
+	static void confFileSecret (String confFile, String key, Consumer<String> setter) {
+		String value = SmartConfig.trim(PrebuiltPoolConfigGenerator.loadConfFile(confFile).getProperty(key));
+		if (!value.isEmpty())
+				setter.accept(value);
+	}
+
+	/** Property that must be re-read at runtime (e.g. jdbcUrl differs per environment): the same coercion rules as {@link SmartConfig#setProperty} */
+	static void runtime (HikariConfig hc, String confKey, String propertyName) {
+		String value = SmartConfig.opt(confKey);
+		if (!value.isEmpty())
+				SmartConfig.setProperty(hc, propertyName, SmartConfig.normValue(value));
+	}
+}
\ No newline at end of file
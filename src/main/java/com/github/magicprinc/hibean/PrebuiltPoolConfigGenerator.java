@@ -0,0 +1,298 @@
+package com.github.magicprinc.hibean;
+
+import com.zaxxer.hikari.HikariConfig;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static com.github.magicprinc.hibean.SmartConfig.stripKey;
+import static com.github.magicprinc.hibean.SmartConfig.trim;
+import static io.ebean.util.CamelCaseHelper.toCamelFromUnderscore;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ Build-time step: runs the {@link HikariEbeanDataSourcePool} resolution pipeline (prefixes, aliases from ebean/ehpalias.properties,
+ copyFrom, appendFrom, confFile) with the build's MicroProfile Config and emits one {@link PrebuiltPoolConfig} per database,
+ that calls {@link HikariConfig} setters directly, + META-INF/services registration.
+
+ Secrets (password, secret, credential) are never written to generated code: they are re-read at runtime,
+ as well as properties listed in {@code --runtime} (e.g. jdbcUrl that differs per environment).
+
+ <pre>{@code
+ // build.gradle of the application
+ sourceSets { hibean { compileClasspath += sourceSets.main.compileClasspath } }
+ sourceSets.hibean.java.srcDir("$buildDir/generated/hibean/java")
+ sourceSets.hibean.resources.srcDir("$buildDir/generated/hibean/resources")
+
+ tasks.register('generateHikariPoolConfigs', JavaExec) {
+   classpath = sourceSets.main.runtimeClasspath
+   mainClass = 'com.github.magicprinc.hibean.PrebuiltPoolConfigGenerator'
+   args "--out=$buildDir/generated/hibean", '--package=com.example.db', '--databases=db,reports', '--runtime=jdbcUrl'
+ }
+ compileHibeanJava.dependsOn generateHikariPoolConfigs
+ jar { from sourceSets.hibean.output }
+ }</pre>
+
+ @see PrebuiltPoolConfig
+ */
+@Slf4j
+public final class PrebuiltPoolConfigGenerator {
+	private PrebuiltPoolConfigGenerator (){}
+
+	/** --out=dir --package=com.example.db --databases=db,mix [--runtime=jdbcUrl,username] */
+	public static void main (String[] args) throws IOException {
+		val a = new HashMap<String,String>();
+		for (String arg : args){
+			int eq = arg.indexOf('=');
+			if (arg.startsWith("--") && eq > 2){
+				a.put(arg.substring(2, eq), trim(arg.substring(eq + 1)));
+			}
+		}
+		val out = Path.of(a.getOrDefault("out", "build/generated/hibean"));
+		val packageName = a.getOrDefault("package", "hibean.generated");
+		val databases = split(a.getOrDefault("databases", SmartConfig.determineDefaultServerName()));
+		val runtime = split(a.getOrDefault("runtime", "")).stream()
+			.map(SmartConfig::stripKey)
+			.collect(Collectors.toSet());
+
+		val javaDir = out.resolve("java").resolve(packageName.replace('.', '/'));
+		Files.createDirectories(javaDir);
+		val services = new ArrayList<String>();
+		val sources = ConfigSnapshot.batch(()->databases.stream()// config keys are checked once for all databases
+			.map(db->generate(packageName, className(db), db, runtime))
+			.toList());
+		for (int i = 0; i < databases.size(); i++){
+			String db = databases.get(i);
+			String className = className(db);
+			Files.writeString(javaDir.resolve(className + ".java"), sources.get(i), UTF_8);
+			services.add(packageName + '.' + className);
+			log.info("PrebuiltPoolConfig for database '{}' → {}.{}", db, packageName, className);
+		}
+		val servicesDir = out.resolve("resources").resolve("META-INF/services");
+		Files.createDirectories(servicesDir);
+		Files.writeString(servicesDir.resolve(PrebuiltPoolConfig.class.getName()), String.join("\n", services) + '\n', UTF_8);
+	}
+
+	static List<String> split (String list) {
+		return Arrays.stream(list.split("[;,]"))
+			.map(SmartConfig::trim)
+			.filter(s->!s.isEmpty())
+			.toList();
+	}
+
+	static String className (String databaseName) {
+		val sb = new StringBuilder("PrebuiltPool_");
+		for (char c : trim(databaseName).toCharArray()){
+			sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+		}
+		return sb.toString();
+	}
+
+	/** @return java source of {@link PrebuiltPoolConfig} for one database */
+	static String generate (String packageName, String className, String databaseName, Set<String> runtimeProperties) {
+		val origins = new HashMap<String,String>();// property name → conf key
+		val resolved = HikariEbeanDataSourcePool.resolve(databaseName, origins);
+		val own = ownSettings(resolved);
+		val body = new StringBuilder(2048);
+
+		String confFile = resolved.confFile();
+		if (!confFile.isEmpty()){// full delegation: the same as new HikariConfig(confFile) → PropertyElf
+			for (val e : new TreeMap<>(loadConfFile(confFile)).entrySet()){
+				String key = trim(e.getKey());
+				String value = trim(e.getValue());
+				if (key.startsWith("dataSource.")){
+					String name = key.substring("dataSource.".length());
+					if (isSecret(name))
+							body.append("\t\tPrebuiltPoolConfig.confFileSecret(").append(str(confFile)).append(", ").append(str(key))
+								.append(", v->hc.addDataSourceProperty(").append(str(name)).append(", v));\n");
+					else
+							body.append("\t\thc.addDataSourceProperty(").append(str(name)).append(", ").append(str(value)).append(");\n");
+				} else {
+					emitSetter(body, key, value, isSecret(key) ? null : value, setterCode->
+						body.append("\t\tPrebuiltPoolConfig.confFileSecret(").append(str(confFile)).append(", ").append(str(key))
+							.append(", hc::").append(setterCode).append(");\n"));
+				}
+			}
+		} else {
+			val dst = resolved.properties();
+			HikariEbeanDataSourcePool.fixErrors(dst);
+			HikariEbeanDataSourcePool.removeOwnKeys(dst);
+
+			for (val e : new TreeMap<>(dst).entrySet()){
+				String key = trim(e.getKey());
+				String value = e.getValue().toString();
+				String confKey = origins.getOrDefault(key, "");
+				String vendorKey = HikariEbeanDataSourcePool.vendorProperty(key);
+				if (vendorKey != null){
+					if (isSecret(vendorKey))
+							body.append("\t\tPrebuiltPoolConfig.runtimeSecret(").append(str(confKey))
+								.append(", v->hc.addDataSourceProperty(").append(str(vendorKey)).append(", v));\n");
+					else
+							body.append("\t\thc.addDataSourceProperty(").append(str(vendorKey)).append(", ").append(str(value)).append(");\n");
+					continue;
+				}
+				String javaPropertyName = toCamelFromUnderscore(key.replace('-', '_'));// spring.boot-key_fmt
+				String propertyName = PropertyBinder.of(HikariConfig.class).setter(javaPropertyName) != null ? javaPropertyName : key;
+				boolean secret = isSecret(propertyName);
+				emitSetter(body, propertyName, value, secret ? null : value, setterCode->
+					body.append("\t\tPrebuiltPoolConfig.runtimeSecret(").append(str(confKey)).append(", hc::").append(setterCode).append(");\n"));
+
+				if (!secret && !confKey.isEmpty() && runtimeProperties.contains(stripKey(propertyName))){
+					body.append("\t\tPrebuiltPoolConfig.runtime(hc, ").append(str(confKey)).append(", ").append(str(propertyName)).append(");\n");
+				}
+			}
+		}
+		return "package " + packageName + ";\n\n" +
+			"import com.github.magicprinc.hibean.PrebuiltPoolConfig;\n" +
+			"import com.zaxxer.hikari.HikariConfig;\n" +
+			(own.isEmpty() ? "" : "import java.util.Map;\n") + '\n' +
+			"/** Generated by " + PrebuiltPoolConfigGenerator.class.getName() + " for database " + str(databaseName) + ". Do not edit! */\n" +
+			"public final class " + className + " implements PrebuiltPoolConfig {\n" +
+			"\t@Override public String databaseName (){ return " + str(databaseName) + "; }\n\n" +
+			"\t@Override public String hikariPoolName (){ return " + str(resolved.hikariPoolName()) + "; }\n\n" +
+			(confFile.isEmpty() ? "" : "\t@Override public boolean fullDelegation (){ return true; }\n\n") +
+			(own.isEmpty() ? "" : own.entrySet().stream()
+				.map(e->"\t\t\tMap.entry("+ str(e.getKey()) +", "+ str(e.getValue()) +')')
+				.collect(Collectors.joining(",\n", "\t@Override\n\tpublic Map<String,String> ownSettings () {\n\t\treturn Map.ofEntries(\n", "\n\t\t);\n\t}\n\n"))) +
+			"\t@Override\n" +
+			"\tpublic void apply (HikariConfig hc) {\n" +
+			body +
+			"\t}\n}";
+	}
+
+	/**
+	 Our own (not Hikari) settings of the database → {@link PrebuiltPoolConfig#ownSettings()}, except keys of the resolution itself
+	 @throws IllegalStateException reloadInterval: a reload re-resolves the config at runtime, it can't be prebuilt
+	 */
+	static TreeMap<String,String> ownSettings (HikariEbeanDataSourcePool.Resolved resolved) {
+		val own = new TreeMap<String,String>();
+		for (val e : resolved.properties().entrySet()){
+			String key = trim(e.getKey());
+			String stripped = stripKey(key);
+			if (!HikariEbeanDataSourcePool.isOwnKey(key) || HikariEbeanDataSourcePool.RESOLUTION_KEYS.contains(stripped)){ continue; }
+			if (stripped.equals("reloadinterval")){
+				throw new IllegalStateException("EbeanPool '"+ resolved.hikariPoolName() +"': reloadInterval can't be prebuilt (a reload resolves the config at runtime)");
+			}
+			own.put(key, trim(e.getValue()));
+		}
+		return own;
+	}
+
+	/**
+	 hc.setMaximumPoolSize(31); with the value converted at build time by the same rules as {@link SmartConfig#setProperty}
+	 @param value null → secret: read at runtime via {@code runtimeSecret} (String setter)
+	 */
+	private static void emitSetter (StringBuilder body, String propertyName, String rawValue, @Nullable String value, Consumer<String> runtimeSecret) {
+		val setter = PropertyBinder.of(HikariConfig.class).setter(propertyName);
+		if (setter == null){
+			log.warn("Property {} does not exist on target {}", propertyName, HikariConfig.class);// ~ ebean property
+			body.append("\t\t// unknown property: ").append(propertyName.replaceAll("[\r\n]", " ")).append('\n');
+			return;
+		}
+		if (value == null){
+			if (setter.type() == String.class)
+					runtimeSecret.accept(setter.name());
+			else
+					body.append("\t\t// secret of type ").append(setter.type().getName()).append(" is not supported: ").append(propertyName).append('\n');
+			return;
+		}
+		String literal;
+		try {
+			literal = literal(setter.type(), setter.converter().convert(trim(value), rawValue));
+		} catch (Exception e){
+			log.error("Failed to set property {} on target {}", propertyName, HikariConfig.class, e);
+			literal = null;
+		}
+		if (literal == null)
+				body.append("\t\t// can't set ").append(propertyName).append(" = ").append(str(value)).append('\n');
+		else
+				body.append("\t\thc.").append(setter.name()).append('(').append(literal).append(");\n");
+	}
+
+	/** Java literal (or expression) of a converted value; null: not representable */
+	static @Nullable String literal (Class<?> type, Object v) {
+		if (v instanceof Integer i){ return i.toString(); }
+		if (v instanceof Long l){ return l + "L"; }
+		if (v instanceof Short sh){ return "(short) " + sh; }
+		if (v instanceof Boolean b){ return b.toString(); }
+		if (v instanceof char[] chars){ return str(new String(chars)) + ".toCharArray()"; }
+		if (v instanceof int[] ints){
+			return Arrays.stream(ints).mapToObj(Integer::toString).collect(Collectors.joining(", ", "new int[]{", "}"));
+		}
+		if (v instanceof String[] strings){
+			return Arrays.stream(strings).map(PrebuiltPoolConfigGenerator::str).collect(Collectors.joining(", ", "new String[]{", "}"));
+		}
+		if (v instanceof String s){
+			return type.isAssignableFrom(String.class) ? str(s) : null;
+		}
+		val c = v.getClass();// instance of class (Class.forName at build time)
+		try {
+			return Modifier.isPublic(c.getModifiers()) && Modifier.isPublic(c.getDeclaredConstructor().getModifiers())
+					? "new " + c.getCanonicalName() + "()"
+					: null;
+		} catch (NoSuchMethodException e){
+			return null;
+		}
+	}
+
+	static boolean isSecret (String propertyName) {
+		String k = stripKey(propertyName);
+		return k.contains("password") || k.contains("secret") || k.contains("credential");
+	}
+
+	/** The same as {@link HikariConfig#HikariConfig(String)}: file or class path resource */
+	static Properties loadConfFile (String confFile) {
+		val p = new Properties();
+		try {
+			val file = Path.of(confFile);
+			try (InputStream is = Files.isRegularFile(file) ? Files.newInputStream(file)
+					: PrebuiltPoolConfigGenerator.class.getResourceAsStream(confFile)){
+				if (is == null){ throw new IllegalArgumentException("Cannot find property file: " + confFile); }
+				p.load(new InputStreamReader(is, UTF_8));
+			}
+		} catch (IOException e){
+			throw new UncheckedIOException("Failed to read property file: " + confFile, e);
+		}
+		return p;
+	}
+
+	/** Java string literal */
+	static String str (@Nullable String s) {
+		if (s == null){ return "null"; }
+		val sb = new StringBuilder(s.length() + 2).append('"');
+		for (char c : s.toCharArray()){
+			switch (c){
+				case '"' -> sb.append("\\\"");
+				case '\\' -> sb.append("\\\\");
+				case '\n' -> sb.append("\\n");
+				case '\r' -> sb.append("\\r");
+				case '\t' -> sb.append("\\t");
+				default -> {
+					if (c < 0x20 || c > 0x7E)
+							sb.append(String.format(Locale.ENGLISH, "\\u%04x", (int) c));
+					else
+							sb.append(c);
+				}
+			}
+		}
+		return sb.append('"').toString();
+	}
+}
\ No newline at end of file
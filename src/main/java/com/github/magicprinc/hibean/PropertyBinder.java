@@ -0,0 +1,142 @@
+package com.github.magicprinc.hibean;
+
+import com.zaxxer.hikari.HikariConfig;
+import lombok.val;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.github.magicprinc.hibean.SmartConfig.trim;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ Compiled setter plan of a target class (typically {@link HikariConfig}): setter name → pre-resolved {@link MethodHandle} + value converter.
+
+ Built once per class and cached in a {@link ClassValue} → {@link SmartConfig#setProperty} costs no reflection lookups:
+ neither for pool construction, nor for runtime re-binding (reload).
+ Type coercion rules are the same as {@link com.zaxxer.hikari.util.PropertyElf#setProperty} (see {@link SmartConfig#setProperty}).
+
+ @see SmartConfig#setProperty
+ */
+final class PropertyBinder {
+	private static final ClassValue<PropertyBinder> BINDERS = new ClassValue<>(){
+		@Override protected PropertyBinder computeValue (Class<?> type){ return new PropertyBinder(type); }
+	};
+
+	/** trimmedValue for numbers, booleans, arrays; raw propValue for strings and objects */
+	@FunctionalInterface
+	interface Converter {
+		Object convert (String trimmedValue, Object propValue) throws Exception;
+	}
+
+	/** @param handle (Object target, Object value)void */
+	record Setter (String name, Class<?> type, MethodHandle handle, Converter converter) {
+		void invoke (Object target, Object propValue) throws Throwable {
+			handle.invokeExact(target, converter.convert(trim(propValue), propValue));
+		}
+	}
+
+	/** setter method name (setMaximumPoolSize) → compiled setter */
+	private final Map<String,Setter> setters;
+	/** property name as in config (maximumPoolSize, shouty_val) → resolved setter */
+	private final ConcurrentMap<String,Optional<Setter>> byPropertyName = new ConcurrentHashMap<>();
+
+	private PropertyBinder (Class<?> type) {
+		val lookup = MethodHandles.lookup();
+		val map = new HashMap<String,Setter>();
+		for (Method m : type.getMethods()){
+			if (m.getParameterCount() != 1 || !m.getName().startsWith("set") || map.containsKey(m.getName())){ continue; }// the first one wins
+
+			MethodHandle mh = unreflect(lookup, m);
+			if (mh != null){
+				Class<?> paramClass = m.getParameterTypes()[0];
+				map.put(m.getName(), new Setter(m.getName(), paramClass, mh.asType(methodType(void.class, Object.class, Object.class)), converter(paramClass)));
+			}
+		}
+		setters = Collections.unmodifiableMap(map);
+	}//new
+
+	static PropertyBinder of (Class<?> type){ return BINDERS.get(type); }
+
+	/**
+	 1. set + CapitalizedName (e.g: maximumPoolSize → setMaximumPoolSize)
+	 2. SHOUTY_CASE fallback: setMAXIMUMPOOLSIZE — for historical HikariCP compatibility
+	 */
+	@Nullable Setter setter (String propName) {
+		return byPropertyName.computeIfAbsent(propName, name->{
+			// use the english locale to avoid the infamous turkish locale bug
+			Setter s = setters.get("set" + name.substring(0, 1).toUpperCase(Locale.ENGLISH) + name.substring(1));
+			if (s == null){
+				s = setters.get("set" + name.toUpperCase(Locale.ENGLISH));
+			}
+			return Optional.ofNullable(s);
+		}).orElse(null);
+	}
+
+	Map<String,Setter> setters (){ return setters; }
+
+	private static @Nullable MethodHandle unreflect (MethodHandles.Lookup lookup, Method m) {
+		try {
+			return lookup.unreflect(m);
+		} catch (IllegalAccessException e){
+			try {
+				m.setAccessible(true);// public method of non-public class from another package
+				return lookup.unreflect(m);
+			} catch (IllegalAccessException | RuntimeException e2){
+				LoggerFactory.getLogger(PropertyBinder.class).debug("Setter {} is not accessible ‹ {}", m, e2.toString());
+				return null;
+			}
+		}
+	}
+
+	/** @see SmartConfig#setProperty */
+	static Converter converter (Class<?> paramClass) {
+		if (paramClass == int.class || paramClass == Integer.class){
+			return (value, propValue)->Integer.decode(value);
+		}
+		else if (paramClass == long.class || paramClass == Long.class){
+			return (value, propValue)->SmartConfig.parseDuration(value).map(Duration::toMillis).orElseGet(()->Long.decode(value));
+		}
+		else if (paramClass == short.class || paramClass == Short.class){
+			return (value, propValue)->Short.decode(value);
+		}
+		else if (paramClass == boolean.class || paramClass == Boolean.class){
+			return (value, propValue)->Boolean.parseBoolean(value);
+		}
+		else if (paramClass.isArray() && char.class.isAssignableFrom(paramClass.getComponentType())){
+			return (value, propValue)->value.toCharArray();
+		}
+		else if (paramClass.isArray() && int.class.isAssignableFrom(paramClass.getComponentType())){
+			return (value, propValue)->SmartConfig.parseIntArray(value);
+		}
+		else if (paramClass.isArray() && String.class.isAssignableFrom(paramClass.getComponentType())){
+			return (value, propValue)->SmartConfig.parseStringArray(value);
+		}
+		else if (paramClass == String.class || paramClass == CharSequence.class){
+			return (value, propValue)->propValue.toString();
+		}
+		else {
+			return (value, propValue)->{
+				try {
+					LoggerFactory.getLogger(SmartConfig.class).debug("Try to create a new instance of \"{}\"", propValue);
+					return Class.forName(propValue.toString()).getDeclaredConstructor().newInstance();
+
+				} catch (InstantiationException | ClassNotFoundException | NoClassDefFoundError e){
+					LoggerFactory.getLogger(SmartConfig.class).debug("Class \"{}\" not found or could not instantiate it (Default constructor) ‹ {}", propValue, e.toString());
+					return propValue;
+				}
+			};
+		}
+	}
+}
\ No newline at end of file
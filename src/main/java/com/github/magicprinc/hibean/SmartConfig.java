@@ -10,7 +10,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Method;
 import java.text.Normalizer;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -171,9 +170,11 @@ interface SmartConfig {
 
 
 	/// TODO keep in sync with {@link PropertyElf#setProperty} !! 🔥
-	/// Reflection-based setter that maps configuration property names to actual JavaBean setters on a target object (typically [HikariConfig]).
+	/// Setter that maps configuration property names to actual JavaBean setters on a target object (typically [HikariConfig]).
 	/// It's called from [#setTargetFromProperties]
 	///
+	/// Setters are resolved once per target class: [PropertyBinder] (cached in a [ClassValue]) holds pre-resolved MethodHandles and converters.
+	///
 	/// Resolution logic:
 	/// 1. Converts the property name to set + CapitalizedName (e.g: maximumPoolSize → setMaximumPoolSize)
 	/// 2. If no method found, tries a SHOUTY_CASE fallback: setMAXIMUMPOOLSIZE — for historical HikariCP compatibility
@@ -181,67 +182,20 @@ interface SmartConfig {
 	///
 	/// Type coercion: inspects the setter's parameter type and converts the string value accordingly:
 	/// - int/Integer → Integer.decode(value) (supports hex 0xFF, octal 077)
-	/// - long/Long → Long.decode(value)
+	/// - long/Long → duration (30s, 500ms, 5m, 2h, 1d) in millis or Long.decode(value)
 	/// - short/Short → Short.decode(value)
 	/// - boolean/Boolean → Boolean.parseBoolean(value)
+	/// - char[], int[], String[] → value.toCharArray(), comma separated ints, comma separated strings (with \\ escape)
 	/// - String/CharSequence → raw string
 	/// - Anything else → tries Class.forName(value).newInstance() first (useful for enum/class-typed properties like IsolationLevel), falls back to passing the raw string value
-	static boolean setProperty (Object target, String propName, Object propValue, List<Method> methods) {
-		// use the english locale to avoid the infamous turkish locale bug
-		val methodName = "set" + propName.substring(0, 1).toUpperCase(Locale.ENGLISH) + propName.substring(1);
-		var writeMethod = methods.stream().filter(m -> m.getName().equals(methodName) && m.getParameterCount() == 1).findFirst().orElse(null);
-
-		if (writeMethod == null){
-			val methodName2 = "set" + propName.toUpperCase(Locale.ENGLISH);
-			writeMethod = methods.stream().filter(m -> m.getName().equals(methodName2) && m.getParameterCount() == 1).findFirst().orElse(null);
-		}
-
-		if (writeMethod == null){
+	static boolean setProperty (Object target, String propName, Object propValue) {
+		val setter = PropertyBinder.of(target.getClass()).setter(propName);
+		if (setter == null){
 			LoggerFactory.getLogger(SmartConfig.class).warn("Property {} does not exist on target {}", propName, target.getClass());// ~ ebean property
 			return false;
 		}
-
 		try {
-			Class<?> paramClass = writeMethod.getParameterTypes()[0];
-			String value = trim(propValue);
-			if (paramClass == int.class || paramClass == Integer.class){
-				writeMethod.invoke(target, Integer.decode(value));
-
-			}
-			else if (paramClass == long.class || paramClass == Long.class){
-				writeMethod.invoke(target, parseDuration(value).map(Duration::toMillis).orElseGet(() -> Long.decode(value)));
-
-			}
-			else if (paramClass == short.class || paramClass == Short.class){
-				writeMethod.invoke(target, Short.decode(value));
-
-			}
-			else if (paramClass == boolean.class || paramClass == Boolean.class){
-				writeMethod.invoke(target, Boolean.parseBoolean(value));
-			}
-			else if (paramClass.isArray() && char.class.isAssignableFrom(paramClass.getComponentType())) {
-				writeMethod.invoke(target, value.toCharArray());
-			}
-			else if (paramClass.isArray() && int.class.isAssignableFrom(paramClass.getComponentType())) {
-				writeMethod.invoke(target, parseIntArray(value));
-			}
-			else if (paramClass.isArray() && String.class.isAssignableFrom(paramClass.getComponentType())) {
-				writeMethod.invoke(target, new Object[]{parseStringArray(value)});
-			}
-			else if (paramClass == String.class || paramClass == CharSequence.class){
-				writeMethod.invoke(target, propValue.toString());
-
-			}
-			else {
-				try {
-					LoggerFactory.getLogger(SmartConfig.class).debug("Try to create a new instance of \"{}\"", propValue);
-					writeMethod.invoke(target, Class.forName(propValue.toString()).getDeclaredConstructor().newInstance());
-
-				} catch (InstantiationException | ClassNotFoundException | NoClassDefFoundError e){
-					LoggerFactory.getLogger(SmartConfig.class).debug("Class \"{}\" not found or could not instantiate it (Default constructor) ‹ {}", propValue, e.toString());
-					writeMethod.invoke(target, propValue);
-				}
-			}
+			setter.invoke(target, propValue);
 			return true;// success
 
 		} catch (Throwable e){
@@ -256,7 +210,7 @@ interface SmartConfig {
 	char SEPARATOR_CHAR = ',';
 	Pattern DURATION_PATTERN = Pattern.compile("^(?<number>\\d+)(?<unit>ms|s|m|h|d)$");
 
-	private static int[] parseIntArray (String value) {
+	static int[] parseIntArray (String value) {
 		if (value == null || value.isEmpty()){
 			return EMPTY_INTS;
 		}
@@ -269,7 +223,7 @@ interface SmartConfig {
 		return intArray;
 	}
 
-	private static String[] parseStringArray(String value) {
+	static String[] parseStringArray(String value) {
 		if (value == null || value.isEmpty()){
 			return EMPTY_STRINGS;
 		}
@@ -302,7 +256,7 @@ interface SmartConfig {
 		return resultList.toArray(EMPTY_STRINGS);
 	}
 
-	private static Optional<Duration> parseDuration (String value) {
+	static Optional<Duration> parseDuration (String value) {
 		var matcher = DURATION_PATTERN.matcher(value);
 		if (matcher.matches()){
 			long number = Long.parseLong(matcher.group("number"));
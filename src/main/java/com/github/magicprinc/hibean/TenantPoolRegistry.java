@@ -0,0 +1,217 @@
+package com.github.magicprinc.hibean;
+
+import com.github.magicprinc.hibean.util.HikariEbeanDataSourceWrapper;
+import com.github.magicprinc.hibean.util.PoolExecutors;
+import io.ebean.datasource.DataSourceConfig;
+import io.ebean.datasource.DataSourcePool;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ Database-per-tenant: tenant pools are created on demand from a template database config.
+ Settings of a tenant pool: the tenant's own keys ({@code acme.maximum-pool-size = 20}) + the template ({@code copyFrom} semantics),
+ {@code %tenant%} in template values is the tenant: {@code tenants.url = jdbc:postgresql://db/%tenant%}.
+ Tenant pools are lazy (no connections until used); combine with {@code tenants.hibernateAfter = 10m}.
+ The template (or the tenant) must set maximumPoolSize: it is what the registry reserves for a tenant pool.
+
+ The sum of maximumPoolSize of all tenant pools never exceeds {@link #maxConnections}: a new tenant pool evicts
+ the least recently used idle tenant pools (closes them) to fit; if there is not enough idle capacity, getConnection fails fast.
+ A pool is not idle while a {@link #getConnection} of the registry borrows from it, nor for connectionTimeout after {@link #pool}
+ has handed it out (the caller is about to borrow). Autosize of a tenant pool stays within its reserved maximumPoolSize.
+
+ @see HikariEbeanDataSourcePool#resolve(String, java.util.Map, String)
+ */
+@Slf4j
+public final class TenantPoolRegistry implements AutoCloseable {
+	/** Tenant ids go into pool names, config keys and URLs */
+	private static final Pattern TENANT = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]*");
+
+	/** Template database name, e.g. {@code tenants} for {@code tenants.url = …} */
+	@Getter @Accessors(fluent = true)
+	private final String template;
+	/** Cap of physical connections of all tenant pools (sum of their maximumPoolSize) */
+	@Getter @Accessors(fluent = true)
+	private final int maxConnections;
+	/** Access order: the eldest is the least recently used tenant */
+	private final LinkedHashMap<String,Tenant> pools = new LinkedHashMap<>(64, 0.75f, true);
+	private int reserved;
+	private boolean closed;
+
+	/** Pool of a tenant; the mutable fields are guarded by the registry */
+	private static final class Tenant {
+		final HikariEbeanDataSourcePool pool;
+		/** Connections reserved for the pool: its maximumPoolSize at creation */
+		final int size;
+		/** {@link #getConnection} calls between the lookup and the borrow: the pool looks idle, but it is not */
+		int borrowing;
+		/** System.nanoTime until which a pool handed out by {@link #pool} is not evicted */
+		long evictableAfter = System.nanoTime();
+
+		Tenant (HikariEbeanDataSourcePool pool, int size) {
+			this.pool = pool;
+			this.size = size;
+		}//new
+	}
+
+	public TenantPoolRegistry (String template, int maxConnections) {
+		if (maxConnections < 1){ throw new IllegalArgumentException("TenantPoolRegistry "+ template +": maxConnections="+ maxConnections); }
+		this.template = SmartConfig.trim(template);
+		this.maxConnections = maxConnections;
+	}//new
+
+	/** Connection of the tenant's database: its pool is created (or re-created after eviction) on demand */
+	public Connection getConnection (String tenant) throws SQLException {
+		val t = checkout(tenant, true);
+		try {
+			return t.pool.getConnection();
+		} finally {
+			synchronized (this){
+				t.borrowing--;
+			}
+		}
+	}
+
+	/**
+	 The tenant's pool (its last use is now); it is not evicted for its connectionTimeout: borrow from it at once
+	 @throws SQLTransientConnectionException the connection cap is reached and no idle tenant pool can be evicted
+	 */
+	public DataSourcePool pool (String tenant) throws SQLTransientConnectionException {
+		return checkout(tenant, false).pool;
+	}
+
+	/**
+	 The pool is built outside the lock (config resolution takes time): the first one published wins, a loser is shut down
+	 @param borrow true: counted in {@link Tenant#borrowing} (the caller decrements); false: handed out
+	 */
+	private Tenant checkout (String tenant, boolean borrow) throws SQLTransientConnectionException {
+		if (!TENANT.matcher(tenant).matches()){ throw new IllegalArgumentException("Invalid tenant id: "+ tenant); }
+		synchronized (this){
+			checkOpen();
+			val known = pools.get(tenant);
+			if (known != null){ return marked(known, borrow); }
+		}
+		val pool = new HikariEbeanDataSourcePool(tenant, new DataSourceConfig(), false, false, template);// lazy: no connect here
+		int size = pool.getHikariDataSource().getMaximumPoolSize();// explicit: see the pool constructor
+		val closing = new ArrayList<HikariEbeanDataSourcePool>();
+		try {
+			synchronized (this){
+				if (closed){
+					closing.add(pool);
+					checkOpen();
+				}
+				val known = pools.get(tenant);
+				if (known != null){// another thread has published its pool meanwhile
+					closing.add(pool);
+					return marked(known, borrow);
+				}
+				evictFor(size, closing);
+				if (reserved + size > maxConnections){
+					closing.add(pool);
+					throw new SQLTransientConnectionException("TenantPoolRegistry "+ template +": no capacity for tenant "+ tenant
+							+" ("+ size +" connections): "+ reserved +'/'+ maxConnections +" reserved by busy tenant pools");
+				}
+				reserved += size;
+				val t = new Tenant(pool, size);
+				pools.put(tenant, t);
+				log.info("TenantPoolRegistry {}: pool of tenant {} ({} connections), {}/{} reserved", template, tenant, size, reserved, maxConnections);
+				return marked(t, borrow);
+			}
+		} finally {
+			shutdownAsync(closing);
+		}
+	}
+
+	private void checkOpen () {
+		if (closed){ throw new IllegalStateException("TenantPoolRegistry "+ template +" is closed"); }
+	}
+
+	/** Under the lock: the pool is in use before anyone else can evict it */
+	private static Tenant marked (Tenant t, boolean borrow) {
+		if (borrow){
+			t.borrowing++;
+		} else {
+			t.evictableAfter = Math.max(t.evictableAfter,
+					System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(t.pool.getHikariDataSource().getConnectionTimeout()));
+		}
+		return t;
+	}
+
+	/** Removes the least recently used idle pools (under the lock) until size fits */
+	private void evictFor (int size, List<HikariEbeanDataSourcePool> evicted) {
+		Iterator<Map.Entry<String,Tenant>> it = pools.entrySet().iterator();
+		long now = System.nanoTime();
+		while (reserved + size > maxConnections && it.hasNext()){
+			val e = it.next();
+			val t = e.getValue();
+			if (t.borrowing > 0 || now - t.evictableAfter < 0 || !idle(t.pool)){ continue; }
+			it.remove();
+			reserved -= t.size;
+			evicted.add(t.pool);
+			log.info("TenantPoolRegistry {}: evicts the idle pool of tenant {}", template, e.getKey());
+		}
+	}
+
+	/** Nothing borrowed: through the wrapper or directly from the HikariDataSource */
+	private static boolean idle (HikariEbeanDataSourceWrapper pool) {
+		val mx = pool.getHikariDataSource().getHikariPoolMXBean();
+		return pool.stats().busy() == 0 && (mx == null || mx.getActiveConnections() == 0);
+	}
+
+	/** Shutdown may drain (wait): not on the caller's thread */
+	private static void shutdownAsync (List<HikariEbeanDataSourcePool> pools) {
+		for (val pool : pools){
+			PoolExecutors.bootstrap().execute(pool::shutdown);
+		}
+	}
+
+	/** Tenants with a pool now */
+	public synchronized Set<String> tenants (){ return Set.copyOf(pools.keySet()); }
+
+	/** Sum of maximumPoolSize of the current tenant pools */
+	public synchronized int reserved (){ return reserved; }
+
+	/** Closes the tenant's pool (e.g. the tenant is deleted); false: it has no pool */
+	public boolean remove (String tenant) {
+		Tenant t;
+		synchronized (this){
+			t = pools.remove(tenant);
+			if (t == null){ return false; }
+			reserved -= t.size;
+		}
+		t.pool.shutdown();
+		return true;
+	}
+
+	@Override
+	public void close () {
+		List<HikariEbeanDataSourcePool> all;
+		synchronized (this){
+			closed = true;
+			all = new ArrayList<>(pools.size());
+			for (Tenant t : pools.values()){
+				all.add(t.pool);
+			}
+			pools.clear();
+			reserved = 0;
+		}
+		for (val pool : all){
+			pool.shutdown();
+		}
+	}
+
+	@Override public synchronized String toString (){ return "TenantPoolRegistry("+ template +": "+ pools.size() +" tenants, "+ reserved +'/'+ maxConnections +')'; }
+}
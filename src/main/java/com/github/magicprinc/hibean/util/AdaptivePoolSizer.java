@@ -0,0 +1,131 @@
+package com.github.magicprinc.hibean.util;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ Adjusts maximumPoolSize/minimumIdle of a running pool within [{@link #minSize}, {@link #maxSize}] by load:
+ day/night traffic swings don't need a static size that either wastes DB sessions or queues requests.
+
+ Every interval: connections in use L = Σ hold time / interval (Little's law) + waiting threads (Σ wait time / interval).
+ Target = L × (1 + {@link #HEADROOM}). Growth is immediate (and at least by the number of waiting threads);
+ shrinking needs {@link #SHRINK_AFTER} consecutive intervals with target below {@link #SHRINK_BELOW} of the size
+ (hysteresis: no flapping) and goes by ¼ of the size at most. minimumIdle follows L: warm connections for the current load.
+
+ Config: {@code db.autosize = 4..40} + {@code db.autosizeInterval = 5s}
+ */
+@Slf4j
+public final class AdaptivePoolSizer implements AutoCloseable {
+	static final double HEADROOM = 0.25;
+	static final double SHRINK_BELOW = 0.75;
+	static final int SHRINK_AFTER = 6;
+
+	@Getter @Accessors(fluent = true)
+	private final HikariEbeanDataSourceWrapper pool;
+	@Getter @Accessors(fluent = true)
+	private final int minSize;
+	@Getter @Accessors(fluent = true)
+	private final int maxSize;
+	private volatile @Nullable ScheduledFuture<?> task;
+
+	private long lastNanos;
+	private long lastHoldNanos;
+	private long lastWaitedNanos;
+	private int lowTicks;
+
+	public AdaptivePoolSizer (HikariEbeanDataSourceWrapper pool, int minSize, int maxSize) {
+		if (minSize < 1 || maxSize < minSize){
+			throw new IllegalArgumentException("AdaptivePoolSizer "+ pool.name() +": bounds "+ minSize +".."+ maxSize);
+		}
+		this.pool = pool;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+	}//new
+
+	/** Runs the controller on the shared scheduler (it only reads counters and MXBeans: no blocking) */
+	public synchronized AdaptivePoolSizer start (long intervalMillis) {
+		close();
+		lastNanos = 0;
+		task = PoolExecutors.scheduler().scheduleWithFixedDelay(()->{
+			try {
+				tick(System.nanoTime());
+			} catch (RuntimeException e){
+				log.warn("AdaptivePoolSizer {}: sizing failed", pool.name(), e);
+			}
+		}, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+		return this;
+	}
+
+	@Override
+	public void close () {
+		ScheduledFuture<?> t = task;
+		if (t != null){
+			t.cancel(false);
+			task = null;
+		}
+	}
+
+	/** One control step: sample, decide, apply. The first call only takes the baseline */
+	synchronized void tick (long nowNanos) {
+		HikariPoolMXBean hp = pool.getHikariDataSource().getHikariPoolMXBean();
+		if (hp == null){ return; }// async pool is starting
+		long hold = pool.stats().totalHoldNanos();
+		long waited = pool.stats().totalWaitedNanos();
+		if (lastNanos == 0){
+			lastNanos = nowNanos;
+			lastHoldNanos = hold;
+			lastWaitedNanos = waited;
+			return;
+		}
+		double dt = nowNanos - lastNanos;
+		if (dt <= 0){ return; }
+		double inUse = Math.max((hold - lastHoldNanos) / dt, hp.getActiveConnections());
+		double waiting = (waited - lastWaitedNanos) / dt;
+		lastNanos = nowNanos;
+		lastHoldNanos = hold;
+		lastWaitedNanos = waited;
+
+		HikariConfigMXBean cfg = pool.getHikariDataSource().getHikariConfigMXBean();
+		int current = cfg.getMaximumPoolSize();
+		int next = decide(current, hp.getActiveConnections(), hp.getThreadsAwaitingConnection(), inUse + waiting);
+		int minIdle = Math.max(minSize, Math.min(next, (int) Math.ceil(inUse)));
+		if (next != current || minIdle != cfg.getMinimumIdle()){
+			log.info("AdaptivePoolSizer {}: maximumPoolSize {} → {}, minimumIdle {} → {} (in use {}, waiting {})",
+					pool.name(), current, next, cfg.getMinimumIdle(), minIdle, String.format("%.2f", inUse), String.format("%.2f", waiting));
+			pool.resize(next, minIdle);
+		}
+	}
+
+	/**
+	 @param current maximumPoolSize now
+	 @param active connections in use now
+	 @param waitingNow threads waiting for a connection now
+	 @param load mean connections needed in the last interval (in use + waiting)
+	 @return new maximumPoolSize in [minSize, maxSize]
+	 */
+	int decide (int current, int active, int waitingNow, double load) {
+		int target = (int) Math.ceil(load * (1 + HEADROOM));
+		int next = current;
+		if (waitingNow > 0 || target > current){// grow at once
+			next = Math.max(target, current + waitingNow);
+			lowTicks = 0;
+		} else if (target < current * SHRINK_BELOW){
+			if (++lowTicks >= SHRINK_AFTER){// shrink slowly
+				next = Math.max(target, current - Math.max(1, current / 4));
+				lowTicks = 0;
+			}
+		} else {
+			lowTicks = 0;
+		}
+		return Math.max(minSize, Math.min(maxSize, Math.max(next, active)));
+	}
+
+	@Override public String toString (){ return "AdaptivePoolSizer("+ pool.name() +": "+ minSize +".."+ maxSize +')'; }
+}
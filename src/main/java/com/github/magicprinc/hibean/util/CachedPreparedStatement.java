@@ -0,0 +1,228 @@
+package com.github.magicprinc.hibean.util;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jspecify.annotations.Nullable;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ Statement of a {@link StatementCache} checked out by a {@link HikariEbeanConnection}: {@link #close()} returns it to the cache
+ (parameters cleared). A statement whose settings were changed (maxRows, fetchSize, queryTimeout, …) is closed instead:
+ the next user would inherit them.
+ */
+final class CachedPreparedStatement implements PreparedStatement {
+	private final HikariEbeanConnection owner;
+	private final StatementCache cache;
+	private final StatementCache.Key key;
+	/** Driver's statement on the physical connection */
+	@Getter @Accessors(fluent = true)
+	private final PreparedStatement delegate;
+	private boolean closed;
+	private boolean tainted;
+	private boolean batched;
+	/** queryTimeout was set from a {@link Deadline}: reset on return */
+	private boolean deadline;
+
+	CachedPreparedStatement (HikariEbeanConnection owner, StatementCache cache, StatementCache.Key key, PreparedStatement delegate) {
+		this.owner = owner;
+		this.cache = cache;
+		this.key = key;
+		this.delegate = delegate;
+	}//new
+
+	/** Back to the cache (or closed, if its settings were changed or it can't be reset) */
+	@Override
+	public void close () throws SQLException {
+		if (closed){ return; }
+		closed = true;
+		owner.returned(this);
+		if (tainted){
+			delegate.close();
+			return;
+		}
+		try {
+			delegate.clearParameters();
+			if (batched)
+					delegate.clearBatch();
+			if (deadline)
+					delegate.setQueryTimeout(0);
+		} catch (SQLException e){
+			delegate.close();
+			return;
+		}
+		cache.put(key, delegate);
+	}
+
+	/** queryTimeout from the {@link Deadline}: not a user setting, the statement stays cacheable */
+	void deadline (int seconds) throws SQLException {
+		delegate.setQueryTimeout(seconds);
+		deadline = true;
+	}
+
+	/** The connection is being closed: the statement was not closed by its user */
+	void discard () throws SQLException {
+		closed = true;
+		delegate.close();
+	}
+
+	/** execute: false → an update count (or nothing), not a result set */
+	private boolean executed (boolean resultSet) throws SQLException {
+		if (!resultSet)
+				owner.wrote();
+		return resultSet;
+	}
+
+	/** {@link ResultSet#getStatement()} must be this statement, not the driver's one */
+	private ResultSet wrap (ResultSet rs){ return new CachedResultSet(this, rs); }
+
+	@Override public boolean isClosed () throws SQLException { return closed || delegate.isClosed(); }
+	@Override public Connection getConnection (){ return owner; }
+	@Override public void addBatch () throws SQLException { batched = true; delegate.addBatch(); }
+	@Override public void addBatch (String sql) throws SQLException { batched = true; delegate.addBatch(sql); }
+	@Override public void closeOnCompletion () throws SQLException { tainted = true; delegate.closeOnCompletion(); }
+	@Override public boolean execute () throws SQLException { return executed(delegate.execute()); }
+	@Override public boolean execute (String sql) throws SQLException { return executed(delegate.execute(sql)); }
+	@Override public boolean execute (String sql, int autoGeneratedKeys) throws SQLException { return executed(delegate.execute(sql, autoGeneratedKeys)); }
+	@Override public boolean execute (String sql, int[] columnIndexes) throws SQLException { return executed(delegate.execute(sql, columnIndexes)); }
+	@Override public boolean execute (String sql, String[] columnNames) throws SQLException { return executed(delegate.execute(sql, columnNames)); }
+	@Override public boolean getMoreResults () throws SQLException { return delegate.getMoreResults(); }
+	@Override public boolean getMoreResults (int current) throws SQLException { return delegate.getMoreResults(current); }
+	@Override public boolean isCloseOnCompletion () throws SQLException { return delegate.isCloseOnCompletion(); }
+	@Override public boolean isPoolable () throws SQLException { return delegate.isPoolable(); }
+	@Override public int executeUpdate () throws SQLException { owner.wrote(); return delegate.executeUpdate(); }
+	@Override public int executeUpdate (String sql) throws SQLException { owner.wrote(); return delegate.executeUpdate(sql); }
+	@Override public int executeUpdate (String sql, int autoGeneratedKeys) throws SQLException { owner.wrote(); return delegate.executeUpdate(sql, autoGeneratedKeys); }
+	@Override public int executeUpdate (String sql, int[] columnIndexes) throws SQLException { owner.wrote(); return delegate.executeUpdate(sql, columnIndexes); }
+	@Override public int executeUpdate (String sql, String[] columnNames) throws SQLException { owner.wrote(); return delegate.executeUpdate(sql, columnNames); }
+	@Override public int getFetchDirection () throws SQLException { return delegate.getFetchDirection(); }
+	@Override public int getFetchSize () throws SQLException { return delegate.getFetchSize(); }
+	@Override public int getMaxFieldSize () throws SQLException { return delegate.getMaxFieldSize(); }
+	@Override public int getMaxRows () throws SQLException { return delegate.getMaxRows(); }
+	@Override public int getQueryTimeout () throws SQLException { return delegate.getQueryTimeout(); }
+	@Override public int getResultSetConcurrency () throws SQLException { return delegate.getResultSetConcurrency(); }
+	@Override public int getResultSetHoldability () throws SQLException { return delegate.getResultSetHoldability(); }
+	@Override public int getResultSetType () throws SQLException { return delegate.getResultSetType(); }
+	@Override public int getUpdateCount () throws SQLException { return delegate.getUpdateCount(); }
+	@Override public int[] executeBatch () throws SQLException { owner.wrote(); return delegate.executeBatch(); }
+	@Override public ParameterMetaData getParameterMetaData () throws SQLException { return delegate.getParameterMetaData(); }
+	@Override public ResultSet executeQuery () throws SQLException { return wrap(delegate.executeQuery()); }
+	@Override public ResultSet executeQuery (String sql) throws SQLException { return wrap(delegate.executeQuery(sql)); }
+	@Override public ResultSet getGeneratedKeys () throws SQLException { return wrap(delegate.getGeneratedKeys()); }
+	@Override public @Nullable ResultSet getResultSet () throws SQLException { ResultSet rs = delegate.getResultSet(); return rs == null ? null : wrap(rs); }
+	@Override public ResultSetMetaData getMetaData () throws SQLException { return delegate.getMetaData(); }
+	@Override public SQLWarning getWarnings () throws SQLException { return delegate.getWarnings(); }
+	@Override public void cancel () throws SQLException { delegate.cancel(); }
+	@Override public void clearBatch () throws SQLException { delegate.clearBatch(); }
+	@Override public void clearParameters () throws SQLException { delegate.clearParameters(); }
+	@Override public void clearWarnings () throws SQLException { delegate.clearWarnings(); }
+	@Override public void setArray (int parameterIndex, Array x) throws SQLException { delegate.setArray(parameterIndex, x); }
+	@Override public void setAsciiStream (int parameterIndex, InputStream x) throws SQLException { delegate.setAsciiStream(parameterIndex, x); }
+	@Override public void setAsciiStream (int parameterIndex, InputStream x, int length) throws SQLException { delegate.setAsciiStream(parameterIndex, x, length); }
+	@Override public void setAsciiStream (int parameterIndex, InputStream x, long length) throws SQLException { delegate.setAsciiStream(parameterIndex, x, length); }
+	@Override public void setBigDecimal (int parameterIndex, BigDecimal x) throws SQLException { delegate.setBigDecimal(parameterIndex, x); }
+	@Override public void setBinaryStream (int parameterIndex, InputStream x) throws SQLException { delegate.setBinaryStream(parameterIndex, x); }
+	@Override public void setBinaryStream (int parameterIndex, InputStream x, int length) throws SQLException { delegate.setBinaryStream(parameterIndex, x, length); }
+	@Override public void setBinaryStream (int parameterIndex, InputStream x, long length) throws SQLException { delegate.setBinaryStream(parameterIndex, x, length); }
+	@Override public void setBlob (int parameterIndex, InputStream x) throws SQLException { delegate.setBlob(parameterIndex, x); }
+	@Override public void setBlob (int parameterIndex, InputStream x, long length) throws SQLException { delegate.setBlob(parameterIndex, x, length); }
+	@Override public void setBlob (int parameterIndex, Blob x) throws SQLException { delegate.setBlob(parameterIndex, x); }
+	@Override public void setBoolean (int parameterIndex, boolean x) throws SQLException { delegate.setBoolean(parameterIndex, x); }
+	@Override public void setByte (int parameterIndex, byte x) throws SQLException { delegate.setByte(parameterIndex, x); }
+	@Override public void setBytes (int parameterIndex, byte[] x) throws SQLException { delegate.setBytes(parameterIndex, x); }
+	@Override public void setCharacterStream (int parameterIndex, Reader x) throws SQLException { delegate.setCharacterStream(parameterIndex, x); }
+	@Override public void setCharacterStream (int parameterIndex, Reader x, int length) throws SQLException { delegate.setCharacterStream(parameterIndex, x, length); }
+	@Override public void setCharacterStream (int parameterIndex, Reader x, long length) throws SQLException { delegate.setCharacterStream(parameterIndex, x, length); }
+	@Override public void setClob (int parameterIndex, Reader x) throws SQLException { delegate.setClob(parameterIndex, x); }
+	@Override public void setClob (int parameterIndex, Reader x, long length) throws SQLException { delegate.setClob(parameterIndex, x, length); }
+	@Override public void setClob (int parameterIndex, Clob x) throws SQLException { delegate.setClob(parameterIndex, x); }
+	@Override public void setCursorName (String val) throws SQLException { tainted = true; delegate.setCursorName(val); }
+	@Override public void setDate (int parameterIndex, Date x) throws SQLException { delegate.setDate(parameterIndex, x); }
+	@Override public void setDate (int parameterIndex, Date x, Calendar cal) throws SQLException { delegate.setDate(parameterIndex, x, cal); }
+	@Override public void setDouble (int parameterIndex, double x) throws SQLException { delegate.setDouble(parameterIndex, x); }
+	@Override public void setEscapeProcessing (boolean enable) throws SQLException { tainted = true; delegate.setEscapeProcessing(enable); }
+	@Override public void setFetchDirection (int direction) throws SQLException { tainted = true; delegate.setFetchDirection(direction); }
+	@Override public void setFetchSize (int rows) throws SQLException { tainted = true; delegate.setFetchSize(rows); }
+	@Override public void setFloat (int parameterIndex, float x) throws SQLException { delegate.setFloat(parameterIndex, x); }
+	@Override public void setInt (int parameterIndex, int x) throws SQLException { delegate.setInt(parameterIndex, x); }
+	@Override public void setLong (int parameterIndex, long x) throws SQLException { delegate.setLong(parameterIndex, x); }
+	@Override public void setMaxFieldSize (int max) throws SQLException { tainted = true; delegate.setMaxFieldSize(max); }
+	@Override public void setMaxRows (int max) throws SQLException { tainted = true; delegate.setMaxRows(max); }
+	@Override public void setNCharacterStream (int parameterIndex, Reader x) throws SQLException { delegate.setNCharacterStream(parameterIndex, x); }
+	@Override public void setNCharacterStream (int parameterIndex, Reader x, long length) throws SQLException { delegate.setNCharacterStream(parameterIndex, x, length); }
+	@Override public void setNClob (int parameterIndex, Reader x) throws SQLException { delegate.setNClob(parameterIndex, x); }
+	@Override public void setNClob (int parameterIndex, Reader x, long length) throws SQLException { delegate.setNClob(parameterIndex, x, length); }
+	@Override public void setNClob (int parameterIndex, NClob x) throws SQLException { delegate.setNClob(parameterIndex, x); }
+	@Override public void setNString (int parameterIndex, String x) throws SQLException { delegate.setNString(parameterIndex, x); }
+	@Override public void setNull (int parameterIndex, int sqlType) throws SQLException { delegate.setNull(parameterIndex, sqlType); }
+	@Override public void setNull (int parameterIndex, int sqlType, String typeName) throws SQLException { delegate.setNull(parameterIndex, sqlType, typeName); }
+	@Override public void setObject (int parameterIndex, Object x) throws SQLException { delegate.setObject(parameterIndex, x); }
+	@Override public void setObject (int parameterIndex, Object x, int targetSqlType) throws SQLException { delegate.setObject(parameterIndex, x, targetSqlType); }
+	@Override public void setObject (int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException { delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength); }
+	@Override public void setPoolable (boolean poolable) throws SQLException { tainted = true; delegate.setPoolable(poolable); }
+	@Override public void setQueryTimeout (int seconds) throws SQLException { tainted = true; delegate.setQueryTimeout(seconds); }
+	@Override public void setRef (int parameterIndex, Ref x) throws SQLException { delegate.setRef(parameterIndex, x); }
+	@Override public void setRowId (int parameterIndex, RowId x) throws SQLException { delegate.setRowId(parameterIndex, x); }
+	@Override public void setSQLXML (int parameterIndex, SQLXML x) throws SQLException { delegate.setSQLXML(parameterIndex, x); }
+	@Override public void setShort (int parameterIndex, short x) throws SQLException { delegate.setShort(parameterIndex, x); }
+	@Override public void setString (int parameterIndex, String x) throws SQLException { delegate.setString(parameterIndex, x); }
+	@Override public void setTime (int parameterIndex, Time x) throws SQLException { delegate.setTime(parameterIndex, x); }
+	@Override public void setTime (int parameterIndex, Time x, Calendar cal) throws SQLException { delegate.setTime(parameterIndex, x, cal); }
+	@Override public void setTimestamp (int parameterIndex, Timestamp x) throws SQLException { delegate.setTimestamp(parameterIndex, x); }
+	@Override public void setTimestamp (int parameterIndex, Timestamp x, Calendar cal) throws SQLException { delegate.setTimestamp(parameterIndex, x, cal); }
+	@Override public void setURL (int parameterIndex, URL x) throws SQLException { delegate.setURL(parameterIndex, x); }
+	@Override @SuppressWarnings("deprecation") public void setUnicodeStream (int parameterIndex, InputStream x, int length) throws SQLException { delegate.setUnicodeStream(parameterIndex, x, length); }
+	@Override public boolean isSimpleIdentifier (String identifier) throws SQLException { return delegate.isSimpleIdentifier(identifier); }
+	@Override public String enquoteIdentifier (String identifier, boolean alwaysQuote) throws SQLException { return delegate.enquoteIdentifier(identifier, alwaysQuote); }
+	@Override public String enquoteLiteral (String val) throws SQLException { return delegate.enquoteLiteral(val); }
+	@Override public String enquoteNCharLiteral (String val) throws SQLException { return delegate.enquoteNCharLiteral(val); }
+	@Override public long executeLargeUpdate () throws SQLException { owner.wrote(); return delegate.executeLargeUpdate(); }
+	@Override public long executeLargeUpdate (String sql) throws SQLException { owner.wrote(); return delegate.executeLargeUpdate(sql); }
+	@Override public long executeLargeUpdate (String sql, int autoGeneratedKeys) throws SQLException { owner.wrote(); return delegate.executeLargeUpdate(sql, autoGeneratedKeys); }
+	@Override public long executeLargeUpdate (String sql, int[] columnIndexes) throws SQLException { owner.wrote(); return delegate.executeLargeUpdate(sql, columnIndexes); }
+	@Override public long executeLargeUpdate (String sql, String[] columnNames) throws SQLException { owner.wrote(); return delegate.executeLargeUpdate(sql, columnNames); }
+	@Override public long getLargeMaxRows () throws SQLException { return delegate.getLargeMaxRows(); }
+	@Override public long getLargeUpdateCount () throws SQLException { return delegate.getLargeUpdateCount(); }
+	@Override public long[] executeLargeBatch () throws SQLException { owner.wrote(); return delegate.executeLargeBatch(); }
+	@Override public void setLargeMaxRows (long max) throws SQLException { tainted = true; delegate.setLargeMaxRows(max); }
+	@Override public void setObject (int parameterIndex, Object x, SQLType targetSqlType) throws SQLException { delegate.setObject(parameterIndex, x, targetSqlType); }
+	@Override public void setObject (int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException { delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength); }
+
+	@Override  @SuppressWarnings("unchecked")
+	public <T> T unwrap (Class<T> iface) throws SQLException {
+		if (iface.isInstance(this))
+				return (T) this;
+		if (iface.isInstance(delegate))
+				return (T) delegate;
+		return delegate.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor (Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+	}
+
+	@Override public String toString (){ return "CachedPreparedStatement("+ delegate +')'; }
+}
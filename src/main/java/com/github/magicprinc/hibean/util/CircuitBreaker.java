@@ -0,0 +1,144 @@
+package com.github.magicprinc.hibean.util;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ Fast-fail when the database is down: instead of every request thread blocking for connectionTimeout.
+
+ CLOSED → (failureThreshold consecutive "database is down" failures) → OPEN: acquisitions fail at once →
+ (after openMillis) → HALF_OPEN: up to halfOpenProbes acquisitions go through → first success → CLOSED, failure → OPEN.
+ A background probe ({@link HikariEbeanDataSourceWrapper#startHealthProbe}) closes or opens the circuit too.
+
+ Timeout of an exhausted pool (all connections busy, the database is fine) is not a failure:
+ Hikari reports it without a cause, a real connection failure is the cause otherwise
+ (the pool wrapper also counts a timeout of an empty pool: Hikari doesn't always keep the connect error).
+ */
+@Slf4j
+public final class CircuitBreaker {
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	@Getter @Accessors(fluent = true)
+	private final String name;
+	private final int failureThreshold;
+	private final long openNanos;
+	private final int halfOpenProbes;
+	private final LongSupplier clock;
+
+	@Getter @Accessors(fluent = true)
+	private volatile State state = State.CLOSED;
+	private volatile long openedAt;
+	private volatile @Nullable SQLException lastFailure;
+	private final AtomicInteger failures = new AtomicInteger();
+	private final AtomicInteger probes = new AtomicInteger();
+
+	CircuitBreaker (String name, int failureThreshold, long openMillis, int halfOpenProbes, LongSupplier clock) {
+		if (failureThreshold < 1 || openMillis < 0 || halfOpenProbes < 1){
+			throw new IllegalArgumentException("CircuitBreaker "+ name +": failureThreshold="+ failureThreshold +", openMillis="+ openMillis +", halfOpenProbes="+ halfOpenProbes);
+		}
+		this.name = name;
+		this.failureThreshold = failureThreshold;
+		this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+		this.halfOpenProbes = halfOpenProbes;
+		this.clock = clock;
+	}//new
+
+	public CircuitBreaker (String name, int failureThreshold, long openMillis, int halfOpenProbes) {
+		this(name, failureThreshold, openMillis, halfOpenProbes, System::nanoTime);
+	}//new
+
+	/** Why the database is considered down; null if the circuit is closed */
+	public @Nullable SQLException downReason (){ return state == State.CLOSED ? null : lastFailure; }
+
+	/**
+	 Before an acquisition: CLOSED → pass, OPEN → fail fast, HALF_OPEN → pass as a probe (limited)
+	 @return true: the acquisition has taken a probe slot, {@link #inconclusive} gives it back
+	 @throws SQLTransientConnectionException the circuit is open
+	 */
+	public boolean acquire () throws SQLTransientConnectionException {
+		if (state == State.CLOSED){ return false; }// fast path
+		synchronized (this){
+			if (state == State.OPEN){
+				if (clock.getAsLong() - openedAt < openNanos){ throw open(); }
+				state = State.HALF_OPEN;
+				probes.set(0);
+				log.info("CircuitBreaker {}: half-open, probing", name);
+			}
+			if (state == State.HALF_OPEN){
+				if (probes.incrementAndGet() > halfOpenProbes){
+					probes.decrementAndGet();
+					throw open();
+				}
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private SQLTransientConnectionException open () {
+		return new SQLTransientConnectionException("CircuitBreaker "+ name +" is open: the database is down", lastFailure);
+	}
+
+	/** The database has answered */
+	public void success () {
+		if (state != State.CLOSED){
+			synchronized (this){
+				if (state != State.CLOSED){
+					state = State.CLOSED;
+					log.info("CircuitBreaker {}: closed, the database is up", name);
+				}
+			}
+		}
+		if (failures.get() != 0)
+				failures.set(0);
+	}
+
+	/** An acquisition or probe has failed; only "database is down" failures count */
+	public void failure (SQLException e){ failure(e, databaseDown(e)); }
+
+	/** An acquisition or probe has failed; the caller knows better whether the database is down */
+	public void failure (SQLException e, boolean databaseDown) {
+		if (!databaseDown){ return; }
+		lastFailure = e;
+		if (failures.incrementAndGet() >= failureThreshold || state == State.HALF_OPEN){
+			synchronized (this){
+				if (state != State.OPEN){
+					log.warn("CircuitBreaker {}: open for {} ms ‹ {}", name, TimeUnit.NANOSECONDS.toMillis(openNanos), e.toString());
+				}
+				state = State.OPEN;
+				openedAt = clock.getAsLong();
+				probes.set(0);
+			}
+		}
+	}
+
+	/**
+	 The acquisition has ended without a verdict on the database (our own rejection, an exhausted pool, a deadline)
+	 @param probe {@link #acquire} has returned true: its probe slot is free again (a slot of a later half-open period is not)
+	 */
+	public void inconclusive (boolean probe) {
+		if (probe && state == State.HALF_OPEN)
+				probes.updateAndGet(p->Math.max(0, p - 1));
+	}
+
+	/**
+	 Not an exhausted pool: Hikari's timeout without a cause means "no free connection", not "no database";
+	 a {@link PoolRejectedException} is our own refusal; a bad statement or an unsupported feature is the caller's
+	 */
+	static boolean databaseDown (SQLException e) {
+		return !(e instanceof PoolRejectedException || e instanceof SQLSyntaxErrorException || e instanceof SQLFeatureNotSupportedException
+				|| e instanceof SQLTransientConnectionException && e.getCause() == null);
+	}
+
+	@Override public String toString (){ return "CircuitBreaker("+ name +": "+ state +", failures "+ failures.get() +'/'+ failureThreshold +')'; }
+}
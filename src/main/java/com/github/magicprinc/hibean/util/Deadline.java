@@ -0,0 +1,67 @@
+package com.github.magicprinc.hibean.util;
+
+import org.jspecify.annotations.Nullable;
+
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ Deadline of the current request: work past it only adds load. Bound with {@link #within}, it limits
+ - the wait of {@link HikariEbeanDataSourceWrapper#getConnection()}: the remaining time instead of connectionTimeout (if shorter);
+ - statements created by {@link HikariEbeanConnection}: queryTimeout = the remaining time at creation (rounded up to seconds).
+ Past the deadline getConnection fails at once with {@link PoolRejectedException} (the caller has given up: no verdict on the database),
+ statement creation with {@link SQLTimeoutException}.
+
+ Nested scopes can only shorten the deadline: {@code within(5s) { within(30s) {…} }} → 5s.
+ */
+public final class Deadline {
+	private static final ThreadLocal<@Nullable Long> CURRENT = new ThreadLocal<>();
+
+	private Deadline (){}//new
+
+	/** The current thread has timeoutMillis from now (or less: an outer deadline) until {@link PoolContext.Scope#close()} */
+	public static PoolContext.Scope within (long timeoutMillis) {
+		if (timeoutMillis < 0){ throw new IllegalArgumentException("Deadline: timeout="+ timeoutMillis); }
+		return at(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+	}
+
+	/** @param deadlineNanos System.nanoTime of the deadline */
+	public static PoolContext.Scope at (long deadlineNanos) {
+		Long outer = CURRENT.get();
+		return Scopes.set(CURRENT, outer != null && outer - deadlineNanos < 0 ? outer : deadlineNanos);
+	}
+
+	/** System.nanoTime of the current thread's deadline or null */
+	public static @Nullable Long current (){ return CURRENT.get(); }
+
+	/** Time left; {@link Long#MAX_VALUE} without a deadline, ≤ 0 if it has passed */
+	public static long remainingNanos () {
+		Long d = CURRENT.get();
+		return d == null ? Long.MAX_VALUE : d - System.nanoTime();
+	}
+
+	/**
+	 Query timeout for a statement created now
+	 @return 0: no deadline
+	 @throws SQLTimeoutException the deadline has passed
+	 */
+	static int queryTimeoutSeconds () throws SQLTimeoutException {
+		long nanos = remainingNanos();
+		if (nanos == Long.MAX_VALUE){ return 0; }
+		if (nanos <= 0){ throw passed("statement"); }
+		return (int) Math.min(Integer.MAX_VALUE, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+	}
+
+	static SQLTimeoutException passed (String what) {
+		return new SQLTimeoutException(message(what));
+	}
+
+	/** A connection wait cut short by the deadline: neither the breaker nor a replica set count it against the database */
+	static PoolRejectedException rejected (String what, @Nullable Throwable cause) {
+		return new PoolRejectedException(message(what), cause);
+	}
+
+	private static String message (String what) {
+		return "Deadline has passed: no "+ what +" ("+ TimeUnit.NANOSECONDS.toMillis(-remainingNanos()) +" ms ago)";
+	}
+}
@@ -1,5 +1,6 @@
 package com.github.magicprinc.hibean.util;
 
+import com.github.magicprinc.hibean.HikariEbeanConnectionPoolFactory;
 import io.ebean.Database;
 import io.ebean.DatabaseBuilder;
 import io.ebean.DatabaseFactory;
@@ -13,6 +14,7 @@ import jakarta.persistence.PersistenceException;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
+import lombok.val;
 import org.jspecify.annotations.Nullable;
 
 import javax.sql.DataSource;
@@ -124,12 +126,25 @@ public final class HiBeanUtils {
 
 		if (configurer != null)
 				configurer.accept(config);
+
+		ReplicaSetDataSourcePool replicaSet = null;// wired here: nobody else would close its pools
+		if (config.getReadOnlyDataSource() == null){// db.replicas = r1, r2
+			replicaSet = HikariEbeanConnectionPoolFactory.replicaSet(config.getName(), config.getDataSource());
+			if (replicaSet != null)
+					config.readOnlyDataSource(replicaSet);
+		}
 		try {
-			return DatabaseFactory.create(config);
-		} catch (PersistenceException | IllegalArgumentException e){
-			// For SqlServer please explicitly choose either sqlserver16 or sqlserver17 as the platform via DatabaseConfig.setDatabasePlatformName. Refer to issue #1340 for more details
-			config.databasePlatformName(databasePlatformName);
-			return DatabaseFactory.create(config);
+			try {
+				return DatabaseFactory.create(config);
+			} catch (PersistenceException | IllegalArgumentException e){
+				// For SqlServer please explicitly choose either sqlserver16 or sqlserver17 as the platform via DatabaseConfig.setDatabasePlatformName. Refer to issue #1340 for more details
+				config.databasePlatformName(databasePlatformName);
+				return DatabaseFactory.create(config);
+			}
+		} catch (RuntimeException | Error e){
+			if (replicaSet != null)
+					replicaSet.shutdown();
+			throw e;
 		}
 	}
 
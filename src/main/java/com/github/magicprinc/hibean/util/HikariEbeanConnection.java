@@ -0,0 +1,364 @@
+package com.github.magicprinc.hibean.util;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.jspecify.annotations.Nullable;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.ShardingKey;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ Connection handed out by {@link HikariEbeanDataSourceWrapper}: delegates to Hikari's proxy connection
+ and reports its release (close) and hold time to {@link PoolStats}.
+
+ Session state (autoCommit, readOnly, transaction isolation, schema) is cached: redundant getters and setters don't reach the driver.
+ Hikari resets a returned connection to the pool defaults → every borrow starts with {@link SessionState pool defaults},
+ a new instance per borrow == state reset on return.
+ ⚠ State changed with plain SQL (e.g. {@code SET SCHEMA}) bypasses the cache: use JDBC setters.
+
+ Optional {@link StatementCache}: prepareStatement (sql; sql + type + concurrency; sql + generated keys) reuses statements
+ of the physical connection, close() of such a statement returns it to the cache.
+
+ Statements created within a {@link Deadline} get queryTimeout = the remaining time.
+ Statements report their updates ({@link TrackedStatement}): only a commit of written data marks the session for read-your-writes.
+
+ @see HikariEbeanDataSourceWrapper#getConnection()
+ */
+public class HikariEbeanConnection implements Connection {
+	/** Hikari's (pooled) proxy connection */
+	@Getter @Accessors(fluent = true)
+	protected final Connection delegate;
+	protected final PoolStats stats;
+	/** Its permit is released on close */
+	protected final @Nullable Lane lane;
+	/** Its {@link PoolGroup} permit is released on close */
+	protected final PoolGroup.@Nullable Member groupMember;
+	/** Its {@link PriorityGate} permit is released on close */
+	protected final @Nullable PriorityGate priorityGate;
+	private final long borrowedNanos = System.nanoTime();
+	private boolean released;
+	/** Prepared statement cache of the physical connection; null → off */
+	private final @Nullable StatementCache statementCache;
+	/** Checked-out cached statements: closed with the connection, if their users didn't */
+	private @Nullable List<CachedPreparedStatement> openStatements;
+	/**
+	 Cached statements bypass Hikari's proxy, so Hikari doesn't know the connection was used:
+	 uncommitted work must be rolled back here (as Hikari does) before the connection is returned
+	 */
+	private boolean dirty;
+	/** An update has run in the current transaction: {@link #wrote()} */
+	private boolean written;
+
+	/**
+	 Known session state of a connection
+	 @param autoCommit null: unknown
+	 @param readOnly null: unknown
+	 @param transactionIsolation -1: unknown
+	 @param schema null: unknown
+	 */
+	public record SessionState (@Nullable Boolean autoCommit, @Nullable Boolean readOnly, int transactionIsolation, @Nullable String schema) {
+		public static final SessionState UNKNOWN = new SessionState(null, null, -1, null);
+	}
+
+	private @Nullable Boolean autoCommit;
+	private @Nullable Boolean readOnly;
+	private int transactionIsolation;
+	private @Nullable String schema;
+
+	/**
+	 @param statementCache prepared statement cache of the physical connection of the delegate or null
+	 @param groupMember its group permit was taken for this connection
+	 @param priorityGate its permit was taken for this connection
+	 */
+	public HikariEbeanConnection (Connection delegate, PoolStats stats, SessionState state, @Nullable Lane lane, @Nullable StatementCache statementCache,
+			PoolGroup.@Nullable Member groupMember, @Nullable PriorityGate priorityGate) {
+		this.delegate = delegate;
+		this.stats = stats;
+		this.lane = lane;
+		this.statementCache = statementCache;
+		this.groupMember = groupMember;
+		this.priorityGate = priorityGate;
+		autoCommit = state.autoCommit();
+		readOnly = state.readOnly();
+		transactionIsolation = state.transactionIsolation();
+		schema = state.schema();
+	}//new
+
+	public HikariEbeanConnection (Connection delegate, PoolStats stats, SessionState state, @Nullable Lane lane){ this(delegate, stats, state, lane, null, null, null); }//new
+
+	public HikariEbeanConnection (Connection delegate, PoolStats stats, SessionState state){ this(delegate, stats, state, null, null, null, null); }//new
+
+	public HikariEbeanConnection (Connection delegate, PoolStats stats){ this(delegate, stats, SessionState.UNKNOWN, null, null, null, null); }//new
+
+	/** Current known state (for tests and diagnostics) */
+	public SessionState sessionState (){ return new SessionState(autoCommit, readOnly, transactionIsolation, schema); }
+
+	@Override
+	public void setAutoCommit (boolean autoCommit) throws SQLException {
+		if (this.autoCommit == null || this.autoCommit != autoCommit){
+			this.autoCommit = null;// unknown, if the driver fails
+			delegate.setAutoCommit(autoCommit);
+			this.autoCommit = autoCommit;
+		}
+	}
+
+	@Override
+	public boolean getAutoCommit () throws SQLException {
+		if (autoCommit == null)
+				autoCommit = delegate.getAutoCommit();
+		return autoCommit;
+	}
+
+	@Override
+	public void setReadOnly (boolean readOnly) throws SQLException {
+		if (this.readOnly == null || this.readOnly != readOnly){
+			this.readOnly = null;
+			delegate.setReadOnly(readOnly);
+			this.readOnly = readOnly;
+		}
+	}
+
+	@Override
+	public boolean isReadOnly () throws SQLException {
+		if (readOnly == null)
+				readOnly = delegate.isReadOnly();
+		return readOnly;
+	}
+
+	@Override
+	public void setTransactionIsolation (int level) throws SQLException {
+		if (transactionIsolation != level){
+			transactionIsolation = -1;
+			delegate.setTransactionIsolation(level);
+			transactionIsolation = level;
+		}
+	}
+
+	@Override
+	public int getTransactionIsolation () throws SQLException {
+		if (transactionIsolation == -1)
+				transactionIsolation = delegate.getTransactionIsolation();
+		return transactionIsolation;
+	}
+
+	@Override
+	public void setSchema (String schema) throws SQLException {
+		if (this.schema == null || !this.schema.equals(schema)){
+			this.schema = null;
+			delegate.setSchema(schema);
+			this.schema = schema;
+		}
+	}
+
+	@Override
+	public String getSchema () throws SQLException {
+		if (schema == null)
+				schema = delegate.getSchema();
+		return schema;
+	}
+
+	@Override
+	public void close () throws SQLException {
+		try {
+			try {
+				if (!released)
+						closeCachedStatements();
+			} finally {
+				delegate.close();// back to Hikari pool
+			}
+		} finally {
+			if (!released){// close is idempotent
+				released = true;
+				stats.released(System.nanoTime() - borrowedNanos);
+				if (lane != null)
+						lane.release();
+				if (groupMember != null)
+						groupMember.release();
+				if (priorityGate != null)
+						priorityGate.release();
+			}
+		}
+	}
+
+	/** Statements not closed by their users are closed; uncommitted work through cached statements is rolled back */
+	private void closeCachedStatements () throws SQLException {
+		if (openStatements != null){
+			for (CachedPreparedStatement ps : openStatements.toArray(new CachedPreparedStatement[0])){
+				ps.discard();
+			}
+			openStatements = null;
+		}
+		if (dirty && !getAutoCommit()){
+			delegate.rollback();
+		}
+	}
+
+	/** @see CachedPreparedStatement#close() */
+	void returned (CachedPreparedStatement ps) {
+		if (openStatements != null)
+				openStatements.remove(ps);
+	}
+
+	private PreparedStatement cached (StatementCache cache, StatementCache.Key key) throws SQLException {
+		if (released){ throw new SQLException("Connection is closed"); }
+		int timeout = Deadline.queryTimeoutSeconds();
+		val ps = new CachedPreparedStatement(this, cache, key, cache.take(key));
+		if (timeout > 0)
+				ps.deadline(timeout);
+		if (openStatements == null)
+				openStatements = new ArrayList<>(4);
+		openStatements.add(ps);
+		dirty = true;
+		return ps;
+	}
+
+	/** queryTimeout from the remaining time of the {@link Deadline}, if any */
+	private static <S extends Statement> S deadline (S st) throws SQLException {
+		int timeout;
+		try {
+			timeout = Deadline.queryTimeoutSeconds();
+		} catch (SQLException e){
+			st.close();
+			throw e;
+		}
+		if (timeout > 0)
+				st.setQueryTimeout(timeout);
+		return st;
+	}
+
+	@Override public boolean isClosed () throws SQLException { return released || delegate.isClosed(); }
+
+	@Override public Statement createStatement () throws SQLException { return new TrackedStatement<>(this, deadline(delegate.createStatement())); }
+
+	@Override
+	public PreparedStatement prepareStatement (String sql) throws SQLException {
+		return statementCache != null ? cached(statementCache, new StatementCache.Key(sql))
+				: new TrackedPreparedStatement<>(this, deadline(delegate.prepareStatement(sql)));
+	}
+
+	@Override public CallableStatement prepareCall (String sql) throws SQLException { return new TrackedCallableStatement(this, deadline(delegate.prepareCall(sql))); }
+	@Override public String nativeSQL (String sql) throws SQLException { return delegate.nativeSQL(sql); }
+	/** Commit of written data is remembered for read-your-writes: {@link PoolContext} */
+	@Override
+	public void commit () throws SQLException {
+		delegate.commit();
+		dirty = false;
+		if (written){
+			written = false;
+			committed();
+		}
+	}
+
+	@Override
+	public void rollback () throws SQLException {
+		delegate.rollback();
+		dirty = false;
+		written = false;
+	}
+
+	/** An update has run through a statement of this connection: in autoCommit mode it is committed already */
+	void wrote () throws SQLException {
+		if (getAutoCommit()){
+			committed();
+		} else {
+			written = true;
+		}
+	}
+
+	private void committed () {
+		if (readOnly != Boolean.TRUE)// unknown → as writable, no driver call
+				PoolContext.markWrite();
+	}
+
+	@Override public DatabaseMetaData getMetaData () throws SQLException { return delegate.getMetaData(); }
+	@Override public void setCatalog (String catalog) throws SQLException { delegate.setCatalog(catalog); }
+	@Override public String getCatalog () throws SQLException { return delegate.getCatalog(); }
+	@Override public SQLWarning getWarnings () throws SQLException { return delegate.getWarnings(); }
+	@Override public void clearWarnings () throws SQLException { delegate.clearWarnings(); }
+	@Override public Statement createStatement (int resultSetType, int resultSetConcurrency) throws SQLException { return new TrackedStatement<>(this, deadline(delegate.createStatement(resultSetType, resultSetConcurrency))); }
+
+	@Override
+	public PreparedStatement prepareStatement (String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+		return statementCache != null ? cached(statementCache, new StatementCache.Key(sql, resultSetType, resultSetConcurrency, Statement.NO_GENERATED_KEYS))
+				: new TrackedPreparedStatement<>(this, deadline(delegate.prepareStatement(sql, resultSetType, resultSetConcurrency)));
+	}
+
+	@Override public CallableStatement prepareCall (String sql, int resultSetType, int resultSetConcurrency) throws SQLException { return new TrackedCallableStatement(this, deadline(delegate.prepareCall(sql, resultSetType, resultSetConcurrency))); }
+	@Override public Map<String,Class<?>> getTypeMap () throws SQLException { return delegate.getTypeMap(); }
+	@Override public void setTypeMap (Map<String,Class<?>> map) throws SQLException { delegate.setTypeMap(map); }
+	@Override public void setHoldability (int holdability) throws SQLException { delegate.setHoldability(holdability); }
+	@Override public int getHoldability () throws SQLException { return delegate.getHoldability(); }
+	@Override public Savepoint setSavepoint () throws SQLException { return delegate.setSavepoint(); }
+	@Override public Savepoint setSavepoint (String name) throws SQLException { return delegate.setSavepoint(name); }
+	@Override public void rollback (Savepoint savepoint) throws SQLException { delegate.rollback(savepoint); }
+	@Override public void releaseSavepoint (Savepoint savepoint) throws SQLException { delegate.releaseSavepoint(savepoint); }
+	@Override public Statement createStatement (int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException { return new TrackedStatement<>(this, deadline(delegate.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability))); }
+	@Override public PreparedStatement prepareStatement (String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException { return new TrackedPreparedStatement<>(this, deadline(delegate.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability))); }
+	@Override public CallableStatement prepareCall (String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException { return new TrackedCallableStatement(this, deadline(delegate.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability))); }
+
+	@Override
+	public PreparedStatement prepareStatement (String sql, int autoGeneratedKeys) throws SQLException {
+		return statementCache != null ? cached(statementCache, new StatementCache.Key(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, autoGeneratedKeys))
+				: new TrackedPreparedStatement<>(this, deadline(delegate.prepareStatement(sql, autoGeneratedKeys)));
+	}
+
+	@Override public PreparedStatement prepareStatement (String sql, int[] columnIndexes) throws SQLException { return new TrackedPreparedStatement<>(this, deadline(delegate.prepareStatement(sql, columnIndexes))); }
+	@Override public PreparedStatement prepareStatement (String sql, String[] columnNames) throws SQLException { return new TrackedPreparedStatement<>(this, deadline(delegate.prepareStatement(sql, columnNames))); }
+	@Override public Clob createClob () throws SQLException { return delegate.createClob(); }
+	@Override public Blob createBlob () throws SQLException { return delegate.createBlob(); }
+	@Override public NClob createNClob () throws SQLException { return delegate.createNClob(); }
+	@Override public SQLXML createSQLXML () throws SQLException { return delegate.createSQLXML(); }
+	@Override public boolean isValid (int timeout) throws SQLException { return delegate.isValid(timeout); }
+	@Override public void setClientInfo (String name, String value) throws SQLClientInfoException { delegate.setClientInfo(name, value); }
+	@Override public void setClientInfo (Properties properties) throws SQLClientInfoException { delegate.setClientInfo(properties); }
+	@Override public String getClientInfo (String name) throws SQLException { return delegate.getClientInfo(name); }
+	@Override public Properties getClientInfo () throws SQLException { return delegate.getClientInfo(); }
+	@Override public Array createArrayOf (String typeName, Object[] elements) throws SQLException { return delegate.createArrayOf(typeName, elements); }
+	@Override public Struct createStruct (String typeName, Object[] attributes) throws SQLException { return delegate.createStruct(typeName, attributes); }
+	@Override public void abort (Executor executor) throws SQLException { delegate.abort(executor); }
+	@Override public void setNetworkTimeout (Executor executor, int milliseconds) throws SQLException { delegate.setNetworkTimeout(executor, milliseconds); }
+	@Override public int getNetworkTimeout () throws SQLException { return delegate.getNetworkTimeout(); }
+	@Override public void beginRequest () throws SQLException { delegate.beginRequest(); }
+	@Override public void endRequest () throws SQLException { delegate.endRequest(); }
+	@Override public boolean setShardingKeyIfValid (ShardingKey shardingKey, ShardingKey superShardingKey, int timeout) throws SQLException { return delegate.setShardingKeyIfValid(shardingKey, superShardingKey, timeout); }
+	@Override public boolean setShardingKeyIfValid (ShardingKey shardingKey, int timeout) throws SQLException { return delegate.setShardingKeyIfValid(shardingKey, timeout); }
+	@Override public void setShardingKey (ShardingKey shardingKey, ShardingKey superShardingKey) throws SQLException { delegate.setShardingKey(shardingKey, superShardingKey); }
+	@Override public void setShardingKey (ShardingKey shardingKey) throws SQLException { delegate.setShardingKey(shardingKey); }
+
+	@Override  @SuppressWarnings("unchecked")
+	public <T> T unwrap (Class<T> iface) throws SQLException {
+		if (iface.isInstance(this))
+				return (T) this;
+		if (iface.isInstance(delegate))
+				return (T) delegate;
+		return delegate.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor (Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+	}
+
+	@Override public String toString (){ return "HikariEbeanConnection("+ delegate + ')'; }
+}
\ No newline at end of file
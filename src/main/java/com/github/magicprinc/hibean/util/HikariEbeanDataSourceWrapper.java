@@ -5,8 +5,10 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariConfigMXBean;
 import com.zaxxer.hikari.HikariDataSource;
 import com.zaxxer.hikari.HikariPoolMXBean;
-import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
 import com.zaxxer.hikari.pool.HikariPool;
+import com.zaxxer.hikari.util.Credentials;
+import com.zaxxer.hikari.util.UtilityElf;
 import io.ebean.config.CurrentUserProvider;
 import io.ebean.config.DatabaseConfig;
 import io.ebean.datasource.DataSourceConfig;
@@ -21,13 +23,33 @@ import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.jspecify.annotations.Nullable;
 
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Logger;
 
 /**
@@ -59,7 +81,8 @@ import java.util.logging.Logger;
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class HikariEbeanDataSourceWrapper implements DataSourcePool {
-  protected HikariDataSource ds;
+  /** Volatile: {@link #hotSwap} replaces it at runtime */
+  protected volatile HikariDataSource ds;
 
 	public HikariEbeanDataSourceWrapper (HikariDataSource dataSource){ this.ds = dataSource; }//new
 
@@ -93,11 +116,200 @@ public class HikariEbeanDataSourceWrapper implements DataSourcePool {
 		return dataSource;
 	}
 
+	/** Completes when the pool has started; already completed unless the pool is {@link #startAsync started asynchronously} */
+	private volatile CompletableFuture<HikariEbeanDataSourceWrapper> ready = CompletableFuture.completedFuture(this);
+
+	/**
+	 Readiness handle: the app can block only on the databases it actually needs, e.g.
+	 {@code database.dataSource().unwrap(HikariEbeanDataSourceWrapper.class).ready().join()}
+	 */
+	public CompletableFuture<HikariEbeanDataSourceWrapper> ready (){ return ready; }
+
+	/**
+	 Lazy {@link HikariDataSource} whose pool is started on the bounded {@link PoolExecutors#bootstrap()} executor
+	 (or by the first {@link #getConnection()}, whatever comes first) → pools of many databases connect in parallel.
+	 After start Hikari fills minimumIdle in its own background thread.
+	 */
+	protected HikariDataSource startAsync (HikariConfig hc) {
+		val lazy = new HikariDataSource();
+		hc.copyStateTo(lazy);
+		ready = CompletableFuture.supplyAsync(()->{
+			try {
+				lazy.getConnection().close();// starts the pool: initializationFailTimeout is respected
+				return this;
+			} catch (SQLException e){
+				throw new CompletionException(e);
+			}
+		}, PoolExecutors.bootstrap());
+		ready.whenComplete((w, e)->{
+			if (e != null)
+					log.error("Pool '{}' failed to start asynchronously", lazy.getPoolName(), e);
+		});
+		return lazy;
+	}
+
+	/**
+	 Pool MXBean without waiting: {@link #NOT_STARTED} for a {@link #lazy} or hibernated pool, while the asynchronous start
+	 is in progress, or if it has failed (logged once; the next getConnection tries to start the pool again)
+	 */
+	protected HikariPoolMXBean poolMXBean () {
+		HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+		return pool != null ? pool : NOT_STARTED;
+	}
+
+	/** Lazy pool before the first getConnection: no connections, nothing to suspend */
+	static final HikariPoolMXBean NOT_STARTED = new HikariPoolMXBean(){
+		@Override public int getIdleConnections (){ return 0; }
+		@Override public int getActiveConnections (){ return 0; }
+		@Override public int getTotalConnections (){ return 0; }
+		@Override public int getThreadsAwaitingConnection (){ return 0; }
+		@Override public void softEvictConnections (){}
+		@Override public void suspendPool (){}
+		@Override public void resumePool (){}
+	};
+
+	/**
+	 {@link HikariDataSource} that starts its pool on the first getConnection (Hikari's no-arg constructor):
+	 a rarely used database holds no connections and threads until it is used
+	 */
+	protected static HikariDataSource lazy (HikariConfig hc) {
+		val lazy = new HikariDataSource();
+		hc.copyStateTo(lazy);
+		return lazy;
+	}
+
+	/** Last borrow (System.nanoTime) for {@link #hibernateAfter} */
+	private volatile long lastBorrowNanos = System.nanoTime();
+	private volatile @Nullable ScheduledFuture<?> hibernateTask;
+
+	/**
+	 Idle hibernation: after idleMillis without borrows (and nothing borrowed) the pool is closed and replaced
+	 by a {@link #lazy} copy of its config → zero connections and threads; the next getConnection starts it again.
+	 The check runs on the shared scheduler; 0 → off
+	 */
+	public synchronized void hibernateAfter (long idleMillis) {
+		ScheduledFuture<?> old = hibernateTask;
+		if (old != null){ old.cancel(false); }
+		hibernateTask = null;
+		if (idleMillis <= 0){ return; }
+		long period = Math.max(100, Math.min(idleMillis / 4, 30_000));
+		hibernateTask = PoolExecutors.scheduler().scheduleWithFixedDelay(()->{
+			if (System.nanoTime() - lastBorrowNanos >= TimeUnit.MILLISECONDS.toNanos(idleMillis)){
+				hibernate();
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 Closes the started pool now (if nothing is borrowed) and replaces it by a lazy copy
+	 @return true: hibernated; false: not started or in use
+	 */
+	public synchronized boolean hibernate () {
+		HikariDataSource old = ds;
+		HikariPoolMXBean pool = old.getHikariPoolMXBean();
+		if (pool == null || old.isClosed() || draining || pool.getActiveConnections() > 0 || stats.busy() > 0){ return false; }
+		val next = lazy(old);
+		asReplacement(next);
+		ds = next;
+		log.info("Pool '{}' hibernates: idle since {} ms", name(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastBorrowNanos));
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1000 + old.getConnectionTimeout());
+		PoolExecutors.scheduler().schedule(()->closeWhenIdle(old, deadline), 1, TimeUnit.SECONDS);// a borrow may have read the old ds just now
+		return true;
+	}
+
+	/** The pool has no started HikariPool: {@link #lazy} and not used yet, or hibernated */
+	public boolean hibernated (){ return ds.getHikariPoolMXBean() == null && !ds.isClosed(); }
+
   @Override public String name (){ return ds.getPoolName(); }
 
+	/**
+	 Hikari registers metrics and MBeans under the pool name and unregisters them by name when a pool closes.
+	 A replacement ({@link #hotSwap}, {@link #hibernate}) has the same name and runs next to the old pool for a while:
+	 it gets them when the pool holding them is closed. Null: nothing has been replaced yet, {@link #ds} holds them
+	 */
+	private @Nullable HikariDataSource registered;
+	/** Captured from the first pool: the monitoring every replacement gets */
+	private @Nullable Object metricRegistry;
+	private @Nullable MetricsTrackerFactory metricsTrackerFactory;
+	private boolean registerMbeans;
+	/** MBeans of {@link #registered} were registered here, not by Hikari: Hikari unregisters only its own */
+	private boolean ownMbeans;
+
+	/** Same name as the current pool, monitoring held back until {@link #handOver} */
+	private synchronized void asReplacement (HikariConfig next) {
+		if (registered == null){
+			HikariDataSource first = ds;
+			registered = first;
+			metricRegistry = first.getMetricRegistry();
+			metricsTrackerFactory = first.getMetricsTrackerFactory();
+			registerMbeans = first.isRegisterMbeans();
+		}
+		if (next.getMetricRegistry() != null){ metricRegistry = next.getMetricRegistry(); }
+		if (next.getMetricsTrackerFactory() != null){ metricsTrackerFactory = next.getMetricsTrackerFactory(); }
+		next.setPoolName(name());
+		next.setMetricRegistry(null);
+		next.setMetricsTrackerFactory(null);
+		next.setRegisterMbeans(false);
+	}
+
+	/** A pool has been closed: if it held the metrics and MBeans, the current pool gets them */
+	private synchronized void handOver (HikariDataSource closed) {
+		if (closed != registered){ return; }
+		if (ownMbeans){
+			mbeans(closed, false);
+			ownMbeans = false;
+		}
+		HikariDataSource next = ds;
+		registered = next;
+		if (next.isClosed()){ return; }
+		try {
+			if (metricsTrackerFactory != null){
+				next.setMetricsTrackerFactory(metricsTrackerFactory);// a running pool starts tracking at once
+			} else if (metricRegistry != null){
+				next.setMetricRegistry(metricRegistry);
+			}
+		} catch (IllegalStateException e){
+			log.warn("Pool '{}': no metrics for the new pool", name(), e);
+		}
+		if (registerMbeans){
+			if (next.getHikariPoolMXBean() == null){
+				try {
+					next.setRegisterMbeans(true);// not started: Hikari registers (and unregisters) them
+					return;
+				} catch (IllegalStateException sealed){}// has started just now
+			}
+			ownMbeans = mbeans(next, true);
+		}
+	}
+
+	/** Hikari's MBean names: {@code com.zaxxer.hikari:type=Pool (name)} or with {@code hikaricp.jmx.register2.0} {@code type=Pool,name=…} */
+	private boolean mbeans (HikariDataSource hds, boolean register) {
+		HikariPoolMXBean pool = hds.getHikariPoolMXBean();
+		if (pool == null){ return false; }
+		try {
+			val server = ManagementFactory.getPlatformMBeanServer();
+			boolean v2 = "true".equals(System.getProperty("hikaricp.jmx.register2.0"));
+			String name = hds.getPoolName();
+			val configName = new ObjectName(v2 ? "com.zaxxer.hikari:type=PoolConfig,name="+ ObjectName.quote(name) : "com.zaxxer.hikari:type=PoolConfig ("+ name +')');
+			val poolName = new ObjectName(v2 ? "com.zaxxer.hikari:type=Pool,name="+ ObjectName.quote(name) : "com.zaxxer.hikari:type=Pool ("+ name +')');
+			if (register){
+				if (server.isRegistered(configName)){ return false; }
+				server.registerMBean(hds, configName);
+				server.registerMBean(pool, poolName);
+			} else if (server.isRegistered(configName)){
+				server.unregisterMBean(configName);
+				server.unregisterMBean(poolName);
+			}
+			return true;
+		} catch (Exception e){
+			log.warn("Pool '{}': can't {} MBeans", name(), register ? "register" : "unregister", e);
+			return false;
+		}
+	}
+
   @Override
 	public int size () {
-    HikariPoolMXBean hPool = ds.getHikariPoolMXBean();
+    HikariPoolMXBean hPool = poolMXBean();
     return hPool.getTotalConnections();
   }
 
@@ -107,20 +319,106 @@ public class HikariEbeanDataSourceWrapper implements DataSourcePool {
 				: ds.isAutoCommit();
 	}
 
-  @Override public boolean isOnline (){ return ds.isRunning() && !ds.isClosed(); }
+  /** A lazy (not started) or hibernated pool is online: it starts on demand */
+  @Override public boolean isOnline (){ return !ds.isClosed() && (ds.isRunning() || (ds.getHikariPoolMXBean() == null && !ready.isCompletedExceptionally())); }
 
-  @Override public boolean isDataSourceUp (){ return isOnline(); }
+  /** Running and the {@link CircuitBreaker} (if any) is closed */
+  @Override
+	public boolean isDataSourceUp () {
+		CircuitBreaker cb = breaker;
+		return isOnline() && (cb == null || cb.state() == CircuitBreaker.State.CLOSED);
+	}
+
+  @Override public void online (){ poolMXBean().resumePool(); }
+
+  /** Suspends the pool (new borrows wait), waits up to {@link #drainTimeoutMillis} for borrowed connections, closes idle ones */
+  @Override
+	public void offline () {
+		if (!ready.isDone()){// offline waits anyway: suspend the pool being started, don't leave it running
+			try {
+				ready.join();
+			} catch (CompletionException | CancellationException ignore){}// not started: nothing to suspend
+		}
+		HikariPoolMXBean pool = poolMXBean();
+		pool.suspendPool();
+		if (drainTimeoutMillis > 0){
+			awaitInFlight(drainTimeoutMillis);
+			pool.softEvictConnections();
+		}
+	}
+
+	/**
+	 Graceful {@link #shutdown()} and {@link #offline()}: wait up to this for borrowed connections to be returned
+	 (in-flight transactions complete). 0 → no wait: shutdown closes the pool at once
+	 */
+	@Getter @Setter @Accessors(fluent = true, chain = true)
+	private volatile long drainTimeoutMillis;
+	/** {@link #drain}: new borrows are rejected */
+	@Getter @Accessors(fluent = true)
+	private volatile boolean draining;
 
-  @Override public void online (){ ds.getHikariPoolMXBean().resumePool(); }
+	/**
+	 Rejects new borrows (SQLTransientConnectionException) and waits up to timeoutMillis until all borrowed connections are returned.
+	 @return true: nothing is borrowed anymore, false: the deadline has passed
+	 */
+	public boolean drain (long timeoutMillis) {
+		draining = true;
+		return awaitInFlight(timeoutMillis);
+	}
 
-  @Override public void offline (){ ds.getHikariPoolMXBean().suspendPool(); }
+	/** Waits until the pool has no active connections (all users of the HikariDataSource, not only this wrapper); logs progress */
+	private boolean awaitInFlight (long timeoutMillis) {
+		HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+		if (pool == null){ return true; }// lazy pool has not started
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		long nextLog = start;
+		int active;
+		while ((active = pool.getActiveConnections()) > 0){
+			long now = System.nanoTime();
+			if (now - deadline >= 0){
+				log.warn("Pool '{}' drain deadline of {} ms has passed: {} connections are still borrowed", name(), timeoutMillis, active);
+				return false;
+			}
+			if (now - nextLog >= 0){
+				log.info("Pool '{}' is draining: {} connections borrowed, {} ms left", name(), active, TimeUnit.NANOSECONDS.toMillis(deadline - now));
+				nextLog = now + TimeUnit.SECONDS.toNanos(1);
+			}
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+		}
+		log.info("Pool '{}' is drained in {} ms", name(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return true;
+	}
 
-  @Override public void shutdown (){ ds.close(); }
+  /** {@link #drain} for {@link #drainTimeoutMillis} (if set), then closes the pool */
+  @Override
+	public void shutdown () {
+		ScheduledFuture<?> task = healthTask;
+		if (task != null){ task.cancel(false); }
+		hibernateAfter(0);
+		PoolGroup.Member member = group;
+		if (member != null){ member.leave(); }
+		if (drainTimeoutMillis > 0){
+			drain(drainTimeoutMillis);
+		}
+		ds.close();
+		evictStatementCaches();
+		synchronized (this){
+			if (ownMbeans && registered != null){
+				mbeans(registered, false);
+				ownMbeans = false;
+			}
+		}
+		for (DataSourcePool standby : failover){
+			standby.shutdown();
+		}
+	}
 
   @Override
 	public PoolStatus status (boolean reset) {
     HikariConfigMXBean cfg = ds.getHikariConfigMXBean();
-    HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+    HikariPoolMXBean pool = poolMXBean();
+		PoolStats.Counters c = stats.counters(reset);
 
     return new PoolStatus(){
       @Override public int minSize (){ return cfg.getMinimumIdle(); }
@@ -130,52 +428,614 @@ public class HikariEbeanDataSourceWrapper implements DataSourcePool {
       @Override public int waiting (){ return pool.getThreadsAwaitingConnection(); }
 			@Override public int size (){ return pool.getTotalConnections(); }
 
-      /** todo {@link MicrometerMetricsTracker} */
-      @Override public int highWaterMark () {
-        return pool.getActiveConnections();
-      }
-      @Override public int waitCount (){ return 0; }
-      @Override public int hitCount (){ return 0; }
-			@Override public long maxAcquireMicros (){ return 0; }
-			/** todo {@link MicrometerMetricsTracker} */
-			@Override public long meanAcquireNanos (){ return 0; }
-
-			@Override public long totalAcquireMicros (){ return 0; }
-			@Override public long totalWaitMicros (){ return 0; }
+      @Override public int highWaterMark (){ return c.highWaterMark(); }
+      @Override public int waitCount (){ return c.waitCount(); }
+      @Override public int hitCount (){ return c.hitCount(); }
+			@Override public long maxAcquireMicros (){ return c.maxAcquireMicros(); }
+			@Override public long meanAcquireNanos (){ return c.meanAcquireNanos(); }
+			@Override public long totalAcquireMicros (){ return c.totalAcquireMicros(); }
+			@Override public long totalWaitMicros (){ return c.totalWaitMicros(); }
+
+			@Override public String toString (){ return "PoolStatus("+ name() +": "+ c +')'; }
     };
   }
 
-  @Override public SQLException dataSourceDownReason (){ return null; }
+  /** Known only with a {@link CircuitBreaker}: the failure that opened it */
+  @Override
+	public @Nullable SQLException dataSourceDownReason () {
+		CircuitBreaker cb = breaker;
+		return cb == null ? null : cb.downReason();
+	}
+
+	/** Fast-fail when the database is down; null → no breaker: every acquisition waits up to connectionTimeout */
+	@Getter @Setter
+	private volatile @Nullable CircuitBreaker breaker;
+	private volatile @Nullable ScheduledFuture<?> healthTask;
+	private final AtomicBoolean probing = new AtomicBoolean();
+
+	/**
+	 Background health probe: a pooled connection + isValid every interval closes or opens the {@link CircuitBreaker}
+	 (a default one is created if there is none). The probe runs on {@link PoolExecutors#bootstrap()}, never two at once.
+	 */
+	public synchronized void startHealthProbe (long intervalMillis) {
+		if (breaker == null)
+				breaker = new CircuitBreaker(name(), 3, 5000, 1);
+		ScheduledFuture<?> old = healthTask;
+		if (old != null){ old.cancel(false); }
+		healthTask = PoolExecutors.scheduler().scheduleWithFixedDelay(()->{
+			if (probing.compareAndSet(false, true)){
+				try {
+					PoolExecutors.bootstrap().execute(()->{
+						try {
+							probe(intervalMillis);
+						} finally {
+							probing.set(false);
+						}
+					});
+				} catch (RejectedExecutionException e){
+					probing.set(false);
+				}
+			}
+		}, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 Warm standby pools in order: while the {@link CircuitBreaker} of this pool is open, new borrows go to the first standby that is up.
+	 When the circuit closes (health probe or a successful half-open borrow) new borrows return to this pool;
+	 connections borrowed from the standby are returned to it as usual (the standby drains and stays warm).
+	 A standby pool is shut down with this pool.
+	 */
+	private volatile List<DataSourcePool> failover = List.of();
+	/** The standby currently in use; null → this pool */
+	private volatile @Nullable DataSourcePool failedOver;
+
+	/** Standby pools (see {@link #failover()}); a {@link CircuitBreaker} is required: creates a default one if there is none */
+	public synchronized void failover (List<? extends DataSourcePool> standby) {
+		failover = List.copyOf(standby);
+		if (!failover.isEmpty() && breaker == null)
+				breaker = new CircuitBreaker(name(), 3, 5000, 1);
+	}
+
+	public List<DataSourcePool> failover (){ return failover; }
+
+	/** The standby new borrows go to; null → this (primary) pool */
+	public @Nullable DataSourcePool failedOver (){ return failedOver; }
+
+	/** The circuit is open: a connection of the first standby that is up, or null → no standby */
+	private @Nullable Connection failoverConnection (@Nullable String username, @Nullable String password, SQLException cause) {
+		for (DataSourcePool standby : failover){
+			if (!standby.isDataSourceUp()){ continue; }
+			try {
+				Connection con = username != null ? standby.getConnection(username, password) : standby.getConnection();
+				if (failedOver != standby){
+					failedOver = standby;
+					log.warn("Pool '{}' fails over to '{}' ‹ {}", name(), standby.name(), cause.toString());
+				}
+				return con;
+			} catch (SQLException e){
+				cause.addSuppressed(e);
+			}
+		}
+		return null;
+	}
+
+	/** The circuit has closed: back from the standby */
+	private void primaryUp () {
+		DataSourcePool standby = failedOver;
+		if (standby != null){
+			failedOver = null;
+			log.info("Pool '{}' is up again: switched back from '{}'", name(), standby.name());
+		}
+	}
+
+	/** Bypasses the breaker and statistics: straight to the Hikari pool */
+	void probe (long intervalMillis) {
+		CircuitBreaker cb = breaker;
+		if (cb == null || !(ds.getHikariPoolMXBean() instanceof HikariPool pool)){ return; }// lazy pool is starting
+		long timeout = Math.min(ds.getConnectionTimeout(), Math.max(250, intervalMillis));
+		try (Connection con = pool.getConnection(timeout)){
+			if (con.isValid((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeout)))){
+				cb.success();
+				primaryUp();
+			} else {
+				cb.failure(new SQLException("Pool "+ name() +": connection is not valid"));
+			}
+		} catch (SQLException e){
+			cb.failure(e, databaseDown(e));
+		}
+	}
+
+	/** Connect error, or a timeout with no connection in the pool at all: nothing is busy, the database doesn't answer */
+	private boolean databaseDown (SQLException e) {
+		HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+		return CircuitBreaker.databaseDown(e) || (pool != null && pool.getTotalConnections() == 0);
+	}
 
   @Override
 	public void setMaxSize (int max) {
     HikariConfigMXBean cfg = ds.getHikariConfigMXBean();
-    cfg.setMaximumPoolSize(max);
+    PoolGroup.Member member = group;
+    cfg.setMaximumPoolSize(member == null ? max : member.capMaximumPoolSize(max));
   }
 
-  @Override
-	public Connection getConnection () throws SQLException {
-		Connection con = ds.getConnection();
+	/** Changes the pool size at runtime: shrink → minimumIdle first, grow → maximumPoolSize first */
+	public void resize (int maxSize, int minIdle) {
+		if (maxSize < 1 || minIdle < 0 || minIdle > maxSize){
+			throw new IllegalArgumentException("Pool "+ name() +": maxSize="+ maxSize +", minIdle="+ minIdle);
+		}
+		HikariConfigMXBean cfg = ds.getHikariConfigMXBean();
+		PoolGroup.Member member = group;
+		int max = member == null ? maxSize : member.capMaximumPoolSize(maxSize);
+		int idle = member == null ? minIdle : Math.min(member.capMinimumIdle(minIdle), max);
+		if (max < cfg.getMinimumIdle()){
+			cfg.setMinimumIdle(idle);
+			cfg.setMaximumPoolSize(max);
+		} else {
+			cfg.setMaximumPoolSize(max);
+			cfg.setMinimumIdle(idle);
+		}
+		if (member != null){ member.minimumIdle(minIdle); }
+	}
+
+	/**
+	 Result of {@link #reload()}
+	 @param applied property names applied to the running pool via {@link HikariConfigMXBean}
+	 @param requiresRebuild changed property names that can't be changed at runtime: the pool must be re-created to use them
+	 */
+	public record ReloadResult (List<String> applied, List<String> requiresRebuild) {
+		public static final ReloadResult NONE = new ReloadResult(List.of(), List.of());
+
+		public boolean changed (){ return !applied.isEmpty() || !requiresRebuild.isEmpty(); }
+	}
+
+	/**
+	 Re-read pool settings from config (see {@link #reloadConfig()}) and apply runtime-mutable values to the running pool.
+	 @see #reload(HikariConfig)
+	 */
+	public synchronized ReloadResult reload () {
+		HikariConfig fresh = reloadConfig();
+		return fresh == null ? ReloadResult.NONE
+				: reload(fresh);
+	}
 
-		if (connectionAutoCommitOverride != null
-			&& connectionAutoCommitOverride != con.getAutoCommit()
-		){
-			con.setAutoCommit(connectionAutoCommitOverride);
+	/** Fresh (re-resolved) pool config or null: config has not changed or reload is not supported (plain wrapper) */
+	protected @Nullable HikariConfig reloadConfig (){ return null; }
+
+	/**
+	 Apply runtime-mutable values of {@code fresh} to the running pool: max size, min idle, timeouts, leak threshold, max lifetime, credentials, catalog.
+	 Other changed values (url, driver, autoCommit, …) are only reported in {@link ReloadResult#requiresRebuild()}.
+	 */
+	public synchronized ReloadResult reload (HikariConfig fresh) {
+		HikariConfigMXBean cfg = ds.getHikariConfigMXBean();
+		val applied = new ArrayList<String>();
+		// fresh config is not validated: the same defaults as HikariConfig#validate
+		int maxPoolSize = fresh.getMaximumPoolSize() < 1 ? 10 : fresh.getMaximumPoolSize();
+		int minIdle = fresh.getMinimumIdle() < 0 || fresh.getMinimumIdle() > maxPoolSize ? maxPoolSize : fresh.getMinimumIdle();
+		PoolGroup.Member member = group;
+		int wantedIdle = minIdle;
+		if (member != null){// the group budget caps both
+			maxPoolSize = member.capMaximumPoolSize(maxPoolSize);
+			minIdle = Math.min(member.capMinimumIdle(minIdle), maxPoolSize);
 		}
-		return con;
+		if (maxPoolSize < cfg.getMinimumIdle()){// shrink: min first, grow: max first
+			mutable(applied, "minimumIdle", cfg.getMinimumIdle(), minIdle, cfg::setMinimumIdle);
+			mutable(applied, "maximumPoolSize", cfg.getMaximumPoolSize(), maxPoolSize, cfg::setMaximumPoolSize);
+		} else {
+			mutable(applied, "maximumPoolSize", cfg.getMaximumPoolSize(), maxPoolSize, cfg::setMaximumPoolSize);
+			mutable(applied, "minimumIdle", cfg.getMinimumIdle(), minIdle, cfg::setMinimumIdle);
+		}
+		if (member != null){ member.minimumIdle(wantedIdle); }
+		mutable(applied, "connectionTimeout", cfg.getConnectionTimeout(), fresh.getConnectionTimeout(), cfg::setConnectionTimeout);
+		mutable(applied, "validationTimeout", cfg.getValidationTimeout(), fresh.getValidationTimeout(), cfg::setValidationTimeout);
+		mutable(applied, "idleTimeout", cfg.getIdleTimeout(), fresh.getIdleTimeout(), cfg::setIdleTimeout);
+		mutable(applied, "leakDetectionThreshold", cfg.getLeakDetectionThreshold(), fresh.getLeakDetectionThreshold(), cfg::setLeakDetectionThreshold);
+		mutable(applied, "maxLifetime", cfg.getMaxLifetime(), fresh.getMaxLifetime(), cfg::setMaxLifetime);
+		mutable(applied, "catalog", cfg.getCatalog(), fresh.getCatalog(), cfg::setCatalog);
+		if (!Objects.equals(ds.getUsername(), fresh.getUsername()) || !Objects.equals(ds.getPassword(), fresh.getPassword())){
+			cfg.setCredentials(Credentials.of(fresh.getUsername(), fresh.getPassword()));// atomically: new connections use both
+			applied.add("credentials");
+		}
+
+		val requiresRebuild = new ArrayList<String>();
+		for (val e : REBUILD_PROPERTIES.entrySet()){
+			if (!Objects.equals(e.getValue().apply(ds), e.getValue().apply(fresh)))
+					requiresRebuild.add(e.getKey());
+		}
+		val result = new ReloadResult(List.copyOf(applied), List.copyOf(requiresRebuild));
+		if (!applied.isEmpty())
+				log.info("Pool '{}' reloaded: {}", name(), applied);
+		if (!requiresRebuild.isEmpty())
+				log.warn("Pool '{}' config changed, but can't be applied without pool restart: {}", name(), requiresRebuild);
+		return result;
+	}
+
+	/**
+	 Zero-downtime pool swap for credential or URL rotation: builds a new pool from {@code fresh} on {@link PoolExecutors#bootstrap()},
+	 checks one connection, warms it up to minimumIdle (at most connectionTimeout), then atomically switches new borrows to it.
+	 The old pool stops refilling and closes idle connections at once; it is closed when its last borrowed connection
+	 is returned or after {@code drainMillis}. The pool name is kept: metrics and MBeans move to the new pool when the old one is closed.
+	 @return completes when new borrows use the new pool; fails (the old pool stays in use) if the new pool can't connect
+	 */
+	public CompletableFuture<HikariEbeanDataSourceWrapper> hotSwap (HikariConfig fresh, long drainMillis) {
+		asReplacement(fresh);
+		PoolGroup.Member member = group;
+		int wantedIdle = fresh.getMinimumIdle();
+		if (member != null){// the new pool starts within the group budget
+			fresh.setMaximumPoolSize(member.capMaximumPoolSize(fresh.getMaximumPoolSize()));
+			fresh.setMinimumIdle(member.capMinimumIdle(wantedIdle));
+		}
+		return CompletableFuture.supplyAsync(()->{
+			val next = new HikariDataSource(fresh);
+			try {
+				warm(next);
+			} catch (SQLException | RuntimeException e){
+				next.close();
+				throw new CompletionException(e);
+			}
+			HikariDataSource old;
+			synchronized (this){
+				old = ds;
+				ds = next;
+				sessionDefaults = null;// the new config may have other defaults
+			}
+			if (member != null){ member.minimumIdle(wantedIdle); }
+			log.info("Pool '{}' swapped to a new pool: {}; draining the old one (at most {} ms)", name(), next.getJdbcUrl(), drainMillis);
+			HikariPoolMXBean oldPool = old.getHikariPoolMXBean();
+			if (oldPool != null){
+				old.getHikariConfigMXBean().setMinimumIdle(0);
+				oldPool.softEvictConnections();// idle now, busy on return
+			}
+			closeWhenIdle(old, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainMillis));
+			return this;
+		}, PoolExecutors.bootstrap());
+	}
+
+	/** One valid connection, then wait (at most connectionTimeout) until minimumIdle connections are open */
+	private static void warm (HikariDataSource next) throws SQLException {
+		Connection first = next.getConnection();// starts a lazy pool; wrong credentials fail here
+		try {
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(next.getConnectionTimeout());
+			HikariPoolMXBean pool = next.getHikariPoolMXBean();
+			while (pool.getTotalConnections() < next.getMinimumIdle() && System.nanoTime() < deadline){
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+			}
+		} finally {
+			first.close();
+		}
+	}
+
+	/** Closes the old pool when nothing is borrowed from it or at the deadline; polls on the scheduler, closes on the bootstrap executor */
+	private void closeWhenIdle (HikariDataSource old, long deadlineNanos) {
+		HikariPoolMXBean pool = old.getHikariPoolMXBean();
+		if (pool == null || pool.getActiveConnections() == 0 || System.nanoTime() - deadlineNanos >= 0){
+			PoolExecutors.bootstrap().execute(()->{
+				int active = pool == null ? 0 : pool.getActiveConnections();
+				old.close();
+				evictStatementCaches();
+				handOver(old);
+				log.info("Pool '{}': the old pool is closed{}", name(), active == 0 ? "" : ", "+ active +" connections were still borrowed");
+			});
+		} else {
+			PoolExecutors.scheduler().schedule(()->closeWhenIdle(old, deadlineNanos), 100, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private static <T> void mutable (List<String> applied, String name, T current, T fresh, Consumer<T> setter) {
+		if (!Objects.equals(current, fresh)){
+			setter.accept(fresh);
+			applied.add(name);
+		}
+	}
+
+	/** Properties that are fixed after pool start */
+	private static final Map<String,Function<HikariConfig,Object>> REBUILD_PROPERTIES = Map.ofEntries(
+		Map.entry("jdbcUrl", hc->Objects.toString(hc.getJdbcUrl(), "")),
+		Map.entry("driverClassName", hc->Objects.toString(hc.getDriverClassName(), "")),
+		Map.entry("dataSourceClassName", hc->Objects.toString(hc.getDataSourceClassName(), "")),
+		Map.entry("dataSourceJNDI", hc->Objects.toString(hc.getDataSourceJNDI(), "")),
+		Map.entry("dataSourceProperties", HikariConfig::getDataSourceProperties),
+		Map.entry("autoCommit", HikariConfig::isAutoCommit),
+		Map.entry("readOnly", HikariConfig::isReadOnly),
+		Map.entry("transactionIsolation", hc->Objects.toString(hc.getTransactionIsolation(), "")),
+		Map.entry("schema", hc->Objects.toString(hc.getSchema(), "")),
+		Map.entry("connectionTestQuery", hc->Objects.toString(hc.getConnectionTestQuery(), "")),
+		Map.entry("connectionInitSql", hc->Objects.toString(hc.getConnectionInitSql(), "")),
+		Map.entry("keepaliveTime", HikariConfig::getKeepaliveTime),
+		Map.entry("isolateInternalQueries", HikariConfig::isIsolateInternalQueries)
+	);
+
+  @Override
+	public Connection getConnection () throws SQLException {
+		return borrow(null, null);
 	}
 
   @Override
 	public Connection getConnection (String username, String password) throws SQLException {
-		Connection con = ds.getConnection(username, password);
+		return borrow(username, password);
+  }
+
+	/** Lane → priority gate → group budget → physical connection (within the lane timeout or {@link Deadline}) → statistics and session state */
+	private Connection borrow (@Nullable String username, @Nullable String password) throws SQLException {
+		if (draining){
+			throw new SQLTransientConnectionException("Pool "+ name() +" is shutting down: draining");
+		}
+		long remaining = Deadline.remainingNanos();
+		if (remaining <= 0){ throw Deadline.rejected("connection of "+ name(), null); }// the caller has given up already
+		long start = System.nanoTime();
+		lastBorrowNanos = start;
+		boolean waited = noIdleConnection();
+		CircuitBreaker cb = breaker;
+		boolean probe = false;// a half-open probe slot is taken
+		if (cb != null){
+			try {
+				probe = cb.acquire();// open → fail fast
+			} catch (SQLException e){
+				Connection standby = failoverConnection(username, password, e);
+				if (standby != null){ return standby; }
+				throw e;
+			}
+		}
+		Lane lane = lane();
+		PriorityGate gate = priorityGate;
+		PoolGroup.Member member = group;
+		long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(lane != null && lane.timeoutMillis() > 0 ? lane.timeoutMillis() : ds.getConnectionTimeout());
+		boolean deadline = remaining < timeoutNanos;
+		if (deadline){
+			timeoutNanos = remaining;
+		}
+		if (lane != null){
+			try {
+				lane.acquire(timeoutNanos);
+			} catch (SQLException e){
+				if (cb != null){ cb.inconclusive(probe); }// not a database failure: frees a half-open probe
+				throw e;
+			}
+		}
+		if (gate != null){
+			try {
+				gate.acquire(Priority.current(), timeoutNanos - (System.nanoTime() - start));
+			} catch (SQLException e){
+				release(lane, null, null);
+				if (cb != null){ cb.inconclusive(probe); }
+				throw e;
+			}
+		}
+		if (member != null){
+			try {
+				member.acquire(timeoutNanos - (System.nanoTime() - start));
+			} catch (SQLException e){
+				release(lane, gate, null);
+				if (cb != null){ cb.inconclusive(probe); }
+				throw e;
+			}
+		}
+		Connection raw;
+		boolean cutShort = false;// the wait was limited by the deadline
+		try {
+			if (username != null){
+				raw = ds.getConnection(username, password);
+			} else if ((deadline || lane != null || gate != null || member != null) && ds.getHikariPoolMXBean() instanceof HikariPool pool){// the rest of the timeout
+				cutShort = deadline;
+				raw = pool.getConnection(Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeoutNanos - (System.nanoTime() - start))));
+			} else {
+				raw = ds.getConnection();
+			}
+		} catch (SQLException e){
+			release(lane, gate, member);
+			stats.failed();
+			if (cutShort && !CircuitBreaker.databaseDown(e)){// the deadline cut the wait short: no verdict on the database
+				if (cb != null){ cb.inconclusive(probe); }
+				throw Deadline.rejected("connection of "+ name(), e);
+			}
+			if (cb != null){
+				if (databaseDown(e)){
+					cb.failure(e, true);
+				} else {
+					cb.inconclusive(probe);
+				}
+				if (cb.state() == CircuitBreaker.State.OPEN){// this failure may have opened it: don't lose the request
+					Connection standby = failoverConnection(username, password, e);
+					if (standby != null){ return standby; }
+				}
+			}
+			throw e;
+		} catch (RuntimeException e){
+			release(lane, gate, member);
+			stats.failed();
+			if (cb != null){ cb.inconclusive(probe); }
+			throw e;
+		}
+		if (cb != null){
+			cb.success();
+			if (failedOver != null){ primaryUp(); }
+		}
+		val con = acquired(raw, start, waited, lane, member, gate);
 
-		if (connectionAutoCommitOverride != null
-			&& connectionAutoCommitOverride != con.getAutoCommit()
-		){
-			con.setAutoCommit(connectionAutoCommitOverride);
+		if (connectionAutoCommitOverride != null){
+			try {
+				con.setAutoCommit(connectionAutoCommitOverride);// no driver call if the same as the pool default
+			} catch (SQLException | RuntimeException e){
+				try {
+					con.close();// returns the connection and the lane, gate and group permits
+				} catch (SQLException ignore){}
+				throw e;
+			}
 		}
 		return con;
-  }
+	}
+
+	/** Permits taken for a borrow that has failed */
+	private static void release (@Nullable Lane lane, @Nullable PriorityGate gate, PoolGroup.@Nullable Member member) {
+		if (lane != null){ lane.release(); }
+		if (gate != null){ gate.release(); }
+		if (member != null){ member.release(); }
+	}
+
+	/** Bulkheads: lane name → {@link Lane}; empty → no limits except the pool size */
+	private volatile Map<String,Lane> lanes = Map.of();
+
+	/** Lanes of the pool (replaces the current ones; connections borrowed through old lanes release old permits) */
+	public void lanes (Collection<Lane> lanes) {
+		val m = new HashMap<String,Lane>();
+		for (Lane lane : lanes){
+			m.put(lane.name(), lane);
+		}
+		this.lanes = Map.copyOf(m);
+	}
+
+	public Map<String,Lane> lanes (){ return lanes; }
+
+	/** Lane selected by {@link Lane#use} or the default lane; null → no lane limits */
+	private @Nullable Lane lane () {
+		val m = lanes;
+		if (m.isEmpty()){ return null; }
+		String name = Lane.current();
+		return m.get(name == null ? Lane.DEFAULT : name);
+	}
+
+	/** Acquisition statistics: {@link #status(boolean)} */
+	@Getter @Accessors(fluent = true)
+	protected final PoolStats stats = new PoolStats();
+
+	/** O(1): all connections are busy → getConnection waits for a released or a new connection */
+	private boolean noIdleConnection () {
+		HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+		return pool == null// lazy pool is starting
+				|| stats.busy() >= pool.getTotalConnections();
+	}
+
+	/** @param lane its permit is released when the connection is closed */
+	protected HikariEbeanConnection acquired (Connection con, long startNanos, boolean waited, @Nullable Lane lane) {
+		return acquired(con, startNanos, waited, lane, null, null);
+	}
+
+	/**
+	 @param member its {@link PoolGroup} permit is released when the connection is closed
+	 @param gate its {@link PriorityGate} permit is released when the connection is closed
+	 */
+	protected HikariEbeanConnection acquired (Connection con, long startNanos, boolean waited, @Nullable Lane lane,
+			PoolGroup.@Nullable Member member, @Nullable PriorityGate gate) {
+		stats.acquired(System.nanoTime() - startNanos, waited);
+		return new HikariEbeanConnection(con, stats, sessionDefaults(), lane, statementCache(con), member, gate);
+	}
+
+	/** Priority admission ({@link Priority#use}); null → Hikari's FIFO */
+	private volatile @Nullable PriorityGate priorityGate;
+
+	public @Nullable PriorityGate priorityGate (){ return priorityGate; }
+
+	/** Enables priority admission with connections reserved for {@link Priority#HIGH} (connections borrowed before are not counted) */
+	public void priorityGate (int reserved){ priorityGate = new PriorityGate(reserved, ()->ds.getMaximumPoolSize()); }
+
+	/** Replaces the gate (null: off); connections borrowed through the old gate release its permits */
+	public void priorityGate (@Nullable PriorityGate gate){ priorityGate = gate; }
+
+	/** Membership in a {@link PoolGroup}: a budget of borrowed connections shared with other pools; null → only maximumPoolSize */
+	private volatile PoolGroup.@Nullable Member group;
+
+	public PoolGroup.@Nullable Member group (){ return group; }
+
+	/** Joins the group (leaves the current one): the group caps maximumPoolSize and minimumIdle of the pool */
+	public synchronized void group (PoolGroup.@Nullable Member member) {
+		PoolGroup.Member old = group;
+		if (old != null && old != member){ old.leave(); }
+		group = member;
+		if (member != null && old != member){ member.limit(()->ds.getHikariConfigMXBean(), ds.getMinimumIdle()); }
+	}
+
+	/**
+	 Max cached prepared statements per physical connection (client-side cache for drivers without a good one of their own);
+	 0 → off. Changing it affects physical connections that have no cache yet
+	 */
+	@Getter @Setter @Accessors(fluent = true, chain = true)
+	private volatile int statementCacheSize;
+	/**
+	 Physical connection → its statement cache. Cached statements reference their connection (a weak key would never be cleared):
+	 caches of closed connections are evicted when a new physical connection shows up and when an old pool is closed
+	 */
+	private final Map<Connection,StatementCache> statementCaches = new ConcurrentHashMap<>();
+	/** The same caches, the oldest connection first: Hikari retires connections by age (maxLifetime) → closed ones are at the head */
+	private final Queue<StatementCache> statementCacheAge = new ConcurrentLinkedQueue<>();
+
+	private @Nullable StatementCache statementCache (Connection con) {
+		int size = statementCacheSize;
+		if (size <= 0){ return null; }
+		Connection physical;
+		try {
+			physical = con.unwrap(Connection.class);// Hikari's proxy → driver's connection
+		} catch (SQLException e){
+			log.warn("Pool '{}': no statement cache, can't unwrap {}", name(), con, e);
+			return null;
+		}
+		StatementCache cache = statementCaches.get(physical);
+		if (cache == null){
+			evictRetiredStatementCaches();// a new physical connection: Hikari may have closed old ones
+			cache = statementCaches.computeIfAbsent(physical, c->{
+				val created = new StatementCache(c, size, stats);
+				statementCacheAge.add(created);
+				return created;
+			});
+		}
+		return cache;
+	}
+
+	/** Physical connections that have a statement cache */
+	int statementCacheConnections (){ return statementCaches.size(); }
+
+	/** Caches of the oldest physical connections, as long as they are closed: O(1) per evicted cache, no scan */
+	private void evictRetiredStatementCaches () {
+		StatementCache oldest;
+		while ((oldest = statementCacheAge.peek()) != null && closed(oldest.physical())){
+			if (statementCacheAge.remove(oldest)){// another thread may have taken it: the head only
+				evict(oldest);
+			}
+		}
+	}
+
+	/** Caches of all closed physical connections (a pool has been closed): a full scan */
+	private void evictStatementCaches () {
+		for (StatementCache cache : statementCacheAge){
+			if (closed(cache.physical()) && statementCacheAge.remove(cache)){
+				evict(cache);
+			}
+		}
+	}
+
+	private void evict (StatementCache cache) {
+		statementCaches.remove(cache.physical(), cache);
+		cache.close();
+	}
+
+	private static boolean closed (Connection physical) {
+		try {
+			return physical.isClosed();
+		} catch (SQLException e){
+			return true;
+		}
+	}
+
+	private volatile HikariEbeanConnection.@Nullable SessionState sessionDefaults;
+
+	/**
+	 Session state of a borrowed connection: Hikari sets it on a new connection and resets it on return.
+	 Unknown (read from the driver once per borrow, if needed) if connectionInitSql could change it or the pool doesn't set it.
+	 */
+	protected HikariEbeanConnection.SessionState sessionDefaults () {
+		var state = sessionDefaults;
+		if (state == null){
+			String initSql = ds.getConnectionInitSql();
+			if (initSql != null && !initSql.isBlank()){
+				state = HikariEbeanConnection.SessionState.UNKNOWN;
+			} else {
+				String isolation = ds.getTransactionIsolation();
+				state = new HikariEbeanConnection.SessionState(ds.isAutoCommit(), ds.isReadOnly(),
+						isolation == null ? -1 : UtilityElf.getTransactionIsolation(isolation),
+						ds.getSchema());
+			}
+			sessionDefaults = state;
+		}
+		return state;
+	}
 
   @Override public PrintWriter getLogWriter () throws SQLException { return ds.getLogWriter(); }
 
@@ -195,8 +1055,7 @@ public class HikariEbeanDataSourceWrapper implements DataSourcePool {
 		if (iface == HikariEbeanDataSourceWrapper.class)
 				return (T) this;
 
-    if (DataSource.class.equals(iface)){
-      val p = (HikariPool) ds.getHikariPoolMXBean();// hack!
+    if (DataSource.class.equals(iface) && poolMXBean() instanceof HikariPool p){// hack!
       return (T) p.getUnwrappedDataSource();
     }
 
@@ -213,13 +1072,8 @@ public class HikariEbeanDataSourceWrapper implements DataSourcePool {
 
 	@Override public String toString (){ return "HikariEbeanDataSourcePool("+ ds + ')'; }
 
-	@Override
-	public final boolean equals (Object o) {
-		if (this == o){ return true; }
-		if (!(o instanceof HikariEbeanDataSourceWrapper wrapper)){ return false; }
-
-		return Objects.equals(ds, wrapper.ds);
-	}
+	/** Identity of the wrapper: {@link #ds} is replaced by {@link #hotSwap} and {@link #hibernate}, the pool stays the same */
+	@Override public final boolean equals (Object o){ return this == o; }
 
-	@Override public int hashCode (){ return Objects.hashCode(ds); }
+	@Override public final int hashCode (){ return System.identityHashCode(this); }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.github.magicprinc.hibean.util;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ Bulkhead inside one pool: a named workload (oltp, reporting, batch) may hold at most {@link #maxConcurrent} connections,
+ at most {@link #maxQueue} threads may wait for a permit, a full queue fails fast.
+ One runaway report can't take all maximumPoolSize connections from latency-critical paths.
+
+ Callers select a lane with {@link #use}; without a selected lane the {@code default} lane (if configured) applies.
+ Config: {@code db.lane.reporting.max-concurrent = 3}, {@code db.lane.reporting.max-queue = 10}, {@code db.lane.reporting.timeout = 2s}
+
+ @see HikariEbeanDataSourceWrapper#lanes(java.util.Collection)
+ */
+@Getter @Accessors(fluent = true)
+public final class Lane {
+	/** Lane of calls without {@link #use} */
+	public static final String DEFAULT = "default";
+	private static final ThreadLocal<@Nullable String> CURRENT = new ThreadLocal<>();
+
+	private final String name;
+	private final int maxConcurrent;
+	private final int maxQueue;
+	/** Lane acquire timeout (permit + connection); 0 → pool's connectionTimeout */
+	private final long timeoutMillis;
+
+	@Getter(AccessLevel.NONE) private final Semaphore permits;
+	@Getter(AccessLevel.NONE) private final AtomicInteger queued = new AtomicInteger();
+	@Getter(AccessLevel.NONE) private final LongAdder rejected = new LongAdder();
+
+	public Lane (String name, int maxConcurrent, int maxQueue, long timeoutMillis) {
+		if (maxConcurrent < 1 || maxQueue < 0 || timeoutMillis < 0){
+			throw new IllegalArgumentException("Lane "+ name +": maxConcurrent="+ maxConcurrent +", maxQueue="+ maxQueue +", timeout="+ timeoutMillis);
+		}
+		this.name = name;
+		this.maxConcurrent = maxConcurrent;
+		this.maxQueue = maxQueue;
+		this.timeoutMillis = timeoutMillis;
+		permits = new Semaphore(maxConcurrent, true);
+	}//new
+
+	/** Selects the lane for connections of the current thread until {@link PoolContext.Scope#close()} */
+	public static PoolContext.Scope use (String lane) {
+		return Scopes.set(CURRENT, lane);
+	}
+
+	/** Lane selected by {@link #use} or null */
+	public static @Nullable String current (){ return CURRENT.get(); }
+
+	/**
+	 Takes a permit: at once, or waits in the queue
+	 @param timeoutNanos max wait
+	 @throws PoolRejectedException queue is full (fail fast) or timeout
+	 */
+	void acquire (long timeoutNanos) throws PoolRejectedException {
+		if (permits.tryAcquire()){ return; }
+		if (queued.incrementAndGet() > maxQueue){
+			queued.decrementAndGet();
+			rejected.increment();
+			throw new PoolRejectedException("Lane "+ name +" is full: "+ maxConcurrent +" active, "+ maxQueue +" waiting");
+		}
+		try {
+			if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)){
+				rejected.increment();
+				throw new PoolRejectedException("Lane "+ name +": no permit within "+ TimeUnit.NANOSECONDS.toMillis(timeoutNanos) +" ms ("+ maxConcurrent +" active)");
+			}
+		} catch (InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new PoolRejectedException("Lane "+ name +": interrupted", e);
+		} finally {
+			queued.decrementAndGet();
+		}
+	}
+
+	void release (){ permits.release(); }
+
+	/** Connections held through the lane */
+	public int active (){ return maxConcurrent - permits.availablePermits(); }
+
+	/** Threads waiting for a permit */
+	public int queued (){ return queued.get(); }
+
+	/** Failed fast (full queue) or timed out */
+	public long rejected (){ return rejected.sum(); }
+
+	@Override public String toString (){ return "Lane("+ name +": "+ active() +'/'+ maxConcurrent +", queued "+ queued() +'/'+ maxQueue +')'; }
+}
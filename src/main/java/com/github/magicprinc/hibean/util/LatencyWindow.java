@@ -0,0 +1,50 @@
+package com.github.magicprinc.hibean.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ Sliding window of the last {@link #capacity} latencies → percentiles of <b>recent</b> latency.
+ Recording is a lock-free array write; percentiles are recalculated (copy + sort) at most every {@link #RECALC_EVERY} samples.
+ */
+public final class LatencyWindow {
+	static final int RECALC_EVERY = 64;
+
+	private final long[] ring;
+	private final AtomicLong count = new AtomicLong();
+	private volatile long[] sorted = new long[0];
+	private volatile long sortedAt;
+
+	public LatencyWindow (int capacity) {
+		if (capacity < 1){ throw new IllegalArgumentException("LatencyWindow capacity: "+ capacity); }
+		ring = new long[capacity];
+	}//new
+
+	public int capacity (){ return ring.length; }
+
+	/** Samples in the window */
+	public int size (){ return (int) Math.min(count.get(), ring.length); }
+
+	public void record (long nanos) {
+		long i = count.getAndIncrement();
+		ring[(int) (i % ring.length)] = nanos;// a racing writer can only replace one sample with another one
+	}
+
+	/**
+	 @param percentile 0..100, e.g. 95
+	 @return latency in nanos; 0 if the window is empty
+	 */
+	public long percentile (double percentile) {
+		long n = count.get();
+		long[] s = sorted;
+		if (n - sortedAt >= RECALC_EVERY || (n < RECALC_EVERY && n != sortedAt)){
+			s = Arrays.copyOf(ring, size());
+			Arrays.sort(s);
+			sorted = s;
+			sortedAt = n;
+		}
+		if (s.length == 0){ return 0; }
+		int idx = (int) Math.ceil(percentile / 100 * s.length) - 1;
+		return s[Math.max(0, Math.min(idx, s.length - 1))];
+	}
+}
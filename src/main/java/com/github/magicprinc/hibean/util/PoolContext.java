@@ -0,0 +1,57 @@
+package com.github.magicprinc.hibean.util;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ Logical session of pool users (HTTP session, user, job): keep it where the session lives and {@link #bind} it to the thread
+ for the duration of a request.
+
+ Read-your-writes: a commit through {@link HikariEbeanConnection} of a writable (primary) pool is remembered here →
+ reads of the same session through {@link ReplicaSetDataSourcePool} go to the primary or to replicas known to be caught up,
+ for the stickiness window. Without a bound context nothing is remembered: reads go to any replica.
+ */
+public final class PoolContext {
+	private static final ThreadLocal<@Nullable PoolContext> CURRENT = new ThreadLocal<>();
+
+	/** System.nanoTime of the last commit on a primary; valid if {@link #written} */
+	private volatile long lastWriteNanos;
+	private volatile boolean written;
+
+	/** Context bound to the current thread or null */
+	public static @Nullable PoolContext current (){ return CURRENT.get(); }
+
+	/** Bound until {@link Scope#close()}: the previous context (if any) is restored then */
+	public Scope bind () {
+		return Scopes.set(CURRENT, this);
+	}
+
+	/** Something has been written to the primary now */
+	public void written () {
+		lastWriteNanos = System.nanoTime();
+		written = true;
+	}
+
+	/** {@link #written()} of the current context, if any */
+	public static void markWrite () {
+		PoolContext ctx = CURRENT.get();
+		if (ctx != null)
+				ctx.written();
+	}
+
+	/**
+	 @param nowNanos System.nanoTime
+	 @param windowNanos stickiness window
+	 @return time of the last write, if it was within the window; otherwise null
+	 */
+	public @Nullable Long writtenWithin (long nowNanos, long windowNanos) {
+		boolean wr = written;// first: then lastWriteNanos is already set
+		long w = lastWriteNanos;
+		return wr && nowNanos - w < windowNanos ? w : null;
+	}
+
+	/** {@link #bind} scope: try-with-resources */
+	@FunctionalInterface
+	public interface Scope extends AutoCloseable {
+		@Override void close ();
+	}
+}
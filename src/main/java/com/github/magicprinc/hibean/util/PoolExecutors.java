@@ -0,0 +1,136 @@
+package com.github.magicprinc.hibean.util;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ Shared background executors of all HiBean pools: one small daemon scheduler instead of a timer thread per pool.
+ Tasks of {@link #scheduler()} must be short and must not block (config reload, probes): they share the same thread(s).
+ */
+@Slf4j
+public final class PoolExecutors {
+	private PoolExecutors (){}//new
+
+	private static final class Holder {
+		static final ScheduledThreadPoolExecutor SCHEDULER;
+		static {
+			SCHEDULER = new ScheduledThreadPoolExecutor(1, daemon("hibean-scheduler-"));
+			SCHEDULER.setRemoveOnCancelPolicy(true);// cancelled tasks of closed pools don't pile up
+			SCHEDULER.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		}
+	}
+
+	/** Shared daemon scheduler for periodic pool maintenance */
+	public static ScheduledExecutorService scheduler (){ return Holder.SCHEDULER; }
+
+	private static final class Bootstrap {
+		/** Bounded: connect storms of many pools must not exhaust the database or the app */
+		static final int THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+		static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), daemon("hibean-bootstrap-"));
+		static {
+			EXECUTOR.allowCoreThreadTimeOut(true);// no idle threads after startup
+		}
+	}
+
+	/** Bounded executor of asynchronous pool bootstrap (blocking connects are ok here) */
+	public static ExecutorService bootstrap (){ return Bootstrap.EXECUTOR; }
+
+	private static final class Hedging {
+		/** Hedges are rare (slowest few %): a small burst capacity, no queue → a hedge is skipped rather than delayed */
+		static final int THREADS = Math.max(4, 4 * Runtime.getRuntime().availableProcessors());
+		static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(0, THREADS, 30, TimeUnit.SECONDS,
+				new SynchronousQueue<>(), daemon("hibean-hedge-"));
+	}
+
+	/** Bounded executor of hedged (second) read attempts; throws RejectedExecutionException if all threads are busy */
+	public static ExecutorService hedging (){ return Hedging.EXECUTOR; }
+
+	private static final class Housekeeping {
+		/** Hikari housekeeping and keepalive tasks of all pools: keepalive validates connections (blocks on the network) */
+		static final int THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors() / 2));
+		static final ScheduledThreadPoolExecutor EXECUTOR = new Jittered(THREADS, daemon("hibean-housekeeper-"));
+		static {
+			EXECUTOR.setRemoveOnCancelPolicy(true);// keepalive tasks of closed connections don't pile up
+			EXECUTOR.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		}
+	}
+
+	/**
+	 Shared bounded housekeeping scheduler for {@link com.zaxxer.hikari.HikariConfig#setScheduledExecutor}:
+	 a few threads for all pools instead of one per pool; periodic tasks get a random initial delay,
+	 so pools started together don't run housekeeping at the same moment
+	 */
+	public static ScheduledExecutorService housekeeping (){ return Housekeeping.EXECUTOR; }
+
+	/** Periodic tasks start with a random delay of up to ¼ of the period */
+	static final class Jittered extends ScheduledThreadPoolExecutor {
+		Jittered (int corePoolSize, ThreadFactory threadFactory) {
+			super(corePoolSize, threadFactory);
+		}//new
+
+		@Override
+		public ScheduledFuture<?> scheduleAtFixedRate (Runnable command, long initialDelay, long period, TimeUnit unit) {
+			return super.scheduleAtFixedRate(command, initialDelay + jitter(period), period, unit);
+		}
+
+		@Override
+		public ScheduledFuture<?> scheduleWithFixedDelay (Runnable command, long initialDelay, long delay, TimeUnit unit) {
+			return super.scheduleWithFixedDelay(command, initialDelay + jitter(delay), delay, unit);
+		}
+
+		static long jitter (long period) {
+			return period < 4 ? 0 : ThreadLocalRandom.current().nextLong(period / 4);
+		}
+	}
+
+	private static final class PoolThreads {
+		static final ThreadFactory PLATFORM = daemon("hibean-pool-");
+		static final @Nullable ThreadFactory VIRTUAL = virtual("hibean-pool-v");
+	}
+
+	/**
+	 Thread factory for {@link com.zaxxer.hikari.HikariConfig#setThreadFactory} (connection adder/closer threads of a pool)
+	 @param virtual virtual threads (Java 21+; platform daemon threads on older runtimes)
+	 */
+	public static ThreadFactory poolThreads (boolean virtual) {
+		ThreadFactory f = virtual ? PoolThreads.VIRTUAL : null;
+		return f != null ? f : PoolThreads.PLATFORM;
+	}
+
+	/** {@code Thread.ofVirtual().name(prefix, 1).factory()} by reflection: the library is compiled for Java 17 */
+	static @Nullable ThreadFactory virtual (String namePrefix) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e){
+			log.warn("Virtual threads are not available (Java {}): platform threads are used", Runtime.version().feature());
+			return null;
+		}
+	}
+
+	static ThreadFactory daemon (String namePrefix) {
+		val counter = new AtomicInteger();
+		return r->{
+			Thread t = new Thread(r, namePrefix + counter.incrementAndGet());
+			t.setDaemon(true);
+			t.setUncaughtExceptionHandler((thread, e)->log.error("Uncaught exception in {}", thread.getName(), e));
+			return t;
+		};
+	}
+}
\ No newline at end of file
@@ -0,0 +1,301 @@
+package com.github.magicprinc.hibean.util;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ One connection budget shared by several pools of the same database server: the sum of borrowed connections of the members
+ never exceeds {@link #maxConnections} (set each member's maximumPoolSize up to the budget, not a fraction of it).
+
+ Weighted fair sharing with borrowing: while there is free budget, any member takes it (unused capacity is not wasted);
+ when members wait, a released permit goes to the waiting member with the lowest borrowed/weight (weighted max-min fairness),
+ so a member below its share {@code maxConnections × weight / Σ weights} is served before members above it.
+
+ Idle connections hold server sessions too: a member's maximumPoolSize is capped at maxConnections and its minimumIdle
+ at its share (rounded down), so the idle connections of all members fit into the budget as well.
+
+ Config: {@code db.group = pg1}, {@code db.groupWeight = 2}, {@code ebean.hikari.group.pg1 = 100}
+ */
+public final class PoolGroup {
+	private static final Map<String,PoolGroup> GROUPS = new ConcurrentHashMap<>();
+
+	@Getter @Accessors(fluent = true)
+	private final String name;
+	@Getter @Accessors(fluent = true)
+	private final int maxConnections;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition released = lock.newCondition();
+	private final List<Member> members = new ArrayList<>();
+	private int used;
+	/** The last member has left: the group is no longer in {@link #GROUPS} */
+	private boolean retired;
+
+	PoolGroup (String name, int maxConnections) {
+		if (maxConnections < 1){ throw new IllegalArgumentException("PoolGroup "+ name +": maxConnections="+ maxConnections); }
+		this.name = name;
+		this.maxConnections = maxConnections;
+	}//new
+
+	/**
+	 The group by name: created with maxConnections by the first caller, dropped when its last member leaves
+	 @throws IllegalArgumentException the group exists with another maxConnections
+	 */
+	public static PoolGroup of (String name, int maxConnections) {
+		PoolGroup g = GROUPS.computeIfAbsent(name, n->new PoolGroup(n, maxConnections));
+		if (g.maxConnections != maxConnections){
+			throw new IllegalArgumentException("PoolGroup "+ name +": maxConnections="+ maxConnections +" conflicts with "+ g.maxConnections +" of the existing group");
+		}
+		return g;
+	}
+
+	/** A pool joins the group (or the group of the same name, if the last member has just left this one) */
+	public Member join (String pool, int weight) {
+		if (weight < 1){ throw new IllegalArgumentException("PoolGroup "+ name +": weight of "+ pool +" = "+ weight); }
+		lock.lock();
+		try {
+			if (!retired){
+				Member m = new Member(pool, weight);
+				members.add(m);
+				resize();// the shares of the others shrink
+				return m;
+			}
+		} finally {
+			lock.unlock();
+		}
+		return of(name, maxConnections).join(pool, weight);
+	}
+
+	/** Last member gone: out of {@link #GROUPS}. Called in GROUPS.compute: map bin → group lock, like {@link #of} → {@link #join} */
+	private boolean retire () {
+		lock.lock();
+		try {
+			retired = members.isEmpty();
+			return retired;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** minimumIdle of each member within its share (under lock) */
+	private void resize () {
+		for (Member m : members){
+			HikariConfigMXBean cfg = m.config == null ? null : m.config.get();
+			if (cfg != null){
+				int idle = m.capMinimumIdle0(m.minimumIdle);
+				if (cfg.getMinimumIdle() != idle){ cfg.setMinimumIdle(idle); }
+			}
+		}
+	}
+
+	/** Borrowed connections of all members */
+	public int used () {
+		lock.lock();
+		try {
+			return used;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** A member pool of the group */
+	public final class Member {
+		@Getter @Accessors(fluent = true)
+		private final String pool;
+		@Getter @Accessors(fluent = true)
+		private final int weight;
+		private int held;
+		private int waiting;
+		/** The current config of the member pool (it changes with hot swap and hibernation); null: sizes are not managed */
+		private @Nullable Supplier<HikariConfigMXBean> config;
+		/** minimumIdle wanted by the pool config: it gets at most its share */
+		private int minimumIdle = -1;
+
+		Member (String pool, int weight) {
+			this.pool = pool;
+			this.weight = weight;
+		}//new
+
+		public PoolGroup group (){ return PoolGroup.this; }
+
+		/** Guaranteed share under contention: maxConnections × weight / Σ weights */
+		public double share () {
+			lock.lock();
+			try {
+				int total = totalWeight();
+				return total == 0 ? 0 : (double) maxConnections * weight / total;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private int totalWeight () {
+			int total = 0;
+			for (Member m : members){
+				total += m.weight;
+			}
+			return total;
+		}
+
+		/**
+		 The group manages the sizes of the pool: maximumPoolSize ≤ maxConnections now, minimumIdle ≤ share now and whenever members join or leave
+		 @param config the current config of the pool (read on every resize)
+		 @param minimumIdle wanted by the pool config (&lt; 0: up to maximumPoolSize)
+		 */
+		public void limit (Supplier<HikariConfigMXBean> config, int minimumIdle) {
+			lock.lock();
+			try {
+				this.config = config;
+				this.minimumIdle = minimumIdle;
+				HikariConfigMXBean cfg = config.get();
+				int max = capMaximumPoolSize(cfg.getMaximumPoolSize());
+				if (cfg.getMaximumPoolSize() != max){ cfg.setMaximumPoolSize(max); }
+				resize();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/** minimumIdle wanted by the pool config (the pool gets {@link #capMinimumIdle}) */
+		public int minimumIdle () {
+			lock.lock();
+			try {
+				return minimumIdle;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/** The pool config wants another minimumIdle (reload, resize, hot swap) */
+		public void minimumIdle (int minimumIdle) {
+			lock.lock();
+			try {
+				this.minimumIdle = minimumIdle;
+				resize();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/** maximumPoolSize within the budget (&lt; 1: Hikari's default 10) */
+		public int capMaximumPoolSize (int maximumPoolSize) {
+			return Math.min(maximumPoolSize < 1 ? 10 : maximumPoolSize, maxConnections);
+		}
+
+		/** minimumIdle within the share of this member (rounded down): Σ minimumIdle of the members ≤ maxConnections */
+		public int capMinimumIdle (int minimumIdle) {
+			lock.lock();
+			try {
+				return capMinimumIdle0(minimumIdle);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private int capMinimumIdle0 (int minimumIdle) {
+			int total = totalWeight();
+			int share = total == 0 ? maxConnections : (int) ((long) maxConnections * weight / total);
+			return Math.min(minimumIdle < 0 ? Integer.MAX_VALUE : minimumIdle, share);
+		}
+
+		/** Threads of this pool waiting for a permit */
+		int waiting () {
+			lock.lock();
+			try {
+				return waiting;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/** Connections borrowed through the group now */
+		public int held () {
+			lock.lock();
+			try {
+				return held;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 Takes a permit of the group budget: at once if there is free budget and nobody more deserving waits
+		 @throws PoolRejectedException no permit within timeout (or interrupted)
+		 */
+		void acquire (long timeoutNanos) throws PoolRejectedException {
+			lock.lock();
+			try {
+				long nanos = timeoutNanos;
+				waiting++;
+				try {
+					while (!grantable()){
+						if (nanos <= 0){
+							throw new PoolRejectedException("PoolGroup "+ name +": no connection for "+ pool +" within "
+									+ TimeUnit.NANOSECONDS.toMillis(timeoutNanos) +" ms ("+ used +'/'+ maxConnections +" used, "+ held +" by "+ pool +')');
+						}
+						nanos = released.awaitNanos(nanos);
+					}
+				} catch (InterruptedException e){
+					Thread.currentThread().interrupt();
+					throw new PoolRejectedException("PoolGroup "+ name +": interrupted", e);
+				} finally {
+					waiting--;
+				}
+				held++;
+				used++;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/** Free budget, and no waiting member has a lower borrowed/weight (ties: whoever wakes first) */
+		private boolean grantable () {
+			if (used >= maxConnections){ return false; }
+			for (Member m : members){
+				if (m != this && m.waiting > 0 && (long) m.held * weight < (long) held * m.weight){
+					return false;// m.held/m.weight < held/weight
+				}
+			}
+			return true;
+		}
+
+		void release () {
+			lock.lock();
+			try {
+				held--;
+				used--;
+				released.signalAll();// every waiter re-checks: the most deserving one proceeds
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/** The pool leaves the group (shutdown): its weight no longer counts; the last one drops the group */
+		public void leave () {
+			lock.lock();
+			try {
+				if (!members.remove(this)){ return; }
+				config = null;
+				resize();// the shares of the others grow
+				released.signalAll();
+			} finally {
+				lock.unlock();
+			}
+			GROUPS.computeIfPresent(name, (n, g)->g == PoolGroup.this && g.retire() ? null : g);
+		}
+
+		@Override public String toString (){ return "PoolGroup.Member("+ name +'/'+ pool +": "+ held() +", weight "+ weight +')'; }
+	}
+
+	@Override public String toString (){ return "PoolGroup("+ name +": "+ used() +'/'+ maxConnections +", "+ members.size() +" pools)"; }
+}
@@ -0,0 +1,15 @@
+package com.github.magicprinc.hibean.util;
+
+import org.jspecify.annotations.Nullable;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ The pool has refused a borrow on our side: a full {@link Lane}, no permit in time. Not a failure of the database:
+ {@link CircuitBreaker} doesn't count it, {@link ReplicaSetDataSourcePool} doesn't eject the replica.
+ */
+public class PoolRejectedException extends SQLTransientConnectionException {
+	public PoolRejectedException (String reason){ super(reason); }//new
+
+	public PoolRejectedException (String reason, @Nullable Throwable cause){ super(reason, cause); }//new
+}
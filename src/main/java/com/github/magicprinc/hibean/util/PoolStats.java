@@ -0,0 +1,155 @@
+package com.github.magicprinc.hibean.util;
+
+import io.ebean.datasource.PoolStatus;
+import lombok.val;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ Connection acquisition statistics of {@link HikariEbeanDataSourceWrapper}: what Ebean's own pool reports in {@link PoolStatus}.
+ Sums are {@link LongAdder}s and maximums are {@link LongAccumulator}s → no contention between threads getting connections.
+
+ @see HikariEbeanDataSourceWrapper#status(boolean)
+ */
+public final class PoolStats {
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder waitCount = new LongAdder();
+	private final LongAdder totalAcquireNanos = new LongAdder();
+	private final LongAdder totalWaitNanos = new LongAdder();
+	private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+	private final LongAccumulator highWaterMark = new LongAccumulator(Math::max, 0);
+	/** Connections handed out and not closed yet: exact value is needed for highWaterMark */
+	private final AtomicInteger busy = new AtomicInteger();
+	/** Recent latencies for load balancing: time in getConnection and time a connection is held (≈ query latency) */
+	private final Ewma acquireLatency = new Ewma();
+	private final Ewma holdLatency = new Ewma();
+	private final LongAdder failures = new LongAdder();
+	/** Never reset (unlike {@link #counters}): for controllers that compute their own deltas */
+	private final LongAdder totalHoldNanos = new LongAdder();
+	private final LongAdder totalWaitedNanos = new LongAdder();
+	private final LongAdder statementCacheHits = new LongAdder();
+	private final LongAdder statementCacheMisses = new LongAdder();
+
+	/** Connections currently in use (handed out by the wrapper) */
+	public int busy (){ return busy.get(); }
+
+	/**
+	 A connection has been acquired
+	 @param acquireNanos time spent in getConnection
+	 @param waited there was no idle connection: the thread had to wait for a released or a new connection
+	 */
+	public void acquired (long acquireNanos, boolean waited) {
+		hitCount.increment();
+		totalAcquireNanos.add(acquireNanos);
+		maxAcquireNanos.accumulate(acquireNanos);
+		if (waited){
+			waitCount.increment();
+			totalWaitNanos.add(acquireNanos);
+			totalWaitedNanos.add(acquireNanos);
+		}
+		highWaterMark.accumulate(busy.incrementAndGet());
+		acquireLatency.add(acquireNanos, System.nanoTime());
+	}
+
+	/**
+	 A connection has been closed (returned to the pool)
+	 @param holdNanos time between getConnection and close: queries + application work
+	 */
+	public void released (long holdNanos) {
+		busy.decrementAndGet();
+		totalHoldNanos.add(holdNanos);
+		holdLatency.add(holdNanos, System.nanoTime());
+	}
+
+	/** Sum of connection hold times since start: Δ/Δt == mean number of connections in use (Little's law) */
+	public long totalHoldNanos (){ return totalHoldNanos.sum(); }
+
+	/** Sum of waits for a connection since start: Δ/Δt == mean number of waiting threads */
+	public long totalWaitedNanos (){ return totalWaitedNanos.sum(); }
+
+	/** getConnection has failed (e.g. connectionTimeout) */
+	public void failed (){ failures.increment(); }
+
+	/** Failed getConnection calls since start */
+	public long failures (){ return failures.sum(); }
+
+	void statementCacheHit (){ statementCacheHits.increment(); }
+
+	void statementCacheMiss (){ statementCacheMisses.increment(); }
+
+	/** prepareStatement served by the statement cache since start */
+	public long statementCacheHits (){ return statementCacheHits.sum(); }
+
+	/** prepareStatement that had to prepare (cache on, but the statement was not cached) since start */
+	public long statementCacheMisses (){ return statementCacheMisses.sum(); }
+
+	/**
+	 Load score (lower is better): recent latency × (in-flight + 1), like "peak EWMA" balancers.
+	 A slow replica (vacuum, backup) gets a high score at once; an idle one decays back to 0 → gets traffic again.
+	 */
+	public double score (long nowNanos) {
+		return (acquireLatency.get(nowNanos) + holdLatency.get(nowNanos)) * (busy() + 1);
+	}
+
+	/**
+	 Peak EWMA with time decay: a sample above the average replaces it (reacts to degradation at once),
+	 smaller samples are averaged with weight by elapsed time; the value decays to 0 without samples.
+	 Lock-free: a lost concurrent update only loses one sample.
+	 */
+	static final class Ewma {
+		/** Decay time: the weight of old value after τ is 1/e */
+		static final double TAU_NANOS = 10e9;
+		private volatile double value;
+		private volatile long stamp = System.nanoTime();
+
+		void add (double sample, long nowNanos) {
+			double v = get(nowNanos);
+			if (sample >= v){
+				value = sample;
+			} else {
+				double w = Math.exp(-Math.max(nowNanos - stamp, 0) / TAU_NANOS);
+				value = value * w + sample * (1 - w);
+			}
+			stamp = nowNanos;
+		}
+
+		double get (long nowNanos){ return value * Math.exp(-Math.max(nowNanos - stamp, 0) / TAU_NANOS); }
+	}
+
+	/**
+	 Counters since the previous reset
+	 @param reset true: start new measurement period (highWaterMark starts from current busy)
+	 */
+	public Counters counters (boolean reset) {
+		if (reset){
+			long hits = hitCount.sumThenReset();
+			long acquireNanos = totalAcquireNanos.sumThenReset();
+			val c = new Counters(
+				(int) highWaterMark.getThenReset(),
+				(int) waitCount.sumThenReset(),
+				(int) hits,
+				maxAcquireNanos.getThenReset() / 1000,
+				hits == 0 ? 0 : acquireNanos / hits,
+				acquireNanos / 1000,
+				totalWaitNanos.sumThenReset() / 1000);
+			highWaterMark.accumulate(busy.get());
+			return c;
+		}
+		long hits = hitCount.sum();
+		long acquireNanos = totalAcquireNanos.sum();
+		return new Counters(
+			(int) highWaterMark.get(),
+			(int) waitCount.sum(),
+			(int) hits,
+			maxAcquireNanos.get() / 1000,
+			hits == 0 ? 0 : acquireNanos / hits,
+			acquireNanos / 1000,
+			totalWaitNanos.sum() / 1000);
+	}
+
+	/** The same meaning as in {@link PoolStatus} */
+	public record Counters (int highWaterMark, int waitCount, int hitCount, long maxAcquireMicros, long meanAcquireNanos,
+		long totalAcquireMicros, long totalWaitMicros) {}
+}
\ No newline at end of file
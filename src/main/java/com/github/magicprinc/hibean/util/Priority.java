@@ -0,0 +1,30 @@
+package com.github.magicprinc.hibean.util;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ Priority of connection borrows of the current thread: health checks and payments before bulk exports.
+ Applies to pools with a {@link PriorityGate}; without {@link #use} a borrow is {@link #NORMAL}.
+
+ @see HikariEbeanDataSourceWrapper#priorityGate(PriorityGate)
+ */
+public enum Priority {
+	/** Served first; may use the connections reserved for high priority */
+	HIGH,
+	NORMAL,
+	/** Served after all others */
+	LOW;
+
+	private static final ThreadLocal<@Nullable Priority> CURRENT = new ThreadLocal<>();
+
+	/** Borrows of the current thread have this priority until {@link PoolContext.Scope#close()} */
+	public static PoolContext.Scope use (Priority priority) {
+		return Scopes.set(CURRENT, priority);
+	}
+
+	/** Priority selected by {@link #use} or {@link #NORMAL} */
+	public static Priority current () {
+		Priority p = CURRENT.get();
+		return p == null ? NORMAL : p;
+	}
+}
@@ -0,0 +1,124 @@
+package com.github.magicprinc.hibean.util;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ Priority admission in front of a pool: Hikari serves waiters in one FIFO, so under saturation a payment waits behind bulk exports.
+ The gate admits at most maximumPoolSize borrows (then Hikari doesn't queue them), a released permit goes to a waiting
+ {@link Priority#HIGH} borrow first, then NORMAL, then LOW; {@link #reserved} permits are admitted to HIGH only.
+
+ Only borrows through the wrapper are counted: direct use of the HikariDataSource bypasses the gate.
+ Config: {@code db.priorityReserved = 2}
+
+ @see Priority#use(Priority)
+ */
+public final class PriorityGate {
+	/** Permits for {@link Priority#HIGH} only; 0 → ordering without reservation */
+	@Getter @Accessors(fluent = true)
+	private final int reserved;
+	/** Current maximumPoolSize (may change: autosize, reload) */
+	private final IntSupplier capacity;
+	private final ReentrantLock lock = new ReentrantLock();
+	/** By {@link Priority#ordinal()} */
+	private final Condition[] released = new Condition[Priority.values().length];
+	private final int[] waiting = new int[released.length];
+	private int used;
+
+	public PriorityGate (int reserved, IntSupplier capacity) {
+		if (reserved < 0){ throw new IllegalArgumentException("PriorityGate: reserved="+ reserved); }
+		this.reserved = reserved;
+		this.capacity = capacity;
+		for (int i = 0; i < released.length; i++){
+			released[i] = lock.newCondition();
+		}
+	}//new
+
+	/**
+	 Takes a permit: at once if there is room for the priority and no higher priority waits
+	 @throws PoolRejectedException no permit within timeout (or interrupted)
+	 */
+	void acquire (Priority priority, long timeoutNanos) throws PoolRejectedException {
+		int p = priority.ordinal();
+		lock.lock();
+		try {
+			long nanos = timeoutNanos;
+			boolean admitted = false;
+			waiting[p]++;
+			try {
+				while (!admissible(p)){
+					if (nanos <= 0){
+						throw new PoolRejectedException("PriorityGate: no connection for "+ priority +" within "
+								+ TimeUnit.NANOSECONDS.toMillis(timeoutNanos) +" ms ("+ used +'/'+ capacity.getAsInt() +" used, "+ reserved +" reserved)");
+					}
+					nanos = released[p].awaitNanos(nanos);
+				}
+				admitted = true;
+			} catch (InterruptedException e){
+				Thread.currentThread().interrupt();
+				throw new PoolRejectedException("PriorityGate: interrupted", e);
+			} finally {
+				waiting[p]--;
+				if (!admitted){ wake(); }// lower priorities may have waited for us only
+			}
+			used++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean admissible (int p) {
+		for (int higher = 0; higher < p; higher++){
+			if (waiting[higher] > 0){ return false; }
+		}
+		int free = capacity.getAsInt() - used;
+		return p == Priority.HIGH.ordinal() ? free > 0 : free > reserved;
+	}
+
+	void release () {
+		lock.lock();
+		try {
+			used--;
+			wake();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** The highest waiting priority re-checks (all its waiters: the pool may have grown) */
+	private void wake () {
+		for (int p = 0; p < released.length; p++){
+			if (waiting[p] > 0){
+				released[p].signalAll();
+				return;
+			}
+		}
+	}
+
+	/** Borrowed through the gate now */
+	public int used () {
+		lock.lock();
+		try {
+			return used;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Borrows of the priority waiting for a permit */
+	public int waiting (Priority priority) {
+		lock.lock();
+		try {
+			return waiting[priority.ordinal()];
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override public String toString (){ return "PriorityGate("+ used() +'/'+ capacity.getAsInt() +", "+ reserved +" reserved for HIGH)"; }
+}
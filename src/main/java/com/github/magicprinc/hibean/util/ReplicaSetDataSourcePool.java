@@ -0,0 +1,494 @@
+package com.github.magicprinc.hibean.util;
+
+import io.ebean.config.DatabaseConfig;
+import io.ebean.datasource.DataSourcePool;
+import io.ebean.datasource.PoolStatus;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.jspecify.annotations.Nullable;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ Read-only {@link DataSourcePool}: routes connections to N replica pools, falls back to the primary if no replica can give a connection.
+
+ {@link Balance Balancing}: round-robin or the lowest {@link PoolStats#score latency score}.
+ A replica that fails to give a connection is ejected for a while (doubling up to {@link #MAX_EJECT_NANOS}),
+ then gets traffic gradually during {@link #SLOW_START_NANOS} (warm-up after a restart, vacuum, backup).
+
+ {@link #hedged Hedged reads} (opt-in, {@code db.hedge = p95}): an idempotent query, that has not returned within the percentile
+ of recent latency, is issued on a second replica too; the first result wins, the loser is cancelled with {@link Statement#cancel()}.
+
+ {@link #monitorLag Replication lag} is measured by a lag query (heartbeat table or platform query) in the background:
+ replicas lagging more than {@link #maxLagMillis} get no reads; after a commit in the same {@link PoolContext} reads go
+ only to replicas caught up with the commit (or to the primary) during {@link #stickinessMillis}.
+
+ Declared with the usual prefix syntax: {@code db.replicas = r1, r2} + {@code r1.url = …}, {@code r2.url = …}
+ (replicas are readOnly by default). It's Ebean's {@link DatabaseConfig#readOnlyDataSource(DataSource)}:
+ {@link HiBeanUtils#database} wires it automatically.
+
+ @see com.github.magicprinc.hibean.HikariEbeanConnectionPoolFactory#replicaSet(String, DataSource)
+ */
+@Slf4j
+public class ReplicaSetDataSourcePool implements DataSourcePool {
+	private final String name;
+	/** Fallback: writes never come here, but reads must not fail if all replicas are down */
+	@Getter @Accessors(fluent = true)
+	private final DataSource primary;
+	@Getter @Accessors(fluent = true)
+	private final List<DataSourcePool> replicas;
+	@Getter @Accessors(fluent = true)
+	private final Balance balance;
+	private final List<Member> members;
+	private final AtomicInteger next = new AtomicInteger();
+
+	static final long BASE_EJECT_NANOS = TimeUnit.SECONDS.toNanos(5);
+	static final long MAX_EJECT_NANOS = TimeUnit.SECONDS.toNanos(60);
+	static final long SLOW_START_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+	/** How to choose a replica: {@code db.balance = round-robin | latency} */
+	public enum Balance {
+		ROUND_ROBIN,
+		/** The lowest {@link PoolStats#score}: EWMA of acquire and hold time × in-flight; replicas without {@link PoolStats} score 0 */
+		LATENCY;
+
+		/** @param value null/blank: ROUND_ROBIN; case and -_ insensitive */
+		public static Balance of (@Nullable String value) {
+			if (value == null || value.isBlank()){ return ROUND_ROBIN; }
+			String v = value.trim().replace("-", "").replace("_", "");
+			for (Balance b : values()){
+				if (b.name().replace("_", "").equalsIgnoreCase(v))
+						return b;
+			}
+			throw new IllegalArgumentException("Unknown replica balance: "+ value +" (round-robin, latency)");
+		}
+	}
+
+	public ReplicaSetDataSourcePool (String name, DataSource primary, List<? extends DataSourcePool> replicas, Balance balance) {
+		if (replicas.isEmpty()){ throw new IllegalArgumentException("ReplicaSet "+ name +" without replicas"); }
+		this.name = name;
+		this.primary = primary;
+		this.replicas = List.copyOf(replicas);
+		this.balance = balance;
+		this.members = this.replicas.stream().map(Member::new).toList();
+	}//new
+
+	public ReplicaSetDataSourcePool (String name, DataSource primary, List<? extends DataSourcePool> replicas){ this(name, primary, replicas, Balance.ROUND_ROBIN); }//new
+
+	/** Hedged reads: percentile of recent latency (0 → off) after which the second replica gets the same query */
+	@Getter @Setter @Accessors(fluent = true)
+	private volatile double hedgePercentile;
+	/** Latencies of successful {@link #hedged} attempts */
+	@Getter @Accessors(fluent = true)
+	private final LatencyWindow latencies = new LatencyWindow(1024);
+	private final LongAdder hedges = new LongAdder();
+	private final LongAdder hedgeWins = new LongAdder();
+	/** Hedging starts after this many samples: the percentile means nothing before */
+	static final int HEDGE_MIN_SAMPLES = 100;
+
+	/** Idempotent read: binds parameters, executes the statement and reads the result */
+	@FunctionalInterface
+	public interface ReadQuery<T> {
+		T execute (PreparedStatement statement) throws SQLException;
+	}
+
+	/** Replicas with known lag above it get no reads; 0 → no limit */
+	@Getter @Setter @Accessors(fluent = true)
+	private volatile long maxLagMillis;
+	/** Read-your-writes window after a commit in the same {@link PoolContext} */
+	@Getter @Setter @Accessors(fluent = true)
+	private volatile long stickinessMillis = 10_000;
+	private volatile @Nullable ScheduledFuture<?> lagTask;
+	private final AtomicBoolean lagProbing = new AtomicBoolean();
+
+	/** Lag of a PostgreSQL standby in millis (0 if it has replayed everything it has received) */
+	public static final String POSTGRESQL_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"+
+			" ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+	/** Health of one replica */
+	static final class Member {
+		final DataSourcePool pool;
+		final @Nullable PoolStats stats;
+		volatile long ejectedUntil;
+		volatile int ejections;
+		/** Last measured replication lag; -1 → unknown */
+		volatile long lagNanos = -1;
+		/** System.nanoTime up to which the replica has replayed the primary (measurement time − lag); valid if lagNanos ≥ 0 */
+		volatile long caughtUpTo;
+
+		Member (DataSourcePool pool) {
+			this.pool = pool;
+			stats = pool instanceof HikariEbeanDataSourceWrapper w ? w.stats() : null;
+		}//new
+
+		boolean ejected (long now){ return ejections > 0 && now - ejectedUntil < 0; }
+
+		/** In slow start: pass with probability growing from 0 to 1 */
+		boolean warm (long now) {
+			if (ejections == 0){ return true; }
+			long elapsed = now - ejectedUntil;
+			if (elapsed >= SLOW_START_NANOS){
+				ejections = 0;// fully re-admitted
+				return true;
+			}
+			return ThreadLocalRandom.current().nextLong(SLOW_START_NANOS) < elapsed;
+		}
+
+		void eject (long now) {
+			int n = Math.min(ejections + 1, 16);
+			ejections = n;
+			ejectedUntil = now + Math.min(BASE_EJECT_NANOS << (n - 1), MAX_EJECT_NANOS);
+		}
+
+		double score (long now){ return stats == null ? 0 : stats.score(now); }
+
+		void lag (long measuredAt, long lag) {
+			caughtUpTo = measuredAt - lag;
+			lagNanos = lag;
+		}
+
+		/** The replica has replayed the primary at least up to the time; unknown lag → false */
+		boolean caughtUp (long nanos){ return lagNanos >= 0 && caughtUpTo - nanos >= 0; }
+	}
+
+	@Override
+	public Connection getConnection () throws SQLException {
+		return connection(candidates(System.nanoTime()));
+	}
+
+	/** Connection of the first candidate that gives one; the primary if none */
+	private Connection connection (List<Member> candidates) throws SQLException {
+		for (val m : candidates){
+			try {
+				return connect(m);
+			} catch (SQLException ignore){
+				// ejected and logged → try the next one
+			}
+		}
+		log.debug("ReplicaSet {}: no replica available, falling back to primary", name);
+		return primary.getConnection();
+	}
+
+	/** Connection of the replica; ejects the replica if it fails (not if the replica's pool has refused: {@link PoolRejectedException}) */
+	private Connection connect (Member m) throws SQLException {
+		try {
+			return m.pool.getConnection();
+		} catch (PoolRejectedException e){
+			log.debug("ReplicaSet {}: replica {} refused a connection ‹ {}", name, m.pool.name(), e.toString());
+			throw e;
+		} catch (SQLException e){
+			m.eject(System.nanoTime());
+			log.warn("ReplicaSet {}: replica {} failed to give a connection, ejected for {} ms ‹ {}",
+					name, m.pool.name(), TimeUnit.NANOSECONDS.toMillis(m.ejectedUntil - System.nanoTime()), e.toString());
+			throw e;
+		}
+	}
+
+	/**
+	 Online, not ejected, fresh enough replicas in the order of preference; warming up ones lose their turn (go last) unless lucky.
+	 Empty → primary
+	 */
+	List<Member> candidates (long now) {
+		int n = members.size();
+		val list = new ArrayList<Member>(n);
+		PoolContext ctx = PoolContext.current();
+		Long writtenAt = ctx == null ? null : ctx.writtenWithin(now, TimeUnit.MILLISECONDS.toNanos(stickinessMillis));
+		long maxLag = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+		int start = Math.floorMod(next.getAndIncrement(), n);
+		for (int i = 0; i < n; i++){
+			val m = members.get((start + i) % n);// round-robin order == tie-break for LATENCY
+			if (!m.pool.isOnline() || m.ejected(now)
+					|| (writtenAt != null && !m.caughtUp(writtenAt))// read-your-writes
+					|| (maxLag > 0 && m.lagNanos > maxLag)){
+				continue;
+			}
+			list.add(m);
+		}
+		if (balance == Balance.LATENCY && list.size() > 1){
+			val scores = new IdentityHashMap<Member,Double>(list.size());
+			for (val m : list){
+				scores.put(m, m.score(now));
+			}
+			list.sort(Comparator.comparingDouble(scores::get));// stable: ties keep round-robin order
+		}
+		val cold = new ArrayList<Member>(0);
+		list.removeIf(m->!m.warm(now) && cold.add(m));
+		list.addAll(cold);
+		return list;
+	}
+
+	/**
+	 Runs an idempotent read on a replica. If hedging is on and the query has not returned within {@link #hedgePercentile}
+	 of recent latency, the same query is started on the next replica; the first successful result wins, the other
+	 statement is cancelled. If one attempt fails, the result of the other one is used.
+	 @param sql of the read (prepared on both replicas)
+	 @param query must be idempotent and must not keep the statement or connection: they are closed after it
+	 */
+	public <T> T hedged (String sql, ReadQuery<T> query) throws SQLException {
+		long now = System.nanoTime();
+		val c = candidates(now);
+		double percentile = hedgePercentile;
+		if (percentile <= 0 || c.size() < 2 || latencies.size() < HEDGE_MIN_SAMPLES){
+			try (Connection con = connection(c);// not getConnection: candidates() once per read, or round-robin skips replicas
+					PreparedStatement ps = con.prepareStatement(sql)){
+				T result = query.execute(ps);
+				latencies.record(System.nanoTime() - now);
+				return result;
+			}
+		}
+		val race = new Race<T>(sql, query);
+		ScheduledFuture<?> timer = PoolExecutors.scheduler().schedule(()->{
+			if (!race.claimHedge()){ return; }// done or failed already
+			hedges.increment();
+			try {
+				PoolExecutors.hedging().execute(()->race.attempt(c.get(1), true));
+			} catch (RejectedExecutionException e){
+				race.failed(null, new SQLException("ReplicaSet "+ name +": no thread for hedged read", e));
+			}
+		}, latencies.percentile(percentile), TimeUnit.NANOSECONDS);
+
+		race.attempt(c.get(0), false);
+		if (race.claimHedge()){// not started: the first attempt has finished
+			timer.cancel(false);
+			if (!race.winner.isDone()){// failed → try the second replica at once
+				race.attempt(c.get(1), false);
+			}
+		}
+		try {
+			return race.winner.join();
+		} catch (CompletionException e){
+			if (e.getCause() instanceof SQLException se){ throw se; }
+			throw e;
+		}
+	}
+
+	/** Hedged reads: started second attempts and the ones of them that won */
+	public long hedges (){ return hedges.sum(); }
+
+	public long hedgeWins (){ return hedgeWins.sum(); }
+
+	/** Two attempts of the same read: first successful result completes {@link #winner} and cancels the other statement */
+	final class Race<T> {
+		final String sql;
+		final ReadQuery<T> query;
+		final CompletableFuture<T> winner = new CompletableFuture<>();
+		/** Unfinished attempts: the first one + the (maybe not started yet) hedge */
+		private final AtomicInteger pending = new AtomicInteger(2);
+		private final AtomicBoolean hedgeClaimed = new AtomicBoolean();
+		private final List<Statement> statements = new CopyOnWriteArrayList<>();
+		private volatile @Nullable SQLException error;
+
+		Race (String sql, ReadQuery<T> query) {
+			this.sql = sql;
+			this.query = query;
+		}//new
+
+		/** The only chance to start the hedge: either the timer or the caller (after its attempt) gets it */
+		boolean claimHedge (){ return hedgeClaimed.compareAndSet(false, true); }
+
+		void attempt (Member m, boolean hedge) {
+			long start = System.nanoTime();
+			try (Connection con = connect(m);
+					PreparedStatement ps = con.prepareStatement(sql)){
+				statements.add(ps);
+				if (winner.isDone()){ return; }// lost before start
+				T result = query.execute(ps);
+				latencies.record(System.nanoTime() - start);
+				if (winner.complete(result)){
+					if (hedge){ hedgeWins.increment(); }
+					for (Statement s : statements){
+						if (s != ps){ cancel(s); }
+					}
+				}
+			} catch (SQLException e){
+				failed(m, e);
+			} catch (RuntimeException e){
+				failed(m, new SQLException(e));
+			}
+		}
+
+		void failed (@Nullable Member m, SQLException e) {
+			if (winner.isDone()){ return; }// the loser was cancelled
+			if (m != null){ log.debug("ReplicaSet {}: read on {} failed ‹ {}", name, m.pool.name(), e.toString()); }
+			SQLException first = error;
+			if (first == null){ error = e; } else { first.addSuppressed(e); }
+			if (pending.decrementAndGet() == 0){
+				winner.completeExceptionally(error);
+			}
+		}
+
+		private void cancel (Statement s) {
+			try {
+				s.cancel();
+			} catch (SQLException | RuntimeException e){
+				log.debug("ReplicaSet {}: cancel of the losing read failed ‹ {}", name, e.toString());
+			}
+		}
+	}
+
+	/**
+	 Measures replication lag of every replica periodically (on the shared scheduler, the queries run on {@link PoolExecutors#bootstrap()})
+	 @param lagQuery returns lag in millis (first column of the first row): a heartbeat table query or {@code postgresql} for {@link #POSTGRESQL_LAG_QUERY}
+	 */
+	public void monitorLag (String lagQuery, long intervalMillis) {
+		String sql = "postgresql".equalsIgnoreCase(lagQuery) || "postgres".equalsIgnoreCase(lagQuery) ? POSTGRESQL_LAG_QUERY : lagQuery;
+		if (intervalMillis <= 0){ throw new IllegalArgumentException("ReplicaSet "+ name +": lag interval "+ intervalMillis); }
+		ScheduledFuture<?> old = lagTask;
+		if (old != null){ old.cancel(false); }
+		lagTask = PoolExecutors.scheduler().scheduleWithFixedDelay(()->{
+			if (lagProbing.compareAndSet(false, true)){// previous probe is still running → skip
+				try {
+					PoolExecutors.bootstrap().execute(()->{
+						try {
+							probeLag(sql);
+						} finally {
+							lagProbing.set(false);
+						}
+					});
+				} catch (RejectedExecutionException e){
+					lagProbing.set(false);
+				}
+			}
+		}, 0, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/** Runs the lag query on every online replica; a failed probe keeps the old measurement (its caughtUpTo doesn't advance) */
+	void probeLag (String sql) {
+		for (val m : members){
+			if (!m.pool.isOnline()){ continue; }
+			long start = System.nanoTime();
+			try (Connection con = m.pool.getConnection();
+					Statement st = con.createStatement();
+					ResultSet rs = st.executeQuery(sql)){
+				if (rs.next()){
+					m.lag(start, Math.max(0, (long) (rs.getDouble(1) * 1_000_000)));
+				}
+			} catch (SQLException | RuntimeException e){
+				log.debug("ReplicaSet {}: lag query on {} failed ‹ {}", name, m.pool.name(), e.toString());
+			}
+		}
+	}
+
+	/** Last measured replication lag of the replica in millis; -1 → unknown */
+	public long lagMillis (DataSourcePool replica) {
+		for (val m : members){
+			if (m.pool == replica){
+				long lag = m.lagNanos;
+				return lag < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(lag);
+			}
+		}
+		throw new IllegalArgumentException("ReplicaSet "+ name +": not a replica: "+ replica);
+	}
+
+	/** Ejected replicas now (for monitoring and tests) */
+	public List<DataSourcePool> ejected () {
+		long now = System.nanoTime();
+		return members.stream().filter(m->m.ejected(now)).map(m->m.pool).toList();
+	}
+
+	@Override
+	public Connection getConnection (String username, String password) throws SQLException {
+		throw new SQLFeatureNotSupportedException("ReplicaSet "+ name +": getConnection(username, password)");
+	}
+
+	@Override public String name (){ return name; }
+
+	@Override public int size (){ return replicas.stream().mapToInt(DataSourcePool::size).sum(); }
+
+	@Override public boolean isAutoCommit (){ return replicas.get(0).isAutoCommit(); }
+
+	@Override public boolean isOnline (){ return replicas.stream().anyMatch(DataSourcePool::isOnline); }
+
+	@Override public boolean isDataSourceUp (){ return replicas.stream().anyMatch(DataSourcePool::isDataSourceUp); }
+
+	@Override
+	public void online () throws SQLException {
+		for (val r : replicas){
+			r.online();
+		}
+	}
+
+	@Override public void offline (){ replicas.forEach(DataSourcePool::offline); }
+
+	/** Replicas only: the primary has its own owner */
+	@Override
+	public void shutdown () {
+		ScheduledFuture<?> task = lagTask;
+		if (task != null){ task.cancel(false); }
+		replicas.forEach(DataSourcePool::shutdown);
+	}
+
+	@Override public @Nullable SQLException dataSourceDownReason (){ return isDataSourceUp() ? null : replicas.get(0).dataSourceDownReason(); }
+
+	/** Every replica */
+	@Override public void setMaxSize (int max){ replicas.forEach(r->r.setMaxSize(max)); }
+
+	/** Sum of replicas' statuses (max of maximums, weighted mean) */
+	@Override
+	public PoolStatus status (boolean reset) {
+		val all = replicas.stream().map(r->r.status(reset)).toList();
+		long hits = all.stream().mapToLong(PoolStatus::hitCount).sum();
+		long meanNanos = hits == 0 ? 0 : all.stream().mapToLong(s->s.meanAcquireNanos() * s.hitCount()).sum() / hits;
+		return new PoolStatus(){
+			@Override public int minSize (){ return all.stream().mapToInt(PoolStatus::minSize).sum(); }
+			@Override public int maxSize (){ return all.stream().mapToInt(PoolStatus::maxSize).sum(); }
+			@Override public int free (){ return all.stream().mapToInt(PoolStatus::free).sum(); }
+			@Override public int busy (){ return all.stream().mapToInt(PoolStatus::busy).sum(); }
+			@Override public int waiting (){ return all.stream().mapToInt(PoolStatus::waiting).sum(); }
+			@Override public int size (){ return all.stream().mapToInt(PoolStatus::size).sum(); }
+			@Override public int highWaterMark (){ return all.stream().mapToInt(PoolStatus::highWaterMark).sum(); }
+			@Override public int waitCount (){ return all.stream().mapToInt(PoolStatus::waitCount).sum(); }
+			@Override public int hitCount (){ return (int) hits; }
+			@Override public long maxAcquireMicros (){ return all.stream().mapToLong(PoolStatus::maxAcquireMicros).max().orElse(0); }
+			@Override public long meanAcquireNanos (){ return meanNanos; }
+			@Override public long totalAcquireMicros (){ return all.stream().mapToLong(PoolStatus::totalAcquireMicros).sum(); }
+			@Override public long totalWaitMicros (){ return all.stream().mapToLong(PoolStatus::totalWaitMicros).sum(); }
+		};
+	}
+
+	@Override public PrintWriter getLogWriter () throws SQLException { return primary.getLogWriter(); }
+
+	@Override public void setLogWriter (PrintWriter out) throws SQLException { primary.setLogWriter(out); }
+
+	@Override public void setLoginTimeout (int seconds) throws SQLException { primary.setLoginTimeout(seconds); }
+
+	@Override public int getLoginTimeout () throws SQLException { return primary.getLoginTimeout(); }
+
+	@Override public Logger getParentLogger () throws SQLFeatureNotSupportedException { return primary.getParentLogger(); }
+
+	@Override  @SuppressWarnings("unchecked")
+	public <T> T unwrap (Class<T> iface) throws SQLException {
+		if (iface.isInstance(this))
+				return (T) this;
+		return primary.unwrap(iface);
+	}
+
+	@Override public boolean isWrapperFor (Class<?> iface) throws SQLException { return iface.isInstance(this) || primary.isWrapperFor(iface); }
+
+	@Override public String toString (){ return "ReplicaSetDataSourcePool("+ name +", "+ balance +": "+ replicas +')'; }
+}
\ No newline at end of file
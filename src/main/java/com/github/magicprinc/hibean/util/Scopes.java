@@ -0,0 +1,21 @@
+package com.github.magicprinc.hibean.util;
+
+import org.jspecify.annotations.Nullable;
+
+/** Thread-bound settings ({@link Lane#use}, {@link Priority#use}, {@link Deadline#at}, {@link PoolContext#bind}): set now, restored on close */
+final class Scopes {
+	private Scopes (){}//new
+
+	/** Sets the value of the current thread until {@link PoolContext.Scope#close()}: the previous one (if any) is restored then */
+	static <T> PoolContext.Scope set (ThreadLocal<@Nullable T> local, T value) {
+		T previous = local.get();
+		local.set(value);
+		return ()->{
+			if (previous == null){
+				local.remove();
+			} else {
+				local.set(previous);
+			}
+		};
+	}
+}
@@ -0,0 +1,83 @@
+package com.github.magicprinc.hibean.util;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ LRU cache of idle prepared statements of one physical connection: parse/prepare once per connection, not once per borrow.
+ Statements are prepared on the physical connection (not on Hikari's proxy, which closes its statements on return);
+ a checked-out statement is not in the cache: the same SQL used twice at once gets a second (uncached) statement.
+
+ Not thread-safe: a physical connection has one borrower at a time (Hikari's hand-off is the memory barrier).
+ Statements die with the physical connection; the cache of a closed connection is evicted by {@link HikariEbeanDataSourceWrapper}.
+ */
+final class StatementCache {
+	/** SQL text + result set type and concurrency + generated keys mode */
+	record Key (String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) {
+		Key (String sql){ this(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS); }//new
+	}
+
+	@Getter @Accessors(fluent = true)
+	private final Connection physical;
+	private final int maxSize;
+	private final PoolStats stats;
+	/** Access order: the eldest is the least recently used */
+	private final LinkedHashMap<Key,PreparedStatement> idle = new LinkedHashMap<>(32, 0.75f, true);
+
+	StatementCache (Connection physical, int maxSize, PoolStats stats) {
+		this.physical = physical;
+		this.maxSize = maxSize;
+		this.stats = stats;
+	}//new
+
+	/** Cached statement or a new one prepared on the physical connection */
+	PreparedStatement take (Key key) throws SQLException {
+		PreparedStatement ps = idle.remove(key);
+		if (ps != null && !ps.isClosed()){
+			stats.statementCacheHit();
+			return ps;
+		}
+		stats.statementCacheMiss();
+		if (key.autoGeneratedKeys() != Statement.NO_GENERATED_KEYS){
+			return physical.prepareStatement(key.sql(), key.autoGeneratedKeys());
+		}
+		return physical.prepareStatement(key.sql(), key.resultSetType(), key.resultSetConcurrency());
+	}
+
+	/** Returned statement: cached, unless the same SQL is already cached; the least recently used one is closed over maxSize */
+	void put (Key key, PreparedStatement ps) throws SQLException {
+		if (idle.putIfAbsent(key, ps) != null){
+			ps.close();
+			return;
+		}
+		if (idle.size() > maxSize){
+			Iterator<Map.Entry<Key,PreparedStatement>> it = idle.entrySet().iterator();
+			PreparedStatement eldest = it.next().getValue();
+			it.remove();
+			eldest.close();
+		}
+	}
+
+	/** The physical connection is closed: so are the statements (quietly, the driver has most likely closed them already) */
+	void close () {
+		for (PreparedStatement ps : idle.values()){
+			try {
+				ps.close();
+			} catch (SQLException ignore){}
+		}
+		idle.clear();
+	}
+
+	int size (){ return idle.size(); }
+
+	@Override public String toString (){ return "StatementCache("+ idle.size() +'/'+ maxSize +')'; }
+}
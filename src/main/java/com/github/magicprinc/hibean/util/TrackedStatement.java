@@ -0,0 +1,104 @@
+package com.github.magicprinc.hibean.util;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ Statement of a {@link HikariEbeanConnection}: an update (executeUpdate, executeBatch, an execute without a result set)
+ is reported to the connection, so only a commit of written data is remembered for read-your-writes ({@link PoolContext}).
+ */
+class TrackedStatement<S extends Statement> implements Statement {
+	protected final HikariEbeanConnection owner;
+	/** Hikari's proxy statement */
+	@Getter @Accessors(fluent = true)
+	protected final S delegate;
+
+	TrackedStatement (HikariEbeanConnection owner, S delegate) {
+		this.owner = owner;
+		this.delegate = delegate;
+	}//new
+
+	/** execute: false → an update count (or nothing), not a result set */
+	protected boolean executed (boolean resultSet) throws SQLException {
+		if (!resultSet)
+				owner.wrote();
+		return resultSet;
+	}
+
+	@Override public Connection getConnection (){ return owner; }
+	@Override public ResultSet executeQuery (String sql) throws SQLException { return delegate.executeQuery(sql); }
+	@Override public int executeUpdate (String sql) throws SQLException { owner.wrote(); return delegate.executeUpdate(sql); }
+	@Override public void close () throws SQLException { delegate.close(); }
+	@Override public int getMaxFieldSize () throws SQLException { return delegate.getMaxFieldSize(); }
+	@Override public void setMaxFieldSize (int max) throws SQLException { delegate.setMaxFieldSize(max); }
+	@Override public int getMaxRows () throws SQLException { return delegate.getMaxRows(); }
+	@Override public void setMaxRows (int max) throws SQLException { delegate.setMaxRows(max); }
+	@Override public void setEscapeProcessing (boolean enable) throws SQLException { delegate.setEscapeProcessing(enable); }
+	@Override public int getQueryTimeout () throws SQLException { return delegate.getQueryTimeout(); }
+	@Override public void setQueryTimeout (int seconds) throws SQLException { delegate.setQueryTimeout(seconds); }
+	@Override public void cancel () throws SQLException { delegate.cancel(); }
+	@Override public SQLWarning getWarnings () throws SQLException { return delegate.getWarnings(); }
+	@Override public void clearWarnings () throws SQLException { delegate.clearWarnings(); }
+	@Override public void setCursorName (String name) throws SQLException { delegate.setCursorName(name); }
+	@Override public boolean execute (String sql) throws SQLException { return executed(delegate.execute(sql)); }
+	@Override public ResultSet getResultSet () throws SQLException { return delegate.getResultSet(); }
+	@Override public int getUpdateCount () throws SQLException { return delegate.getUpdateCount(); }
+	@Override public boolean getMoreResults () throws SQLException { return delegate.getMoreResults(); }
+	@Override public void setFetchDirection (int direction) throws SQLException { delegate.setFetchDirection(direction); }
+	@Override public int getFetchDirection () throws SQLException { return delegate.getFetchDirection(); }
+	@Override public void setFetchSize (int rows) throws SQLException { delegate.setFetchSize(rows); }
+	@Override public int getFetchSize () throws SQLException { return delegate.getFetchSize(); }
+	@Override public int getResultSetConcurrency () throws SQLException { return delegate.getResultSetConcurrency(); }
+	@Override public int getResultSetType () throws SQLException { return delegate.getResultSetType(); }
+	@Override public void addBatch (String sql) throws SQLException { delegate.addBatch(sql); }
+	@Override public void clearBatch () throws SQLException { delegate.clearBatch(); }
+	@Override public int[] executeBatch () throws SQLException { owner.wrote(); return delegate.executeBatch(); }
+	@Override public boolean getMoreResults (int current) throws SQLException { return delegate.getMoreResults(current); }
+	@Override public ResultSet getGeneratedKeys () throws SQLException { return delegate.getGeneratedKeys(); }
+	@Override public int executeUpdate (String sql, int autoGeneratedKeys) throws SQLException { owner.wrote(); return delegate.executeUpdate(sql, autoGeneratedKeys); }
+	@Override public int executeUpdate (String sql, int[] columnIndexes) throws SQLException { owner.wrote(); return delegate.executeUpdate(sql, columnIndexes); }
+	@Override public int executeUpdate (String sql, String[] columnNames) throws SQLException { owner.wrote(); return delegate.executeUpdate(sql, columnNames); }
+	@Override public boolean execute (String sql, int autoGeneratedKeys) throws SQLException { return executed(delegate.execute(sql, autoGeneratedKeys)); }
+	@Override public boolean execute (String sql, int[] columnIndexes) throws SQLException { return executed(delegate.execute(sql, columnIndexes)); }
+	@Override public boolean execute (String sql, String[] columnNames) throws SQLException { return executed(delegate.execute(sql, columnNames)); }
+	@Override public int getResultSetHoldability () throws SQLException { return delegate.getResultSetHoldability(); }
+	@Override public boolean isClosed () throws SQLException { return delegate.isClosed(); }
+	@Override public void setPoolable (boolean poolable) throws SQLException { delegate.setPoolable(poolable); }
+	@Override public boolean isPoolable () throws SQLException { return delegate.isPoolable(); }
+	@Override public void closeOnCompletion () throws SQLException { delegate.closeOnCompletion(); }
+	@Override public boolean isCloseOnCompletion () throws SQLException { return delegate.isCloseOnCompletion(); }
+	@Override public long getLargeUpdateCount () throws SQLException { return delegate.getLargeUpdateCount(); }
+	@Override public void setLargeMaxRows (long max) throws SQLException { delegate.setLargeMaxRows(max); }
+	@Override public long getLargeMaxRows () throws SQLException { return delegate.getLargeMaxRows(); }
+	@Override public long[] executeLargeBatch () throws SQLException { owner.wrote(); return delegate.executeLargeBatch(); }
+	@Override public long executeLargeUpdate (String sql) throws SQLException { owner.wrote(); return delegate.executeLargeUpdate(sql); }
+	@Override public long executeLargeUpdate (String sql, int autoGeneratedKeys) throws SQLException { owner.wrote(); return delegate.executeLargeUpdate(sql, autoGeneratedKeys); }
+	@Override public long executeLargeUpdate (String sql, int[] columnIndexes) throws SQLException { owner.wrote(); return delegate.executeLargeUpdate(sql, columnIndexes); }
+	@Override public long executeLargeUpdate (String sql, String[] columnNames) throws SQLException { owner.wrote(); return delegate.executeLargeUpdate(sql, columnNames); }
+	@Override public String enquoteLiteral (String val) throws SQLException { return delegate.enquoteLiteral(val); }
+	@Override public String enquoteIdentifier (String identifier, boolean alwaysQuote) throws SQLException { return delegate.enquoteIdentifier(identifier, alwaysQuote); }
+	@Override public boolean isSimpleIdentifier (String identifier) throws SQLException { return delegate.isSimpleIdentifier(identifier); }
+	@Override public String enquoteNCharLiteral (String val) throws SQLException { return delegate.enquoteNCharLiteral(val); }
+
+	@Override  @SuppressWarnings("unchecked")
+	public <T> T unwrap (Class<T> iface) throws SQLException {
+		if (iface.isInstance(this))
+				return (T) this;
+		if (iface.isInstance(delegate))
+				return (T) delegate;
+		return delegate.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor (Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+	}
+
+	@Override public String toString (){ return getClass().getSimpleName() +'('+ delegate +')'; }
+}
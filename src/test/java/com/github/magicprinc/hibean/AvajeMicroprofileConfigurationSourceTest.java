@@ -0,0 +1,107 @@
+package com.github.magicprinc.hibean;
+
+import io.avaje.config.Configuration;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see AvajeMicroprofileConfigurationSource */
+@Slf4j
+class AvajeMicroprofileConfigurationSourceTest {
+	static {
+		SmartConfigTest.configureSmallRyeConfig();
+	}
+
+	/** Avaje Configuration that records putAll / setProperty / clearProperty */
+	static Configuration recording (Map<String,String> dst) {
+		return (Configuration) Proxy.newProxyInstance(Configuration.class.getClassLoader(), new Class<?>[]{Configuration.class}, (proxy, method, args)->{
+			switch (method.getName()){
+				case "putAll" -> ((Map<?,?>) args[0]).forEach((k, v)->dst.put(k.toString(), v.toString()));
+				case "setProperty" -> dst.put(args[0].toString(), args[1].toString());
+				case "clearProperty" -> dst.remove(args[0].toString());
+				case "hashCode" -> { return System.identityHashCode(proxy); }
+				case "equals" -> { return proxy == args[0]; }
+				case "toString" -> { return "RecordingConfiguration"+ dst.keySet(); }
+				default -> {}
+			}
+			return null;
+		});
+	}
+
+	@Test
+	void prefixFilterAndRefresh () {
+		val avaje = new HashMap<String,String>();
+		SmartConfigTest.PROPERTIES.put("ebean.hikari.avaje-prefixes", "datasource.mix., ebean.hikari.");
+		SmartConfigTest.PROPERTIES.put("datasource.mix.avajeTest", "1");
+		try {
+			val source = new AvajeMicroprofileConfigurationSource();
+			source.load(recording(avaje));
+			assertEquals("jdbc:h2:mem:testMix", avaje.get("datasource.mix.url"));
+			assertEquals("1", avaje.get("datasource.mix.avajeTest"));
+			assertFalse(avaje.containsKey("extra.idle-timeOut"));// filtered out
+			assertTrue(avaje.keySet().stream().allMatch(k->k.startsWith("datasource.mix.") || k.startsWith("ebean.hikari.")), avaje::toString);
+
+			assertEquals(0, AvajeMicroprofileConfigurationSource.refreshLoaded());// nothing has changed
+
+			SmartConfigTest.PROPERTIES.put("datasource.mix.avajeTest", "2");
+			SmartConfigTest.PROPERTIES.put("datasource.mix.avajeTest2", "3");
+			assertEquals(2, AvajeMicroprofileConfigurationSource.refreshLoaded());
+			assertEquals("2", avaje.get("datasource.mix.avajeTest"));
+			assertEquals("3", avaje.get("datasource.mix.avajeTest2"));
+
+			SmartConfigTest.PROPERTIES.remove("datasource.mix.avajeTest2");
+			assertEquals(1, AvajeMicroprofileConfigurationSource.refreshLoaded());
+			assertFalse(avaje.containsKey("datasource.mix.avajeTest2"));
+		} finally {
+			SmartConfigTest.PROPERTIES.remove("ebean.hikari.avaje-prefixes");
+			SmartConfigTest.PROPERTIES.remove("datasource.mix.avajeTest");
+			SmartConfigTest.PROPERTIES.remove("datasource.mix.avajeTest2");
+		}
+	}
+
+	/** Not a JMH benchmark: a rough startup/heap comparison of full copy vs prefix filter with 5000 env-var-like keys */
+	@Test
+	void benchmark () {
+		for (int i = 0; i < 5000; i++){
+			SmartConfigTest.PROPERTIES.put("BENCH_ENV_VAR_"+ i, "value of some environment variable #"+ i);
+		}
+		try {
+			List<String> prefixes = List.of("ebean.", "datasource.");
+			for (int warmUp = 0; warmUp < 5; warmUp++){
+				AvajeMicroprofileConfigurationSource.properties(List.of());
+				AvajeMicroprofileConfigurationSource.properties(prefixes);
+			}
+			val full = measure("full copy", ()->AvajeMicroprofileConfigurationSource.properties(List.of()));
+			val filtered = measure("prefix filter", ()->AvajeMicroprofileConfigurationSource.properties(prefixes));
+
+			assertTrue(full.size() > 5000, ()->"full: "+ full.size());
+			assertTrue(filtered.size() < 500, ()->"filtered: "+ filtered.size());
+			assertFalse(filtered.containsKey("BENCH_ENV_VAR_1"));
+			assertEquals("jdbc:h2:mem:testMix", filtered.get("datasource.mix.url"));
+		} finally {
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("BENCH_ENV_VAR_"));
+		}
+	}
+
+	static Map<String,String> measure (String name, Supplier<Map<String,String>> task) {
+		val threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long tid = Thread.currentThread().getId();
+		long bytes = threads.getThreadAllocatedBytes(tid);
+		long t = System.nanoTime();
+		val result = task.get();
+		t = System.nanoTime() - t;
+		bytes = threads.getThreadAllocatedBytes(tid) - bytes;
+		log.info("{}: {} entries, {} µs, {} KiB allocated", name, result.size(), t / 1000, bytes / 1024);
+		return result;
+	}
+}
\ No newline at end of file
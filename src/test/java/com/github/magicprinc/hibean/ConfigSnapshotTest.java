@@ -0,0 +1,49 @@
+package com.github.magicprinc.hibean;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see ConfigSnapshot */
+class ConfigSnapshotTest {
+	static {
+		SmartConfigTest.configureSmallRyeConfig();
+	}
+
+	@Test
+	void sharedAndRangeScan () {
+		SmartConfigTest.PROPERTIES.clear();
+		var s1 = ConfigSnapshot.shared();
+		assertSame(s1, ConfigSnapshot.shared());// keys haven't changed
+		assertTrue(s1.startingWith("snaptest.").isEmpty());
+
+		SmartConfigTest.PROPERTIES.put("snapTest.Max-Size", "5");
+		var s2 = ConfigSnapshot.shared();
+		assertNotSame(s1, s2);
+		assertEquals("[snaptest.max-size]", s2.startingWith("snaptest.").keySet().toString());
+		assertEquals("snapTest.Max-Size", s2.startingWith("snaptest.").firstEntry().getValue().get(0).clean());
+		assertTrue(s2.startingWith("snaptest.max-size.").isEmpty());
+
+		SmartConfigTest.PROPERTIES.remove("snapTest.Max-Size");
+		SmartConfigTest.PROPERTIES.put("snapTest.Min-Idle", "1");// renamed: the same number of keys
+		var s3 = ConfigSnapshot.shared();
+		assertNotSame(s2, s3);
+		assertTrue(s3.startingWith("snaptest.").containsKey("snaptest.min-idle"));
+		SmartConfigTest.PROPERTIES.clear();
+	}
+
+	@Test
+	void batchChecksKeysOnce () {
+		SmartConfigTest.PROPERTIES.clear();
+		var outer = ConfigSnapshot.shared();
+		var inner = ConfigSnapshot.batch(()->{
+			SmartConfigTest.PROPERTIES.put("batchTest.url", "jdbc:h2:mem:batchTest");
+			assertSame(ConfigSnapshot.batch(ConfigSnapshot::shared), ConfigSnapshot.shared());// nested: the same batch
+			return ConfigSnapshot.shared();// not checked again within the batch
+		});
+		assertSame(outer, inner);
+		assertTrue(ConfigSnapshot.shared().startingWith("batchtest.").containsKey("batchtest.url"));// checked after the batch
+		SmartConfigTest.PROPERTIES.clear();
+	}
+}
\ No newline at end of file
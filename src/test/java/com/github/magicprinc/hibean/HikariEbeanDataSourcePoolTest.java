@@ -1,21 +1,40 @@
 package com.github.magicprinc.hibean;
 
+import com.github.magicprinc.hibean.util.HikariEbeanDataSourceWrapper;
+import com.github.magicprinc.hibean.util.Lane;
+import com.github.magicprinc.hibean.util.ReplicaSetDataSourcePool;
+import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.UtilityElf;
 import io.ebean.DB;
 import io.ebean.Database;
 import io.ebean.SqlRow;
 import io.ebean.datasource.DataSourceConfig;
 import io.ebean.datasource.DataSourceFactory;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 
+import javax.management.ObjectName;
 import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -140,6 +159,22 @@ class HikariEbeanDataSourcePoolTest {
     }
   }
 
+	@Test
+	void longestPrefixWins () {
+		SmartConfigTest.PROPERTIES.put("spring.datasource.prefixWins.url", "jdbc:h2:mem:spring");
+		SmartConfigTest.PROPERTIES.put("prefixWins.url", "jdbc:h2:mem:short");
+		SmartConfigTest.PROPERTIES.put("datasource.prefixWins.url", "jdbc:h2:mem:datasource");
+		SmartConfigTest.PROPERTIES.put("prefixWins.maximum-pool-size", "3");
+		SmartConfigTest.PROPERTIES.put("spring.datasource.prefixWins.hikari.maximum-pool-size", "7");
+		try {
+			val p = HikariEbeanDataSourcePool.resolve("prefixWins", null).properties();
+			assertEquals("jdbc:h2:mem:spring", p.getProperty("jdbcUrl"));// the most specific prefix, whatever the config order
+			assertEquals("7", p.getProperty("maximum-pool-size"));
+		} finally {
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.toLowerCase(Locale.ROOT).contains("prefixwins."));
+		}
+	}
+
   @Test
 	void _emptyPropertyIsNotAbsentProperty () {
     System.setProperty("fake_empty_prop", "");
@@ -270,4 +305,425 @@ class HikariEbeanDataSourcePoolTest {
 		SqlRow row = db.sqlQuery("select 1 as AAa,2 as Bbb").findOne();
 		assertEquals("{aaa=1, bbb=2}", row.toString());
 	}
+
+	@Test
+	void reload () throws SQLException {
+		SmartConfigTest.PROPERTIES.put("reloadTest.url", "jdbc:h2:mem:reloadTest");
+		SmartConfigTest.PROPERTIES.put("reloadTest.maximum-pool-size", "5");
+		SmartConfigTest.PROPERTIES.put("reloadTest.reload-interval", "1h");// manual reload() below
+		val pool = (HikariEbeanDataSourcePool) DataSourceFactory.create("reloadTest", new DataSourceConfig());
+		try {
+			HikariDataSource hds = pool.unwrap(null);
+			assertEquals(5, hds.getMaximumPoolSize());
+			assertSame(HikariEbeanDataSourceWrapper.ReloadResult.NONE, pool.reload());// nothing has changed
+
+			SmartConfigTest.PROPERTIES.put("reloadTest.maximum-pool-size", "9");
+			SmartConfigTest.PROPERTIES.put("reloadTest.leakDetectionThreshold", "5s");
+			SmartConfigTest.PROPERTIES.put("reloadTest.url", "jdbc:h2:mem:reloadTest2");
+			val result = pool.reload();
+			assertTrue(result.changed());
+			assertEquals(List.of("maximumPoolSize", "leakDetectionThreshold"), result.applied());
+			assertEquals(List.of("jdbcUrl"), result.requiresRebuild());
+			assertEquals(9, hds.getMaximumPoolSize());
+			assertEquals(5000, hds.getLeakDetectionThreshold());
+			assertEquals("jdbc:h2:mem:reloadTest", hds.getJdbcUrl());// requires rebuild
+
+			assertSame(HikariEbeanDataSourceWrapper.ReloadResult.NONE, pool.reload());
+		} finally {
+			pool.shutdown();
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("reloadTest."));
+		}
+	}
+
+	@Test
+	void replacementConfigIsDecorated () {
+		val fresh = new HikariConfig();// a reload's hot-swap config gets what createDataSource gives the first pool
+		HikariEbeanDataSourcePool.decorate(fresh);
+		assertSame(Metrics.globalRegistry, fresh.getMetricRegistry());
+	}
+
+	@Test
+	void hotSwap () throws Exception {
+		val hc = new HikariConfig();
+		hc.setJdbcUrl("jdbc:h2:mem:hotSwapOld");
+		hc.setPoolName("hotSwap");
+		val meters = new SimpleMeterRegistry();
+		hc.setMetricRegistry(meters);
+		hc.setRegisterMbeans(true);
+		val pool = new HikariEbeanDataSourceWrapper(new HikariDataSource(hc));
+		try {
+			val old = pool.getHikariDataSource();
+			val borrowed = pool.getConnection();
+			val pools = new HashSet<>(Set.of(pool));
+
+			val fresh = new HikariConfig();
+			fresh.setJdbcUrl("jdbc:h2:mem:hotSwapNew");
+			fresh.setMinimumIdle(3);
+			assertSame(pool, pool.hotSwap(fresh, 60_000).join());
+			assertNotSame(old, pool.getHikariDataSource());
+			assertEquals("hotSwap", pool.name());
+			assertEquals("hotSwap", pool.getHikariDataSource().getPoolName());
+			assertNull(pool.getHikariDataSource().getMetricRegistry());// the old pool still runs: meters and MBeans are its own
+			assertTrue(pools.contains(pool));// identity doesn't change with the Hikari pool
+			assertTrue(pool.size() >= 3, "warm");
+			try (Connection con = pool.getConnection()){
+				assertEquals("jdbc:h2:mem:hotSwapNew", con.getMetaData().getURL());
+			}
+
+			assertFalse(old.isClosed());// a connection is still borrowed
+			assertEquals("jdbc:h2:mem:hotSwapOld", borrowed.getMetaData().getURL());
+			borrowed.close();
+			for (int i = 0; i < 100 && !old.isClosed(); i++){
+				UtilityElf.quietlySleep(20);
+			}
+			assertTrue(old.isClosed());
+			val mbean = new ObjectName("com.zaxxer.hikari:type=Pool (hotSwap)");
+			for (int i = 0; i < 250 && meters.find("hikaricp.connections").tag("pool", "hotSwap").gauge() == null; i++){
+				UtilityElf.quietlySleep(20);
+			}
+			assertNotNull(meters.find("hikaricp.connections").tag("pool", "hotSwap").gauge());// moved over to the new pool
+			assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(mbean));
+
+			val wrong = new HikariConfig();
+			wrong.setJdbcUrl("jdbc:h2:mem:hotSwapWrong;IFEXISTS=TRUE");// no such database
+			wrong.setInitializationFailTimeout(-1);
+			wrong.setConnectionTimeout(250);
+			assertThrows(CompletionException.class, ()->pool.hotSwap(wrong, 0).join());
+			try (Connection con = pool.getConnection()){// still the working pool
+				assertEquals("jdbc:h2:mem:hotSwapNew", con.getMetaData().getURL());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName("com.zaxxer.hikari:type=Pool (hotSwap)")));
+	}
+
+	@Test
+	void drainOnShutdown () throws Exception {
+		val hc = new HikariConfig();
+		hc.setJdbcUrl("jdbc:h2:mem:drainTest");
+		hc.setPoolName("drainTest");
+		val pool = new HikariEbeanDataSourceWrapper(new HikariDataSource(hc)).drainTimeoutMillis(5000);
+		val inFlight = pool.getConnection();
+		val shutdown = CompletableFuture.runAsync(pool::shutdown);
+		for (int i = 0; i < 100 && !pool.draining(); i++){
+			UtilityElf.quietlySleep(10);
+		}
+		assertTrue(pool.draining());
+		assertThrows(SQLTransientConnectionException.class, pool::getConnection);// new borrows are rejected
+
+		try (ResultSet rs = inFlight.createStatement().executeQuery("select 1")){// the in-flight work completes
+			assertTrue(rs.next());
+		}
+		assertFalse(shutdown.isDone());
+		inFlight.close();
+		shutdown.get(2, TimeUnit.SECONDS);
+		assertTrue(pool.getHikariDataSource().isClosed());
+
+		val stuck = new HikariEbeanDataSourceWrapper(new HikariDataSource(hc));
+		stuck.getConnection();// never returned
+		assertFalse(stuck.drain(100));
+		stuck.shutdown();
+		assertTrue(stuck.getHikariDataSource().isClosed());
+	}
+
+	@Test
+	void lazyAndHibernation () throws SQLException {
+		SmartConfigTest.PROPERTIES.put("lazyTest.url", "jdbc:h2:mem:lazyTest");
+		SmartConfigTest.PROPERTIES.put("lazyTest.minimum-idle", "2");
+		SmartConfigTest.PROPERTIES.put("lazyTest.lazy", "true");
+		SmartConfigTest.PROPERTIES.put("lazyTest.hibernate-after", "300ms");
+		val pool = (HikariEbeanDataSourcePool) DataSourceFactory.create("lazyTest", new DataSourceConfig());
+		try {
+			assertTrue(pool.hibernated());// no connections, no threads
+			assertTrue(pool.isOnline());
+			assertEquals(0, pool.size());
+			assertEquals(0, pool.status(false).free());
+
+			try (Connection con = pool.getConnection()){// starts the pool
+				assertFalse(pool.hibernated());
+				assertFalse(pool.hibernate());// in use
+				assertTrue(con.isValid(1));
+			}
+			val started = pool.getHikariDataSource();
+			String name = pool.name();
+			for (int i = 0; i < 100 && !pool.hibernated(); i++){
+				UtilityElf.quietlySleep(20);
+			}
+			assertTrue(pool.hibernated());
+			assertNotSame(started, pool.getHikariDataSource());
+			assertEquals(name, pool.name());
+			assertEquals(name, pool.getHikariDataSource().getPoolName());
+			assertEquals(2, pool.getHikariDataSource().getMinimumIdle());// the same config
+
+			try (Connection con = pool.getConnection()){// wakes up
+				assertTrue(con.isValid(1));
+			}
+			assertFalse(pool.hibernated());
+		} finally {
+			pool.shutdown();
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("lazyTest."));
+		}
+	}
+
+	@Test
+	void asyncBootstrap () throws SQLException {
+		SmartConfigTest.PROPERTIES.put("asyncTest.url", "jdbc:h2:mem:asyncTest");
+		SmartConfigTest.PROPERTIES.put("asyncTest.async", "true");
+		val pool = (HikariEbeanDataSourcePool) DataSourceFactory.create("asyncTest", new DataSourceConfig());
+		try {
+			assertSame(pool, pool.ready().join());
+			assertTrue(pool.getHikariDataSource().isRunning());
+			assertTrue(pool.size() >= 1);
+
+			try (Connection con = pool.getConnection(); ResultSet rs = con.createStatement().executeQuery("select 42")){
+				assertTrue(rs.next());
+				assertEquals(42, rs.getInt(1));
+			}
+		} finally {
+			pool.shutdown();
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("asyncTest."));
+		}
+	}
+
+	@Test
+	void asyncBootstrapFailure () {
+		SmartConfigTest.PROPERTIES.put("asyncFail.url", "jdbc:h2:tcp://127.0.0.1:1/nowhere");// nothing listens there
+		SmartConfigTest.PROPERTIES.put("asyncFail.async", "true");
+		SmartConfigTest.PROPERTIES.put("asyncFail.connectionTimeout", "250");
+		val pool = (HikariEbeanDataSourcePool) DataSourceFactory.create("asyncFail", new DataSourceConfig());
+		try {
+			assertThrows(CompletionException.class, ()->pool.ready().join());
+			assertFalse(pool.isOnline());
+			assertEquals(0, pool.size());// not CompletionException on every call
+			assertEquals(0, pool.status(false).size());
+			pool.offline();
+			pool.online();
+			assertThrows(SQLException.class, pool::getConnection);
+		} finally {
+			pool.shutdown();
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("asyncFail."));
+		}
+	}
+
+	@Test
+	void statusDoesNotWaitForAsyncStart () throws Exception {
+		try (val silent = new ServerSocket(0)){// connects, never answers: the start hangs
+			SmartConfigTest.PROPERTIES.put("asyncSlow.url", "jdbc:h2:tcp://127.0.0.1:"+ silent.getLocalPort() +"/slow");
+			SmartConfigTest.PROPERTIES.put("asyncSlow.async", "true");
+			val pool = (HikariEbeanDataSourcePool) DataSourceFactory.create("asyncSlow", new DataSourceConfig());
+			try {
+				long start = System.nanoTime();
+				assertEquals(0, pool.size());
+				assertEquals(0, pool.status(false).busy());
+				assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "no wait for the start");
+				assertFalse(pool.ready().isDone());
+			} finally {
+				pool.shutdown();
+				SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("asyncSlow."));
+			}
+		}
+	}
+
+	@Test
+	void badOwnSettingStartsNothing () {
+		SmartConfigTest.PROPERTIES.put("badOwn.url", "jdbc:h2:mem:badOwn");
+		SmartConfigTest.PROPERTIES.put("badOwn.minimumIdle", "1");
+		SmartConfigTest.PROPERTIES.put("badOwn.reloadInterval", "1000");
+		try {
+			SmartConfigTest.PROPERTIES.put("badOwn.autosize", "8..2");
+			assertThrows(IllegalArgumentException.class, ()->DataSourceFactory.create("badOwn", new DataSourceConfig()));
+			SmartConfigTest.PROPERTIES.put("badOwn.autosize", "2..8");
+			SmartConfigTest.PROPERTIES.put("badOwn.group", "badOwnGroup");// no ebean.hikari.group.badOwnGroup budget
+			assertThrows(IllegalArgumentException.class, ()->DataSourceFactory.create("badOwn", new DataSourceConfig()));
+			SmartConfigTest.PROPERTIES.remove("badOwn.group");
+			SmartConfigTest.PROPERTIES.put("badOwn.statementCacheSize", "many");
+			assertThrows(NumberFormatException.class, ()->DataSourceFactory.create("badOwn", new DataSourceConfig()));
+			// no pool was started: nothing keeps the in-memory database open
+			assertThrows(SQLException.class, ()->DriverManager.getConnection("jdbc:h2:mem:badOwn;IFEXISTS=TRUE").close());
+		} finally {
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("badOwn."));
+		}
+	}
+
+	@Test
+	void acquisitionStatistics () throws SQLException {
+		val pool = (HikariEbeanDataSourcePool) DataSourceFactory.create("statsTest", new DataSourceConfig()
+			.setUrl("jdbc:h2:mem:statsTest").setMinConnections(1).setMaxConnections(3));
+		try {
+			Connection c1 = pool.getConnection();
+			Connection c2 = pool.getConnection();
+			Connection c3 = pool.getConnection();
+			c1.close();
+			c1.close();// idempotent
+			c2.close();
+			assertTrue(c1.isClosed());
+			assertSame(c3, c3.unwrap(Connection.class));
+
+			var status = pool.status(true);
+			assertEquals(3, status.hitCount());
+			assertEquals(3, status.highWaterMark());
+			assertTrue(status.waitCount() >= 2, status::toString);// min=1: the 2nd and 3rd connections are new ones
+			assertTrue(status.totalAcquireMicros() >= status.maxAcquireMicros(), status::toString);
+			assertTrue(status.totalAcquireMicros() >= status.totalWaitMicros(), status::toString);
+			assertTrue(status.meanAcquireNanos() > 0, status::toString);
+
+			status = pool.status(false);// after reset
+			assertEquals(0, status.hitCount());
+			assertEquals(0, status.waitCount());
+			assertEquals(1, status.highWaterMark());// c3 is still busy
+			c3.close();
+			assertEquals(0, pool.stats().busy());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void replicaSet () throws SQLException {
+		SmartConfigTest.PROPERTIES.put("replicaTest.url", "jdbc:h2:mem:replicaPrimary");
+		SmartConfigTest.PROPERTIES.put("replicaTest.replicas", "replicaTest_r1, replicaTest_r2");
+		SmartConfigTest.PROPERTIES.put("replicaTest_r1.url", "jdbc:h2:mem:replica1");
+		SmartConfigTest.PROPERTIES.put("replicaTest_r1.allow-pool-suspension", "true");
+		SmartConfigTest.PROPERTIES.put("replicaTest_r2.url", "jdbc:h2:mem:replica2");
+		SmartConfigTest.PROPERTIES.put("replicaTest_r2.allow-pool-suspension", "true");
+		val primary = (HikariEbeanDataSourcePool) DataSourceFactory.create("replicaTest", new DataSourceConfig());
+		val set = HikariEbeanConnectionPoolFactory.replicaSet("replicaTest", primary);
+		try {
+			assertNotNull(set);
+			assertNull(HikariEbeanConnectionPoolFactory.replicaSet("mix", primary));// no replicas
+			assertFalse(primary.getHikariDataSource().isReadOnly());
+
+			val urls = new java.util.HashSet<String>();
+			for (int i = 0; i < 4; i++){
+				try (Connection con = set.getConnection()){
+					assertTrue(con.isReadOnly());
+					urls.add(con.getMetaData().getURL());
+				}
+			}
+			assertEquals(java.util.Set.of("jdbc:h2:mem:replica1", "jdbc:h2:mem:replica2"), urls);// round-robin
+
+			set.replicas().get(0).offline();
+			try (Connection con = set.getConnection()){
+				assertEquals("jdbc:h2:mem:replica2", con.getMetaData().getURL());
+			}
+			set.replicas().get(1).offline();
+			try (Connection con = set.getConnection()){
+				assertEquals("jdbc:h2:mem:replicaPrimary", con.getMetaData().getURL());// fallback
+			}
+			assertFalse(set.isOnline());
+			assertEquals(5, set.status(false).hitCount());
+		} finally {
+			if (set != null)
+					set.shutdown();
+			primary.shutdown();
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("replicaTest"));
+		}
+	}
+
+	@Test
+	void replicaSetFailureShutsDownReplicas () throws Exception {
+		SmartConfigTest.PROPERTIES.put("leakTest.url", "jdbc:h2:mem:leakPrimary");
+		SmartConfigTest.PROPERTIES.put("leakTest.replicas", "leakTest_r1, leakTest_r2");
+		SmartConfigTest.PROPERTIES.put("leakTest_r1.url", "jdbc:h2:mem:leak1");
+		SmartConfigTest.PROPERTIES.put("leakTest_r1.register-mbeans", "true");
+		SmartConfigTest.PROPERTIES.put("leakTest_r2.url", "jdbc:h2:mem:leak2");
+		SmartConfigTest.PROPERTIES.put("leakTest_r2.group", "noBudget");// the second replica fails
+		val primary = (HikariEbeanDataSourcePool) DataSourceFactory.create("leakTest", new DataSourceConfig());
+		try {
+			assertThrows(IllegalArgumentException.class, ()->HikariEbeanConnectionPoolFactory.replicaSet("leakTest", primary));
+			assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName("com.zaxxer.hikari:type=Pool (ebean.leakTest_r1)")));// r1 is shut down
+			assertFalse(primary.getHikariDataSource().isClosed());
+		} finally {
+			primary.shutdown();
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("leakTest"));
+		}
+	}
+
+	@Test
+	void replicaBalancing () throws SQLException {
+		SmartConfigTest.PROPERTIES.put("balanceTest.url", "jdbc:h2:mem:balancePrimary");
+		SmartConfigTest.PROPERTIES.put("balanceTest.replicas", "balanceTest_r1, balanceTest_r2");
+		SmartConfigTest.PROPERTIES.put("balanceTest.balance", "latency");
+		SmartConfigTest.PROPERTIES.put("balanceTest_r1.url", "jdbc:h2:mem:balance1");
+		SmartConfigTest.PROPERTIES.put("balanceTest_r1.maximum-pool-size", "1");
+		SmartConfigTest.PROPERTIES.put("balanceTest_r1.connection-timeout", "250");
+		SmartConfigTest.PROPERTIES.put("balanceTest_r2.url", "jdbc:h2:mem:balance2");
+		SmartConfigTest.PROPERTIES.put("balanceTest_r2.allow-pool-suspension", "true");
+		val primary = (HikariEbeanDataSourcePool) DataSourceFactory.create("balanceTest", new DataSourceConfig());
+		val set = HikariEbeanConnectionPoolFactory.replicaSet("balanceTest", primary);
+		try {
+			assertNotNull(set);
+			assertEquals(ReplicaSetDataSourcePool.Balance.LATENCY, set.balance());
+			val r1 = (HikariEbeanDataSourcePool) set.replicas().get(0);
+			r1.stats().acquired(TimeUnit.MILLISECONDS.toNanos(500), true);// r1 is degraded: vacuum, backup…
+			r1.stats().released(TimeUnit.MILLISECONDS.toNanos(500));
+			for (int i = 0; i < 6; i++){
+				try (Connection con = set.getConnection()){
+					assertEquals("jdbc:h2:mem:balance2", con.getMetaData().getURL());// the lowest score
+				}
+			}
+			assertEquals(0, r1.status(false).busy());
+
+			// r1 can't give a connection → ejected, r2 is used
+			set.replicas().get(1).offline();
+			try (Connection hold = r1.getConnection()){
+				try (Connection con = set.getConnection()){
+					assertEquals("jdbc:h2:mem:balancePrimary", con.getMetaData().getURL());
+				}
+			}
+			assertEquals(List.of(r1), set.ejected());
+			assertEquals(1, r1.stats().failures());
+			set.replicas().get(1).online();
+			try (Connection con = set.getConnection()){
+				assertEquals("jdbc:h2:mem:balance2", con.getMetaData().getURL());
+			}
+		} finally {
+			if (set != null)
+					set.shutdown();
+			primary.shutdown();
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("balanceTest"));
+		}
+	}
+
+	@Test
+	void lanes () throws Exception {
+		SmartConfigTest.PROPERTIES.put("laneTest.url", "jdbc:h2:mem:lanes");
+		SmartConfigTest.PROPERTIES.put("laneTest.maximum-pool-size", "5");
+		SmartConfigTest.PROPERTIES.put("datasource.laneTest.lane.reporting.max-concurrent", "2");
+		SmartConfigTest.PROPERTIES.put("laneTest.lane.reporting.max_queue", "1");
+		SmartConfigTest.PROPERTIES.put("laneTest.lane.reporting.timeout", "200ms");
+		val pool = (HikariEbeanDataSourcePool) DataSourceFactory.create("laneTest", new DataSourceConfig());
+		val executor = java.util.concurrent.Executors.newSingleThreadExecutor();
+		try {
+			val reporting = pool.lanes().get("reporting");
+			assertEquals(2, reporting.maxConcurrent());
+			assertEquals(200, reporting.timeoutMillis());
+			assertEquals(5, pool.getHikariDataSource().getMaximumPoolSize());// lane keys are not Hikari settings
+
+			try (val scope = Lane.use("reporting");
+					Connection c1 = pool.getConnection(); Connection c2 = pool.getConnection()){
+				assertEquals(2, reporting.active());
+				val queued = executor.submit(()->{
+					try (val s = Lane.use("reporting"); Connection c = pool.getConnection()){
+						return c.isValid(1);
+					}
+				});
+				while (reporting.queued() == 0){ Thread.sleep(5); }
+				assertThrows(SQLTransientConnectionException.class, pool::getConnection);// queue is full: fail fast
+				val e = assertThrows(java.util.concurrent.ExecutionException.class, queued::get);
+				assertInstanceOf(SQLTransientConnectionException.class, e.getCause());// timeout
+				try (Connection other = executor.submit(()->pool.getConnection()).get()){// no lane selected in that thread
+					assertNotNull(other);// other workloads are not starved
+				}
+			}
+			assertEquals(0, reporting.active());
+			assertEquals(2, reporting.rejected());
+			assertEquals(0, pool.stats().busy());
+		} finally {
+			executor.shutdownNow();
+			pool.shutdown();
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.contains("laneTest"));
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.github.magicprinc.hibean;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see PrebuiltPoolConfigGenerator
+ @see PrebuiltPoolConfig */
+class PrebuiltPoolConfigGeneratorTest {
+	static {
+		SmartConfigTest.configureSmallRyeConfig();
+	}
+
+	@Test
+	void generateMix () {
+		String src = PrebuiltPoolConfigGenerator.generate("com.example.db", "PrebuiltPool_mix", "mix", Set.of("jdbcurl"));
+		assertTrue(src.startsWith("package com.example.db;"), src);
+		assertTrue(src.contains("public final class PrebuiltPool_mix implements PrebuiltPoolConfig {"), src);
+		assertTrue(src.contains("return \"ebean.mix\";"), src);
+		assertTrue(src.contains("hc.setJdbcUrl(\"jdbc:h2:mem:testMix\");"), src);
+		assertTrue(src.contains("PrebuiltPoolConfig.runtime(hc, "), src);// jdbcUrl is re-read at runtime
+		assertTrue(src.contains("hc.addDataSourceProperty(\"NETWORK_TIMEOUT\", \"51000\");"), src);
+		assertTrue(src.contains("hc.setIdleTimeout(61000L);"), src);// appendFrom: extra
+		assertFalse(src.contains("fullDelegation"), src);
+	}
+
+	@Test
+	void generateConfFile () {
+		String src = PrebuiltPoolConfigGenerator.generate("com.example.db", "PrebuiltPool_external", "external", Set.of());
+		assertTrue(src.contains("public boolean fullDelegation (){ return true; }"), src);
+		assertTrue(src.contains("hc.setMaximumPoolSize(23);"), src);
+		assertTrue(src.contains("hc.setDriverClassName(\"org.h2.Driver\");"), src);
+		assertTrue(src.contains("PrebuiltPoolConfig.confFileSecret(\"/nativeHikari.conf\", \"password\", hc::setPassword);"), src);
+	}
+
+	@Test
+	void ownSettingsArePrebuilt () {
+		SmartConfigTest.PROPERTIES.put("prebuiltOwn.url", "jdbc:h2:mem:prebuiltOwn");
+		SmartConfigTest.PROPERTIES.put("prebuiltOwn.lane.reporting.max-concurrent", "3");
+		SmartConfigTest.PROPERTIES.put("prebuiltOwn.breakerFailures", "2");
+		try {
+			String src = PrebuiltPoolConfigGenerator.generate("com.example.db", "PrebuiltPool_prebuiltOwn", "prebuiltOwn", Set.of());
+			assertTrue(src.contains("public Map<String,String> ownSettings () {"), src);
+			assertTrue(src.contains("Map.entry(\"breakerFailures\", \"2\")"), src);
+			assertTrue(src.contains("Map.entry(\"lane.reporting.max-concurrent\", \"3\")"), src);
+			assertFalse(src.contains("setBreakerFailures"), src);
+
+			SmartConfigTest.PROPERTIES.put("prebuiltOwn.reloadInterval", "10s");
+			assertThrows(IllegalStateException.class, ()->PrebuiltPoolConfigGenerator.generate("com.example.db", "PrebuiltPool_prebuiltOwn", "prebuiltOwn", Set.of()));
+		} finally {
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("prebuiltOwn."));
+		}
+	}
+
+	@Test
+	void literals () {
+		assertEquals("\"a\\\"b\\\\c\\n\\u00e4\"", PrebuiltPoolConfigGenerator.str("a\"b\\c\nä"));
+		assertEquals("PrebuiltPool_my_db", PrebuiltPoolConfigGenerator.className("my-db"));
+		assertEquals("(short) 7", PrebuiltPoolConfigGenerator.literal(short.class, (short) 7));
+		assertEquals("new int[]{1, 2}", PrebuiltPoolConfigGenerator.literal(int[].class, new int[]{1, 2}));
+		assertTrue(PrebuiltPoolConfigGenerator.isSecret("data-source-properties.Password"));
+	}
+}
\ No newline at end of file
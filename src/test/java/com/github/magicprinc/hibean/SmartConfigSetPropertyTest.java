@@ -3,10 +3,6 @@ package com.github.magicprinc.hibean;
 import com.zaxxer.hikari.HikariConfig;
 import org.junit.jupiter.api.Test;
 
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
-
 import static org.junit.jupiter.api.Assertions.*;
 
 class SmartConfigSetPropertyTest {
@@ -43,228 +39,215 @@ class SmartConfigSetPropertyTest {
 		public String[] getStrings () { return strings; }
 	}
 
-	private static List<Method> methodsOf (Object target) {
-		return Arrays.asList(target.getClass().getMethods());
-	}
-
 	@Test
 	void intParam () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "poolSize", "42", methods));
+		assertTrue(SmartConfig.setProperty(target, "poolSize", "42"));
 		assertEquals(42, target.getPoolSize());
 	}
 
 	@Test
 	void intParamHex () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "poolSize", "0xFF", methods));
+		assertTrue(SmartConfig.setProperty(target, "poolSize", "0xFF"));
 		assertEquals(255, target.getPoolSize());
 	}
 
 	@Test
 	void intParamOctal () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "poolSize", "077", methods));
+		assertTrue(SmartConfig.setProperty(target, "poolSize", "077"));
 		assertEquals(63, target.getPoolSize());
 	}
 
 	@Test
 	void longParam () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "30000", methods));
+		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "30000"));
 		assertEquals(30000L, target.getTimeoutMs());
 	}
 
 	@Test
 	void longParamDuration_s () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "30s", methods));
+		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "30s"));
 		assertEquals(30000L, target.getTimeoutMs());
 	}
 
 	@Test
 	void longParamDuration_ms () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "500ms", methods));
+		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "500ms"));
 		assertEquals(500L, target.getTimeoutMs());
 	}
 
 	@Test
 	void longParamDuration_m () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "5m", methods));
+		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "5m"));
 		assertEquals(5 * 60 * 1000L, target.getTimeoutMs());
 	}
 
 	@Test
 	void longParamDuration_h () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "2h", methods));
+		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "2h"));
 		assertEquals(2 * 60 * 60 * 1000L, target.getTimeoutMs());
 	}
 
 	@Test
 	void longParamDuration_d () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "1d", methods));
+		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "1d"));
 		assertEquals(24 * 60 * 60 * 1000L, target.getTimeoutMs());
 	}
 
 	@Test
 	void longParamDuration_fallbackToDecode () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "123456", methods));
+		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "123456"));
 		assertEquals(123456L, target.getTimeoutMs());
 	}
 
 	@Test
 	void shortParam () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "port", "8080", methods));
+		assertTrue(SmartConfig.setProperty(target, "port", "8080"));
 		assertEquals((short) 8080, target.getPort());
 	}
 
 	@Test
 	void booleanParamTrue () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "active", "true", methods));
+		assertTrue(SmartConfig.setProperty(target, "active", "true"));
 		assertTrue(target.isActive());
 	}
 
 	@Test
 	void booleanParamFalse () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "active", "false", methods));
+		assertTrue(SmartConfig.setProperty(target, "active", "false"));
 		assertFalse(target.isActive());
 	}
 
 	@Test
 	void stringParam () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "name", "myPool", methods));
+		assertTrue(SmartConfig.setProperty(target, "name", "myPool"));
 		assertEquals("myPool", target.getName());
 	}
 
 	@Test
 	void shoutyCaseFallback () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "shouty_val", "99", methods));
+		assertTrue(SmartConfig.setProperty(target, "shouty_val", "99"));
 		assertEquals(99, target.getSHOUTY_VAL());
 	}
 
 	@Test
 	void propertyNotFound () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertFalse(SmartConfig.setProperty(target, "noSuchProperty", "123", methods));
+		assertFalse(SmartConfig.setProperty(target, "noSuchProperty", "123"));
 	}
 
 	@Test
 	void valueIsTrimmed () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "poolSize", "  42  ", methods));
+		assertTrue(SmartConfig.setProperty(target, "poolSize", "  42  "));
 		assertEquals(42, target.getPoolSize());
 	}
 
 	@Test
 	void nullValue () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertFalse(SmartConfig.setProperty(target, "name", null, methods));
+		assertFalse(SmartConfig.setProperty(target, "name", null));
 	}
 
 	@Test
 	void againstHikariConfig_string () {
 		HikariConfig hc = new HikariConfig();
-		List<Method> methods = methodsOf(hc);
-		assertTrue(SmartConfig.setProperty(hc, "poolName", "testPool", methods));
+		assertTrue(SmartConfig.setProperty(hc, "poolName", "testPool"));
 		assertEquals("testPool", hc.getPoolName());
 	}
 
 	@Test
 	void againstHikariConfig_int () {
 		HikariConfig hc = new HikariConfig();
-		List<Method> methods = methodsOf(hc);
-		assertTrue(SmartConfig.setProperty(hc, "maximumPoolSize", "10", methods));
+		assertTrue(SmartConfig.setProperty(hc, "maximumPoolSize", "10"));
 		assertEquals(10, hc.getMaximumPoolSize());
 	}
 
 	@Test
 	void againstHikariConfig_long () {
 		HikariConfig hc = new HikariConfig();
-		List<Method> methods = methodsOf(hc);
-		assertTrue(SmartConfig.setProperty(hc, "connectionTimeout", "30000", methods));
+		assertTrue(SmartConfig.setProperty(hc, "connectionTimeout", "30000"));
 		assertEquals(30000L, hc.getConnectionTimeout());
 	}
 
 	@Test
 	void againstHikariConfig_longDuration () {
 		HikariConfig hc = new HikariConfig();
-		List<Method> methods = methodsOf(hc);
-		assertTrue(SmartConfig.setProperty(hc, "connectionTimeout", "30s", methods));
+		assertTrue(SmartConfig.setProperty(hc, "connectionTimeout", "30s"));
 		assertEquals(30000L, hc.getConnectionTimeout());
 	}
 
 	@Test
 	void againstHikariConfig_boolean () {
 		HikariConfig hc = new HikariConfig();
-		List<Method> methods = methodsOf(hc);
-		assertTrue(SmartConfig.setProperty(hc, "readOnly", "true", methods));
+		assertTrue(SmartConfig.setProperty(hc, "readOnly", "true"));
 		assertTrue(hc.isReadOnly());
 	}
 
 	@Test
 	void againstHikariConfig_unknownProperty () {
 		HikariConfig hc = new HikariConfig();
-		List<Method> methods = methodsOf(hc);
-		assertFalse(SmartConfig.setProperty(hc, "ebeanServerName", "main", methods));
+		assertFalse(SmartConfig.setProperty(hc, "ebeanServerName", "main"));
 	}
 
 	@Test
 	void charArrayParam () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "chars", "hello", methods));
+		assertTrue(SmartConfig.setProperty(target, "chars", "hello"));
 		assertArrayEquals(new char[]{'h', 'e', 'l', 'l', 'o'}, target.getChars());
 	}
 
 	@Test
 	void intArrayParam () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "ints", "1,2,3", methods));
+		assertTrue(SmartConfig.setProperty(target, "ints", "1,2,3"));
 		assertArrayEquals(new int[]{1, 2, 3}, target.getInts());
 	}
 
 	@Test
 	void intArrayParamHex () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "ints", "0xA,0xB", methods));
+		assertTrue(SmartConfig.setProperty(target, "ints", "0xA,0xB"));
 		assertArrayEquals(new int[]{10, 11}, target.getInts());
 	}
 
 	@Test
 	void stringArrayParam () {
 		DummyTarget target = new DummyTarget();
-		List<Method> methods = methodsOf(target);
-		assertTrue(SmartConfig.setProperty(target, "strings", "foo,bar", methods));
+		assertTrue(SmartConfig.setProperty(target, "strings", "foo,bar"));
 		assertArrayEquals(new String[]{"foo", "bar"}, target.getStrings());
 	}
-}
+
+	@Test
+	void binderIsCachedPerClass () {
+		PropertyBinder binder = PropertyBinder.of(HikariConfig.class);
+		assertSame(binder, PropertyBinder.of(HikariConfig.class));
+		assertSame(binder.setter("maximumPoolSize"), binder.setter("maximumPoolSize"));
+		assertEquals(int.class, binder.setter("maximumPoolSize").type());
+		assertNull(binder.setter("ebeanServerName"));
+	}
+
+	@Test
+	void withoutMethodList () {
+		DummyTarget target = new DummyTarget();
+		assertTrue(SmartConfig.setProperty(target, "timeoutMs", "2s"));
+		assertEquals(2000L, target.getTimeoutMs());
+		assertTrue(SmartConfig.setProperty(target, "shouty_val", "0x10"));
+		assertEquals(16, target.getSHOUTY_VAL());
+		assertFalse(SmartConfig.setProperty(target, "poolSize", "not a number"));
+	}
+}
\ No newline at end of file
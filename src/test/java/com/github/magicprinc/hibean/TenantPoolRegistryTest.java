@@ -0,0 +1,122 @@
+package com.github.magicprinc.hibean;
+
+import com.zaxxer.hikari.util.UtilityElf;
+import io.ebean.datasource.DataSourcePool;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see TenantPoolRegistry
+ */
+class TenantPoolRegistryTest {
+	static {
+		SmartConfigTest.configureSmallRyeConfig();
+	}
+
+	@Test
+	void tenantsFromTemplate () throws SQLException {
+		SmartConfigTest.PROPERTIES.put("tenants.url", "jdbc:h2:mem:%tenant%");
+		SmartConfigTest.PROPERTIES.put("tenants.maximum-pool-size", "2");
+		SmartConfigTest.PROPERTIES.put("acme.maximum-pool-size", "3");// own settings win
+		try (val registry = new TenantPoolRegistry("tenants", 5)){
+			try (Connection acme = registry.getConnection("acme")){
+				assertEquals("jdbc:h2:mem:acme", acme.getMetaData().getURL());
+				assertEquals(3, registry.reserved());
+
+				try (Connection beta = registry.getConnection("beta")){
+					assertEquals("jdbc:h2:mem:beta", beta.getMetaData().getURL());
+					assertEquals(5, registry.reserved());
+					assertThrows(SQLTransientConnectionException.class, ()->registry.pool("gamma"));// both are busy
+				}
+				try (Connection gamma = registry.getConnection("gamma")){// beta is idle: evicted
+					assertEquals("jdbc:h2:mem:gamma", gamma.getMetaData().getURL());
+				}
+				assertEquals(Set.of("acme", "gamma"), registry.tenants());
+				assertEquals(5, registry.reserved());
+			}
+			assertThrows(IllegalArgumentException.class, ()->registry.pool("../x"));
+			assertTrue(registry.remove("gamma"));
+			assertEquals(3, registry.reserved());
+		} finally {
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("tenants.") || k.startsWith("acme."));
+		}
+	}
+
+	@Test
+	void handedOutPoolIsNotEvicted () throws SQLException {
+		SmartConfigTest.PROPERTIES.put("tenants.url", "jdbc:h2:mem:%tenant%");
+		SmartConfigTest.PROPERTIES.put("tenants.maximum-pool-size", "2");
+		SmartConfigTest.PROPERTIES.put("tenants.connection-timeout", "300");
+		SmartConfigTest.PROPERTIES.put("tenants.autosize", "1..50");
+		try (val registry = new TenantPoolRegistry("tenants", 2)){
+			val delta = (HikariEbeanDataSourcePool) registry.pool("delta");// not borrowed yet: the caller is about to
+			assertTrue(delta.sizer().toString().endsWith("1..2)"), "autosize within the reserved size");
+			assertThrows(SQLTransientConnectionException.class, ()->registry.pool("omega"));
+			assertTrue(delta.isOnline());
+
+			UtilityElf.quietlySleep(400);// connectionTimeout has passed
+			try (Connection omega = registry.getConnection("omega")){
+				assertEquals("jdbc:h2:mem:omega", omega.getMetaData().getURL());
+			}
+			assertEquals(Set.of("omega"), registry.tenants());
+		} finally {
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("tenants."));
+		}
+	}
+
+	@Test
+	void explicitMaximumPoolSize () {
+		SmartConfigTest.PROPERTIES.put("tenantsNoMax.url", "jdbc:h2:mem:%tenant%");
+		try (val registry = new TenantPoolRegistry("tenantsNoMax", 50)){
+			val e = assertThrows(IllegalArgumentException.class, ()->registry.getConnection("acme"));// no implicit reservation
+			assertTrue(e.getMessage().contains("tenantsNoMax.maximumPoolSize"), e.getMessage());
+			assertEquals(0, registry.reserved());
+			assertEquals(Set.of(), registry.tenants());
+		} finally {
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("tenantsNoMax."));
+		}
+	}
+
+	@Test
+	void concurrentCheckoutPublishesOnePool () throws Exception {
+		SmartConfigTest.PROPERTIES.put("tenants.url", "jdbc:h2:mem:%tenant%");
+		SmartConfigTest.PROPERTIES.put("tenants.maximum-pool-size", "2");
+		try (val registry = new TenantPoolRegistry("tenants", 4)){
+			val start = new CountDownLatch(1);
+			val checkouts = new ArrayList<CompletableFuture<DataSourcePool>>();
+			for (int i = 0; i < 8; i++){
+				val t = new CompletableFuture<DataSourcePool>();
+				new Thread(()->{
+					try {
+						start.await();
+						t.complete(registry.pool("zeta"));
+					} catch (Throwable e){
+						t.completeExceptionally(e);
+					}
+				}).start();
+				checkouts.add(t);
+			}
+			start.countDown();
+			val pools = new ArrayList<DataSourcePool>();
+			for (val t : checkouts){
+				pools.add(t.get(10, TimeUnit.SECONDS));
+			}
+			assertEquals(8, pools.size());
+			assertEquals(1, Set.copyOf(pools).size());// all got the published pool
+			assertEquals(2, registry.reserved());
+		} finally {
+			SmartConfigTest.PROPERTIES.keySet().removeIf(k->k.startsWith("tenants."));
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.github.magicprinc.hibean.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see AdaptivePoolSizer
+ */
+class AdaptivePoolSizerTest {
+	static HikariEbeanDataSourceWrapper pool (String name) {
+		val hc = new HikariConfig();
+		hc.setJdbcUrl("jdbc:h2:mem:"+ name);
+		hc.setPoolName(name);
+		hc.setMaximumPoolSize(4);
+		hc.setMinimumIdle(2);
+		return new HikariEbeanDataSourceWrapper(new HikariDataSource(hc));
+	}
+
+	@Test
+	void decide () {
+		val pool = pool("sizerDecide");
+		try (val sizer = new AdaptivePoolSizer(pool, 2, 20)){
+			assertEquals(10, sizer.decide(4, 4, 0, 8));// 8 × 1.25: grow at once
+			assertEquals(9, sizer.decide(4, 4, 5, 1));// waiting threads: at least +5
+			assertEquals(20, sizer.decide(10, 10, 50, 40));// upper bound
+
+			for (int i = 1; i < AdaptivePoolSizer.SHRINK_AFTER; i++){
+				assertEquals(12, sizer.decide(12, 1, 0, 1), "hysteresis: no shrink yet");
+			}
+			assertEquals(9, sizer.decide(12, 1, 0, 1));// -25%
+			assertEquals(9, sizer.decide(9, 1, 0, 1));// counting starts again
+			assertEquals(9, sizer.decide(9, 1, 0, 6));// in the band: no change
+
+			for (int i = 0; i < 100; i++){
+				sizer.decide(2, 0, 0, 0);
+			}
+			assertEquals(2, sizer.decide(2, 0, 0, 0));// lower bound
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void littlesLaw () {
+		val pool = pool("sizerLittle");
+		try (val sizer = new AdaptivePoolSizer(pool, 2, 20)){
+			long t = System.nanoTime();
+			long interval = TimeUnit.SECONDS.toNanos(5);
+			sizer.tick(t);// baseline
+
+			for (int i = 0; i < 8; i++){// 8 connections were busy all the interval
+				pool.stats().acquired(1000, false);
+				pool.stats().released(interval);
+			}
+			sizer.tick(t += interval);
+			val cfg = pool.getHikariDataSource().getHikariConfigMXBean();
+			assertEquals(10, cfg.getMaximumPoolSize());
+			assertEquals(8, cfg.getMinimumIdle());
+
+			for (int i = 0; i < AdaptivePoolSizer.SHRINK_AFTER; i++){// idle
+				sizer.tick(t += interval);
+			}
+			assertEquals(8, cfg.getMaximumPoolSize());
+			assertEquals(2, cfg.getMinimumIdle());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
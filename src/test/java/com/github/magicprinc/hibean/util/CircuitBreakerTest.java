@@ -0,0 +1,164 @@
+package com.github.magicprinc.hibean.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.val;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see CircuitBreaker
+ */
+class CircuitBreakerTest {
+	static final SQLException DOWN = new SQLTransientConnectionException("Connection is not available", new SQLException("Connection refused"));
+	static final SQLException EXHAUSTED = new SQLTransientConnectionException("Connection is not available, request timed out");
+
+	@Test
+	void states () throws SQLException {
+		val now = new AtomicLong();
+		val cb = new CircuitBreaker("test", 2, 1000, 1, now::get);
+		assertFalse(cb.acquire());// closed: no probe
+		cb.failure(EXHAUSTED);// busy pool is not a down database
+		cb.failure(EXHAUSTED);
+		cb.failure(new PoolRejectedException("Lane reporting: interrupted", new InterruptedException()));// nor our own refusal
+		assertEquals(CircuitBreaker.State.CLOSED, cb.state());
+		assertNull(cb.downReason());
+
+		cb.failure(DOWN);
+		cb.success();// consecutive failures only
+		cb.failure(DOWN);
+		assertEquals(CircuitBreaker.State.CLOSED, cb.state());
+		cb.failure(DOWN);
+		assertEquals(CircuitBreaker.State.OPEN, cb.state());
+		assertSame(DOWN, cb.downReason());
+		val e = assertThrows(SQLTransientConnectionException.class, cb::acquire);// fail fast
+		assertSame(DOWN, e.getCause());
+
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+		assertTrue(cb.acquire());// the probe
+		assertEquals(CircuitBreaker.State.HALF_OPEN, cb.state());
+		assertThrows(SQLTransientConnectionException.class, cb::acquire);// only one probe at a time
+		cb.failure(DOWN);
+		assertEquals(CircuitBreaker.State.OPEN, cb.state());// probe failed
+
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+		boolean probe = cb.acquire();
+		cb.failure(EXHAUSTED);// no verdict, but the probe slot is still taken
+		assertThrows(SQLTransientConnectionException.class, cb::acquire);
+		cb.inconclusive(probe);// the next probe may go
+		cb.acquire();
+		cb.success();
+		assertEquals(CircuitBreaker.State.CLOSED, cb.state());
+		assertNull(cb.downReason());
+		cb.acquire();
+	}
+
+	@Test
+	void probeSlots () throws SQLException {
+		val now = new AtomicLong();
+		val cb = new CircuitBreaker("probes", 1, 1000, 1, now::get);
+		boolean closed = cb.acquire();// taken while closed: no slot to give back
+		cb.failure(DOWN);
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+		assertTrue(cb.acquire());
+		cb.inconclusive(closed);// a lane rejection of the first acquisition
+		assertThrows(SQLTransientConnectionException.class, cb::acquire);// the probe slot is still taken
+		cb.inconclusive(true);
+		cb.inconclusive(true);// never below zero
+		assertTrue(cb.acquire());
+		assertThrows(SQLTransientConnectionException.class, cb::acquire);
+	}
+
+	@Test
+	void callerErrorsAreNotDown () {
+		assertFalse(CircuitBreaker.databaseDown(new SQLSyntaxErrorException("Table \"NOPE\" not found")));
+		assertFalse(CircuitBreaker.databaseDown(new SQLFeatureNotSupportedException("savepoints")));
+		assertTrue(CircuitBreaker.databaseDown(DOWN));
+	}
+
+	@Test
+	void failFastWhenDatabaseIsDown () throws SQLException {
+		val hc = new HikariConfig();
+		hc.setJdbcUrl("jdbc:h2:tcp://127.0.0.1:1/nowhere");// nothing listens there
+		hc.setPoolName("breakerDown");
+		hc.setInitializationFailTimeout(-1);// start without the database
+		hc.setConnectionTimeout(300);
+		val pool = new HikariEbeanDataSourceWrapper(new HikariDataSource(hc));
+		try {
+			pool.setBreaker(new CircuitBreaker("breakerDown", 1, 60_000, 1));
+			assertTrue(pool.isDataSourceUp());
+			assertNull(pool.dataSourceDownReason());
+
+			long start = System.nanoTime();
+			assertThrows(SQLException.class, pool::getConnection);// waits connectionTimeout
+			assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+
+			start = System.nanoTime();
+			val e = assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+			assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100), "fail fast");
+			assertTrue(e.getMessage().contains("is open"), e.getMessage());
+			assertFalse(pool.isDataSourceUp());
+			assertNotNull(pool.dataSourceDownReason());
+
+			pool.probe(300);// still down
+			assertEquals(CircuitBreaker.State.OPEN, pool.getBreaker().state());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void failoverAndBack () throws Exception {
+		int port;
+		try (val socket = new ServerSocket(0)){
+			port = socket.getLocalPort();// free: nothing listens there yet
+		}
+		val hc = new HikariConfig();
+		hc.setJdbcUrl("jdbc:h2:tcp://127.0.0.1:"+ port +"/mem:failoverPrimary");
+		hc.setPoolName("failoverPrimary");
+		hc.setInitializationFailTimeout(-1);
+		hc.setConnectionTimeout(300);
+		val primary = new HikariEbeanDataSourceWrapper(new HikariDataSource(hc));
+		val standby = AdaptivePoolSizerTest.pool("failoverStandby");
+		Server server = null;
+		try {
+			primary.failover(List.of(standby));
+			assertNotNull(primary.getBreaker());
+			primary.getBreaker().failure(DOWN);
+			primary.getBreaker().failure(DOWN);// one more failure opens it
+			try (Connection con = primary.getConnection()){// the failure that opens the circuit is not lost
+				assertTrue(con.getMetaData().getURL().contains("failoverStandby"));
+			}
+			assertSame(standby, primary.failedOver());
+			long start = System.nanoTime();
+			try (Connection con = primary.getConnection()){// the circuit is open: at once
+				assertTrue(con.getMetaData().getURL().contains("failoverStandby"));
+			}
+			assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+
+			server = Server.createTcpServer("-tcpPort", Integer.toString(port), "-ifNotExists").start();
+			primary.probe(300);// the primary is up again
+			assertEquals(CircuitBreaker.State.CLOSED, primary.getBreaker().state());
+			assertNull(primary.failedOver());
+			try (Connection con = primary.getConnection()){
+				assertTrue(con.getMetaData().getURL().contains("failoverPrimary"));
+			}
+		} finally {
+			primary.shutdown();
+			assertTrue(standby.getHikariDataSource().isClosed());
+			if (server != null){ server.stop(); }
+		}
+	}
+}
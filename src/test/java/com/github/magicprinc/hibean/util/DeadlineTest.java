@@ -0,0 +1,67 @@
+package com.github.magicprinc.hibean.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see Deadline
+ */
+class DeadlineTest {
+	@Test
+	void scopes () {
+		assertNull(Deadline.current());
+		assertEquals(Long.MAX_VALUE, Deadline.remainingNanos());
+		try (val outer = Deadline.within(5000)){
+			long d = Deadline.current();
+			try (val inner = Deadline.within(60_000)){
+				assertEquals(d, Deadline.current());// only shorter
+			}
+			try (val inner = Deadline.within(100)){
+				assertTrue(Deadline.remainingNanos() <= TimeUnit.MILLISECONDS.toNanos(100));
+			}
+			assertEquals(d, Deadline.current());
+		}
+		assertNull(Deadline.current());
+	}
+
+	@Test
+	void acquireAndQueryTimeout () throws SQLException {
+		val hc = new HikariConfig();
+		hc.setJdbcUrl("jdbc:h2:mem:deadline");
+		hc.setPoolName("deadline");
+		hc.setMaximumPoolSize(1);
+		hc.setConnectionTimeout(10_000);
+		val pool = new HikariEbeanDataSourceWrapper(new HikariDataSource(hc));
+		pool.statementCacheSize(8);
+		pool.setBreaker(new CircuitBreaker("deadline", 1, 60_000, 1));
+		try {
+			try (Connection busy = pool.getConnection(); val scope = Deadline.within(300)){
+				try (val st = busy.createStatement(); val ps = busy.prepareStatement("select 1")){
+					assertEquals(1, st.getQueryTimeout());// rounded up
+					assertEquals(1, ps.getQueryTimeout());
+				}
+				long start = System.nanoTime();
+				assertThrows(PoolRejectedException.class, pool::getConnection);// not connectionTimeout
+				assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+				assertThrows(PoolRejectedException.class, pool::getConnection);// passed: at once, not a database failure
+				assertThrows(SQLTimeoutException.class, busy::createStatement);
+			}
+			assertTrue(pool.isDataSourceUp());// the caller gave up, the database didn't fail
+			try (Connection con = pool.getConnection(); val ps = con.prepareStatement("select 1")){
+				assertEquals(0, ps.getQueryTimeout());// the cached statement was reset
+				assertEquals(1, pool.stats().statementCacheHits());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
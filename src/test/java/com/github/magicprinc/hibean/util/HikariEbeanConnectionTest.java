@@ -0,0 +1,156 @@
+package com.github.magicprinc.hibean.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ Driver round trips: the old borrow path (getAutoCommit + setAutoCommit on every borrow) vs the session-state cache.
+ Instead of a JMH benchmark: a fake driver connection counts calls (every call is a potential network round trip).
+ @see HikariEbeanConnection
+ */
+class HikariEbeanConnectionTest {
+	/** Fake driver connection: counts calls, keeps autoCommit/readOnly/isolation/schema */
+	static Connection counting (Map<String,AtomicInteger> calls) {
+		val state = new ConcurrentHashMap<String,Object>(Map.of("AutoCommit", true, "ReadOnly", false, "TransactionIsolation", Connection.TRANSACTION_READ_COMMITTED, "Schema", "PUBLIC"));
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args)->{
+			String name = method.getName();
+			calls.computeIfAbsent(name, k->new AtomicInteger()).incrementAndGet();
+			if (name.startsWith("set") && args.length == 1){
+				state.put(name.substring(3), args[0]);
+				return null;
+			}
+			if (name.startsWith("get") || name.startsWith("is")){
+				Object v = state.get(name.substring(name.startsWith("get") ? 3 : 2));
+				if (v != null){ return v; }
+			}
+			return switch (name){
+				case "isClosed" -> false;
+				case "hashCode" -> System.identityHashCode(proxy);
+				case "equals" -> proxy == args[0];
+				case "toString" -> "CountingConnection";
+				default -> null;
+			};
+		});
+	}
+
+	static int count (Map<String,AtomicInteger> calls){ return calls.values().stream().mapToInt(AtomicInteger::get).sum(); }
+
+	@Test
+	void roundTripsPerBorrow () throws SQLException {
+		int borrows = 1000;
+		val oldCalls = new ConcurrentHashMap<String,AtomicInteger>();
+		Connection raw = counting(oldCalls);
+		raw.setAutoCommit(true);// pool default
+		oldCalls.clear();
+		for (int i = 0; i < borrows; i++){// old path: getConnection() with autoCommit override
+			if (raw.getAutoCommit()){ raw.setAutoCommit(false); }
+			raw.setAutoCommit(true);// dirty → Hikari resets it on return
+		}
+
+		val newCalls = new ConcurrentHashMap<String,AtomicInteger>();
+		Connection physical = counting(newCalls);
+		val defaults = new HikariEbeanConnection.SessionState(false, false, Connection.TRANSACTION_READ_COMMITTED, "PUBLIC");
+		val stats = new PoolStats();
+		for (int i = 0; i < borrows; i++){
+			stats.acquired(1, false);
+			try (val con = new HikariEbeanConnection(physical, stats, defaults)){
+				con.setAutoCommit(false);// override == pool default
+				assertFalse(con.getAutoCommit());
+				assertFalse(con.isReadOnly());
+				assertEquals(Connection.TRANSACTION_READ_COMMITTED, con.getTransactionIsolation());
+				assertEquals("PUBLIC", con.getSchema());
+				con.setSchema("PUBLIC");
+			}
+		}
+		assertEquals(3 * borrows, count(oldCalls));
+		assertEquals(borrows, count(newCalls));// close only
+		assertEquals(borrows, newCalls.get("close").get());
+		assertEquals(0, stats.busy());
+	}
+
+	@Test
+	void changedStateIsCached () throws SQLException {
+		val calls = new ConcurrentHashMap<String,AtomicInteger>();
+		val con = new HikariEbeanConnection(counting(calls), new PoolStats());// unknown state
+		assertTrue(con.getAutoCommit());
+		assertTrue(con.getAutoCommit());
+		assertEquals(1, calls.get("getAutoCommit").get());
+
+		con.setReadOnly(true);
+		con.setReadOnly(true);
+		assertTrue(con.isReadOnly());
+		assertEquals(1, calls.get("setReadOnly").get());
+		assertNull(calls.get("isReadOnly"));
+
+		con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+		assertEquals(Connection.TRANSACTION_SERIALIZABLE, con.getTransactionIsolation());
+		assertNull(calls.get("getTransactionIsolation"));
+		assertEquals(new HikariEbeanConnection.SessionState(true, true, Connection.TRANSACTION_SERIALIZABLE, null), con.sessionState());
+	}
+
+	@Test
+	void commitIsRememberedForReadYourWrites () throws SQLException {
+		val session = new PoolContext();
+		try (val scope = session.bind()){
+			val replica = new HikariEbeanConnection(counting(new ConcurrentHashMap<>()), new PoolStats(),
+					new HikariEbeanConnection.SessionState(false, true, Connection.TRANSACTION_READ_COMMITTED, null));
+			replica.commit();
+			assertNull(session.writtenWithin(System.nanoTime(), Long.MAX_VALUE));
+
+			val primary = new HikariEbeanConnection(counting(new ConcurrentHashMap<>()), new PoolStats());
+			primary.commit();// nothing was written
+			assertNull(session.writtenWithin(System.nanoTime(), Long.MAX_VALUE));
+		}
+	}
+
+	@Test
+	void onlyUpdatesAreWrites () throws SQLException {
+		try (Connection h2 = DriverManager.getConnection("jdbc:h2:mem:onlyUpdatesAreWrites")){
+			h2.createStatement().execute("CREATE TABLE t (id INT)");
+			val con = new HikariEbeanConnection(h2, new PoolStats());
+			con.setAutoCommit(false);
+
+			val reader = new PoolContext();
+			try (val scope = reader.bind(); val st = con.createStatement(); val ps = con.prepareStatement("SELECT id FROM t")){
+				assertTrue(st.execute("SELECT 1"));
+				ps.executeQuery().close();
+				con.commit();
+			}
+			assertNull(reader.writtenWithin(System.nanoTime(), Long.MAX_VALUE));
+
+			val rolledBack = new PoolContext();
+			try (val scope = rolledBack.bind(); val ps = con.prepareStatement("INSERT INTO t VALUES (?)")){
+				ps.setInt(1, 1);
+				assertEquals(1, ps.executeUpdate());
+				con.rollback();
+				con.commit();
+			}
+			assertNull(rolledBack.writtenWithin(System.nanoTime(), Long.MAX_VALUE));
+
+			val writer = new PoolContext();
+			try (val scope = writer.bind(); val st = con.createStatement()){
+				assertFalse(st.execute("UPDATE t SET id = 2"));// an update count
+				assertSame(con, st.getConnection());
+				con.commit();
+			}
+			assertNotNull(writer.writtenWithin(System.nanoTime(), Long.MAX_VALUE));
+
+			con.setAutoCommit(true);
+			val autoCommit = new PoolContext();
+			try (val scope = autoCommit.bind(); val cs = con.prepareCall("DELETE FROM t")){
+				cs.executeUpdate();// committed at once
+			}
+			assertNotNull(autoCommit.writtenWithin(System.nanoTime(), Long.MAX_VALUE));
+		}
+	}
+}
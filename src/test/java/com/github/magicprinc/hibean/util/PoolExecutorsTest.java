@@ -0,0 +1,52 @@
+package com.github.magicprinc.hibean.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see PoolExecutors
+ */
+class PoolExecutorsTest {
+	@Test
+	void jitter () {
+		assertEquals(0, PoolExecutors.Jittered.jitter(3));
+		for (int i = 0; i < 1000; i++){
+			long j = PoolExecutors.Jittered.jitter(30_000);
+			assertTrue(j >= 0 && j < 7500, "jitter "+ j);
+		}
+	}
+
+	@Test
+	void poolThreads () throws InterruptedException {
+		val latch = new CountDownLatch(1);
+		val t = PoolExecutors.poolThreads(true).newThread(latch::countDown);
+		assertTrue(t.getName().startsWith("hibean-pool-"), t.getName());
+		t.start();
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(PoolExecutors.poolThreads(false).newThread(()->{}).isDaemon());
+	}
+
+	@Test
+	void sharedHousekeeping () throws SQLException {
+		for (int i = 0; i < 3; i++){
+			val hc = new HikariConfig();
+			hc.setJdbcUrl("jdbc:h2:mem:shared"+ i);
+			hc.setPoolName("shared"+ i);
+			hc.setScheduledExecutor(PoolExecutors.housekeeping());
+			hc.setThreadFactory(PoolExecutors.poolThreads(false));
+			try (val ds = new HikariDataSource(hc); Connection con = ds.getConnection()){
+				assertTrue(con.isValid(1));
+			}
+		}
+		assertFalse(PoolExecutors.housekeeping().isShutdown());// a closed pool doesn't shut the shared scheduler down
+	}
+}
@@ -0,0 +1,128 @@
+package com.github.magicprinc.hibean.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see PoolGroup
+ */
+class PoolGroupTest {
+	static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void borrowUnusedCapacityFairUnderContention () throws Exception {
+		val group = new PoolGroup("fair", 4);
+		val a = group.join("a", 1);
+		val b = group.join("b", 3);
+		assertEquals(1.0, a.share());
+		assertEquals(3.0, b.share());
+
+		for (int i = 0; i < 4; i++){
+			a.acquire(0);// nobody else needs it: a takes the whole budget
+		}
+		assertEquals(4, group.used());
+		assertThrows(PoolRejectedException.class, ()->a.acquire(0));
+
+		val aWaits = CompletableFuture.runAsync(()->acquire(a));
+		val bWaits = CompletableFuture.runAsync(()->acquire(b));
+		while (a.waiting() + b.waiting() < 2){
+			Thread.onSpinWait();
+		}
+		a.release();// a: 3 held, b: 0 → b is served first
+		bWaits.get(1, TimeUnit.SECONDS);
+		assertFalse(aWaits.isDone());
+		assertEquals(1, b.held());
+
+		a.release();
+		aWaits.get(1, TimeUnit.SECONDS);
+		assertEquals(3, a.held());
+		assertEquals(4, group.used());
+	}
+
+	static void acquire (PoolGroup.Member m) {
+		try {
+			m.acquire(5 * SECOND);
+		} catch (SQLException e){
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Test
+	void budgetAcrossPools () throws SQLException {
+		val group = new PoolGroup("pools", 2);
+		val a = pool("groupA", group);
+		val b = pool("groupB", group);
+		try {
+			try (Connection c1 = a.getConnection(); Connection c2 = a.getConnection()){
+				assertTrue(c1.isValid(1) && c2.isValid(1));
+				assertEquals(2, group.used());
+				assertThrows(PoolRejectedException.class, b::getConnection);// pool b is idle, the budget is not
+			}
+			assertEquals(0, group.used());
+			try (Connection c = b.getConnection()){
+				assertEquals(1, b.group().held());
+			}
+		} finally {
+			a.shutdown();
+			b.shutdown();
+		}
+	}
+
+	@Test
+	void sizesWithinBudget () {
+		val group = new PoolGroup("sizes", 4);
+		val a = pool("sizesA", group);
+		try {
+			HikariConfigMXBean cfg = a.ds.getHikariConfigMXBean();
+			assertEquals(2, cfg.getMaximumPoolSize());
+			assertEquals(2, cfg.getMinimumIdle());// alone: the whole budget is its share
+			a.resize(10, 10);
+			assertEquals(4, cfg.getMaximumPoolSize());
+			assertEquals(4, cfg.getMinimumIdle());
+
+			val b = pool("sizesB", group);
+			assertEquals(2, cfg.getMinimumIdle());// idle connections of a and b fit into the budget
+			assertEquals(2, b.ds.getHikariConfigMXBean().getMinimumIdle());
+			b.shutdown();
+			assertEquals(4, cfg.getMinimumIdle());
+		} finally {
+			a.shutdown();
+		}
+	}
+
+	@Test
+	void groupsByName () {
+		val group = PoolGroup.of("byName", 3);
+		assertSame(group, PoolGroup.of("byName", 3));
+		assertThrows(IllegalArgumentException.class, ()->PoolGroup.of("byName", 5));
+
+		val a = group.join("a", 1);
+		a.leave();// the last one: the group is dropped
+		val b = group.join("b", 1);// joins the group of the same name
+		assertNotSame(group, b.group());
+		assertSame(b.group(), PoolGroup.of("byName", 3));
+		b.leave();
+		assertNotSame(b.group(), PoolGroup.of("byName", 5));// no conflict with a dropped group
+	}
+
+	static HikariEbeanDataSourceWrapper pool (String name, PoolGroup group) {
+		val hc = new HikariConfig();
+		hc.setJdbcUrl("jdbc:h2:mem:"+ name);
+		hc.setPoolName(name);
+		hc.setMaximumPoolSize(2);
+		hc.setConnectionTimeout(250);
+		val pool = new HikariEbeanDataSourceWrapper(new HikariDataSource(hc));
+		pool.group(group.join(name, 1));
+		return pool;
+	}
+}
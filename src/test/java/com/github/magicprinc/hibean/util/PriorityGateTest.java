@@ -0,0 +1,98 @@
+package com.github.magicprinc.hibean.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see PriorityGate
+ */
+class PriorityGateTest {
+	@Test
+	void reservedAndOrder () throws Exception {
+		val gate = new PriorityGate(1, ()->3);
+		gate.acquire(Priority.NORMAL, 0);
+		gate.acquire(Priority.LOW, 0);
+		assertThrows(PoolRejectedException.class, ()->gate.acquire(Priority.NORMAL, 0));// the last one is reserved
+		gate.acquire(Priority.HIGH, 0);
+		assertEquals(3, gate.used());
+
+		val low = CompletableFuture.runAsync(()->acquire(gate, Priority.LOW));
+		await(gate, Priority.LOW);
+		val normal = CompletableFuture.runAsync(()->acquire(gate, Priority.NORMAL));
+		await(gate, Priority.NORMAL);
+		val high = CompletableFuture.runAsync(()->acquire(gate, Priority.HIGH));
+		await(gate, Priority.HIGH);
+
+		gate.release();// came last, served first
+		high.get(1, TimeUnit.SECONDS);
+		assertFalse(normal.isDone() || low.isDone());
+
+		gate.release();
+		gate.release();// 1 used: 2 free, 1 of them reserved
+		normal.get(1, TimeUnit.SECONDS);
+		assertFalse(low.isDone());
+
+		gate.release();
+		low.get(1, TimeUnit.SECONDS);
+		assertEquals(2, gate.used());
+	}
+
+	static void acquire (PriorityGate gate, Priority p) {
+		try {
+			gate.acquire(p, TimeUnit.SECONDS.toNanos(5));
+		} catch (SQLException e){
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static void await (PriorityGate gate, Priority p) {
+		while (gate.waiting(p) == 0){
+			Thread.onSpinWait();
+		}
+	}
+
+	@Test
+	void timedOutHighLetsOthersGo () throws Exception {
+		val gate = new PriorityGate(0, ()->1);
+		gate.acquire(Priority.LOW, 0);
+		val normal = CompletableFuture.runAsync(()->acquire(gate, Priority.NORMAL));
+		await(gate, Priority.NORMAL);
+		assertThrows(PoolRejectedException.class, ()->gate.acquire(Priority.HIGH, TimeUnit.MILLISECONDS.toNanos(50)));
+		gate.release();
+		normal.get(1, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void pool () throws SQLException {
+		val hc = new HikariConfig();
+		hc.setJdbcUrl("jdbc:h2:mem:priorityGate");
+		hc.setPoolName("priorityGate");
+		hc.setMaximumPoolSize(2);
+		hc.setConnectionTimeout(250);
+		val pool = new HikariEbeanDataSourceWrapper(new HikariDataSource(hc));
+		try {
+			pool.priorityGate(1);
+			try (Connection bulk = pool.getConnection()){
+				assertTrue(bulk.isValid(1));
+				assertThrows(PoolRejectedException.class, pool::getConnection);// reserved for HIGH
+				try (val scope = Priority.use(Priority.HIGH); Connection payment = pool.getConnection()){
+					assertTrue(payment.isValid(1));
+					assertEquals(2, pool.priorityGate().used());
+				}
+			}
+			assertEquals(0, pool.priorityGate().used());
+			assertEquals(Priority.NORMAL, Priority.current());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
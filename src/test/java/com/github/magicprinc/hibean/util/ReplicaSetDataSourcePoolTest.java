@@ -0,0 +1,220 @@
+package com.github.magicprinc.hibean.util;
+
+import io.ebean.datasource.DataSourcePool;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ Hedged reads against a latency-injecting fake driver: usually fast, a stall (vacuum, backup, GC on the replica) at fixed queries.
+ Instead of a JMH benchmark: the same workload with and without hedging, compare the number of stalled reads.
+ @see ReplicaSetDataSourcePool#hedged
+ */
+class ReplicaSetDataSourcePoolTest {
+	static final long FAST_NANOS = TimeUnit.MICROSECONDS.toNanos(300);
+	static final long STALL_NANOS = TimeUnit.MILLISECONDS.toNanos(60);
+
+	/** Fake replica: every query takes FAST_NANOS, every stallEvery-th query of the replica STALL_NANOS (0: never); cancel() interrupts the wait */
+	static DataSourcePool replica (String name, int stallEvery, AtomicInteger cancels) {
+		return replica(name, stallEvery, new AtomicInteger(), new AtomicInteger(), cancels);
+	}
+
+	/** @param queries executed queries of the replica; @param stalls stalled ones */
+	static DataSourcePool replica (String name, int stallEvery, AtomicInteger queries, AtomicInteger stalls, AtomicInteger cancels) {
+		return (DataSourcePool) Proxy.newProxyInstance(DataSourcePool.class.getClassLoader(), new Class<?>[]{DataSourcePool.class}, (proxy, method, args)->switch (method.getName()){
+			case "getConnection" -> connection(name, stallEvery, queries, stalls, cancels);
+			case "isOnline", "isDataSourceUp" -> true;
+			case "name", "toString" -> name;
+			case "hashCode" -> System.identityHashCode(proxy);
+			case "equals" -> proxy == args[0];
+			default -> null;
+		});
+	}
+
+	static Connection connection (String name, int stallEvery, AtomicInteger queries, AtomicInteger stalls, AtomicInteger cancels) {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args)->switch (method.getName()){
+			case "prepareStatement" -> statement(name, stallEvery, queries, stalls, cancels);
+			case "toString" -> name;
+			case "hashCode" -> System.identityHashCode(proxy);
+			case "equals" -> proxy == args[0];
+			default -> null;
+		});
+	}
+
+	static PreparedStatement statement (String name, int stallEvery, AtomicInteger queries, AtomicInteger stalls, AtomicInteger cancels) {
+		val cancelled = new CountDownLatch(1);
+		return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args)->{
+			switch (method.getName()){
+				case "execute" -> {
+					boolean stall = stallEvery > 0 && queries.incrementAndGet() % stallEvery == 0;
+					if (stall){ stalls.incrementAndGet(); }
+					long latency = stall ? STALL_NANOS : FAST_NANOS;
+					if (cancelled.await(latency, TimeUnit.NANOSECONDS)){
+						throw new SQLException("Query was cancelled: "+ name);
+					}
+					return true;
+				}
+				case "cancel" -> {
+					cancels.incrementAndGet();
+					cancelled.countDown();
+					return null;
+				}
+				case "toString" -> { return name; }
+				case "hashCode" -> { return System.identityHashCode(proxy); }
+				case "equals" -> { return proxy == args[0]; }
+				default -> { return null; }
+			}
+		});
+	}
+
+	/** @return latencies of n sequential reads, sorted */
+	static long[] run (ReplicaSetDataSourcePool set, int n) throws SQLException {
+		long[] lat = new long[n];
+		for (int i = 0; i < n; i++){
+			long start = System.nanoTime();
+			assertEquals(Boolean.TRUE, set.hedged("select 1", PreparedStatement::execute));
+			lat[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(lat);
+		return lat;
+	}
+
+	/** Reads that took a whole stall */
+	static long stalled (long[] latencies){ return Arrays.stream(latencies).filter(l->l >= STALL_NANOS).count(); }
+
+	@Test
+	void hedgedReadsCutTheTail () throws SQLException {
+		int n = 1000;
+		val cancels = new AtomicInteger();
+		val plainStalls = new AtomicInteger();
+		val plain = new ReplicaSetDataSourcePool("plain", replica("primary", 0, cancels),
+				List.of(replica("r1", 20, new AtomicInteger(), plainStalls, cancels), replica("r2", 0, cancels)));
+		long[] before = run(plain, n);
+		assertEquals(0, plain.hedges());
+		assertTrue(plainStalls.get() >= 10, "r1 gets about half of the reads: "+ plainStalls);
+		assertEquals(plainStalls.get(), stalled(before));// every stall is waited out
+
+		val stalls = new AtomicInteger();
+		val hedged = new ReplicaSetDataSourcePool("hedged", replica("primary", 0, cancels),
+				List.of(replica("r1", 20, new AtomicInteger(), stalls, cancels), replica("r2", 0, cancels))).hedgePercentile(95);
+		long[] after = run(hedged, n);
+
+		assertTrue(stalls.get() >= 10, stalls.toString());
+		assertTrue(hedged.hedgeWins() > 0);
+		assertTrue(hedged.hedges() >= hedged.hedgeWins());
+		assertTrue(cancels.get() > 0);// losers are cancelled
+		assertTrue(stalled(after) * 4 <= stalled(before), "hedging must cut the stalls: "+ stalled(before) +" → "+ stalled(after));
+	}
+
+	@Test
+	void failedAttemptFallsBackToOtherReplica () throws SQLException {
+		val broken = (DataSourcePool) Proxy.newProxyInstance(DataSourcePool.class.getClassLoader(), new Class<?>[]{DataSourcePool.class}, (proxy, method, args)->switch (method.getName()){
+			case "getConnection" -> throw new SQLException("broken");
+			case "isOnline" -> true;
+			case "name", "toString" -> "broken";
+			default -> null;
+		});
+		val set = new ReplicaSetDataSourcePool("fallback", replica("primary", 0, new AtomicInteger()),
+				List.of(broken, replica("ok", 0, new AtomicInteger()))).hedgePercentile(90);
+		for (int i = 0; i < ReplicaSetDataSourcePool.HEDGE_MIN_SAMPLES + 10; i++){
+			assertEquals(Boolean.TRUE, set.hedged("select 1", PreparedStatement::execute));
+		}
+		assertEquals(List.of(broken), set.ejected());
+	}
+
+	@Test
+	void rejectionIsNotEjection () throws SQLException {
+		val busy = (DataSourcePool) Proxy.newProxyInstance(DataSourcePool.class.getClassLoader(), new Class<?>[]{DataSourcePool.class}, (proxy, method, args)->switch (method.getName()){
+			case "getConnection" -> throw new PoolRejectedException("Lane reporting is full");// our capacity, not the replica
+			case "isOnline" -> true;
+			case "name", "toString" -> "busy";
+			default -> null;
+		});
+		val set = new ReplicaSetDataSourcePool("rejected", replica("primary", 0, new AtomicInteger()),
+				List.of(busy, replica("ok", 0, new AtomicInteger())));
+		for (int i = 0; i < 4; i++){
+			try (Connection con = set.getConnection()){
+				assertEquals("ok", con.toString());
+			}
+		}
+		assertEquals(List.of(), set.ejected());
+	}
+
+	/** Fake replica: lag query returns lagMillis */
+	static DataSourcePool lagging (String name, AtomicLong lagMillis) {
+		val rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args)->switch (method.getName()){
+			case "next" -> true;
+			case "getDouble" -> (double) lagMillis.get();
+			default -> null;
+		});
+		val st = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class}, (proxy, method, args)->
+				"executeQuery".equals(method.getName()) ? rs : null);
+		val con = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args)->switch (method.getName()){
+			case "createStatement" -> st;
+			case "toString" -> name;
+			default -> null;
+		});
+		return (DataSourcePool) Proxy.newProxyInstance(DataSourcePool.class.getClassLoader(), new Class<?>[]{DataSourcePool.class}, (proxy, method, args)->switch (method.getName()){
+			case "getConnection" -> con;
+			case "isOnline" -> true;
+			case "name", "toString" -> name;
+			default -> null;
+		});
+	}
+
+	static Set<String> reads (ReplicaSetDataSourcePool set) throws SQLException {
+		val used = new HashSet<String>();
+		for (int i = 0; i < 10; i++){
+			used.add(set.getConnection().toString());
+		}
+		return used;
+	}
+
+	@Test
+	void readYourWrites () throws SQLException {
+		val fresh = lagging("fresh", new AtomicLong(0));
+		val late = lagging("late", new AtomicLong(5000));
+		val set = new ReplicaSetDataSourcePool("lag", lagging("primary", new AtomicLong()), List.of(fresh, late));
+		assertEquals(-1, set.lagMillis(fresh));
+		assertEquals(Set.of("fresh", "late"), reads(set));
+
+		set.probeLag("select lag");
+		assertEquals(0, set.lagMillis(fresh));
+		assertEquals(5000, set.lagMillis(late));
+		assertEquals(Set.of("fresh", "late"), reads(set));// no session
+
+		val session = new PoolContext();
+		try (val scope = session.bind()){
+			assertSame(session, PoolContext.current());
+			assertEquals(Set.of("fresh", "late"), reads(set));// nothing written yet
+
+			session.written();
+			assertEquals(Set.of("primary"), reads(set));// no replica is known to have the write yet
+			set.probeLag("select lag");
+			assertEquals(Set.of("fresh"), reads(set));// caught up
+
+			set.stickinessMillis(0);
+			assertEquals(Set.of("fresh", "late"), reads(set));// window is over
+		}
+		assertNull(PoolContext.current());
+
+		set.maxLagMillis(1000);
+		assertEquals(Set.of("fresh"), reads(set));
+	}
+}
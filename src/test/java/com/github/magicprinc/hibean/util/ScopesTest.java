@@ -0,0 +1,32 @@
+package com.github.magicprinc.hibean.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see Scopes
+ */
+class ScopesTest {
+	@Test
+	void nestedScopesRestore () {
+		assertNull(Lane.current());
+		try (val outer = Lane.use("reporting")){
+			assertEquals("reporting", Lane.current());
+			try (val inner = Priority.use(Priority.HIGH); val lane = Lane.use("oltp")){
+				assertEquals("oltp", Lane.current());
+				assertEquals(Priority.HIGH, Priority.current());
+			}
+			assertEquals("reporting", Lane.current());
+			assertEquals(Priority.NORMAL, Priority.current());
+		}
+		assertNull(Lane.current());
+
+		val ctx = new PoolContext();
+		try (val bound = ctx.bind()){
+			assertSame(ctx, PoolContext.current());
+		}
+		assertNull(PoolContext.current());
+	}
+}
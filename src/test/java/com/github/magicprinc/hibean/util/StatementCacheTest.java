@@ -0,0 +1,135 @@
+package com.github.magicprinc.hibean.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.UtilityElf;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ @see StatementCache
+ @see CachedPreparedStatement
+ */
+class StatementCacheTest {
+	static HikariEbeanDataSourceWrapper pool (String name) {
+		val hc = new HikariConfig();
+		hc.setJdbcUrl("jdbc:h2:mem:"+ name +";DB_CLOSE_DELAY=-1");
+		hc.setPoolName(name);
+		hc.setMaximumPoolSize(1);// the same physical connection for every borrow
+		hc.setAutoCommit(false);
+		return new HikariEbeanDataSourceWrapper(new HikariDataSource(hc)).statementCacheSize(2);
+	}
+
+	static PreparedStatement physical (PreparedStatement ps){ return ((CachedPreparedStatement) ps).delegate(); }
+
+	static int select (PreparedStatement ps, int value) throws SQLException {
+		ps.setInt(1, value);
+		try (ResultSet rs = ps.executeQuery()){
+			assertSame(ps, rs.getStatement());// not the driver's statement: closing it would bypass the cache
+			assertTrue(rs.next());
+			return rs.getInt(1);
+		}
+	}
+
+	@Test
+	void reuseAcrossBorrows () throws SQLException {
+		val pool = pool("stmtReuse");
+		try {
+			PreparedStatement first;
+			try (Connection con = pool.getConnection(); val ps = con.prepareStatement("select ?")){
+				assertEquals(1, select(ps, 1));
+				first = physical(ps);
+				assertSame(con, ps.getConnection());
+			}
+			PreparedStatement second;
+			try (Connection con = pool.getConnection(); val ps = con.prepareStatement("select ?")){
+				assertSame(first, physical(ps));// no prepare
+				assertEquals(2, select(ps, 2));
+				try (val twin = con.prepareStatement("select ?")){// the same SQL in use: a second statement
+					second = physical(twin);
+					assertNotSame(first, second);
+					assertEquals(3, select(twin, 3));
+				}
+			}
+			assertEquals(1, pool.stats().statementCacheHits());
+			assertEquals(2, pool.stats().statementCacheMisses());
+			assertTrue(first.isClosed() ^ second.isClosed());// one statement per SQL is cached
+			if (first.isClosed())
+					first = second;
+
+			try (Connection con = pool.getConnection()){
+				con.prepareStatement("select ?+1").close();
+				con.prepareStatement("select ?+2").close();// LRU: "select ?" is evicted
+			}
+			assertTrue(first.isClosed());
+
+			PreparedStatement tuned;
+			try (Connection con = pool.getConnection(); val ps = con.prepareStatement("select ?+1")){
+				ps.setMaxRows(1);// the next user must not inherit it
+				tuned = physical(ps);
+			}
+			assertTrue(tuned.isClosed());
+
+			PreparedStatement leaked;
+			try (Connection con = pool.getConnection()){
+				leaked = physical(con.prepareStatement("select ?+2"));// not closed by its user
+			}
+			assertTrue(leaked.isClosed());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void closedConnectionsAreEvicted () throws SQLException {
+		val pool = pool("stmtEvict");
+		try {
+			PreparedStatement cached;
+			try (Connection con = pool.getConnection(); val ps = con.prepareStatement("select ?")){
+				cached = physical(ps);
+			}
+			Connection physical = cached.getConnection();
+			pool.getHikariDataSource().getHikariPoolMXBean().softEvictConnections();// Hikari retires the idle connection
+			for (int i = 0; i < 100 && !physical.isClosed(); i++){
+				UtilityElf.quietlySleep(20);
+			}
+			assertTrue(physical.isClosed());
+			assertEquals(1, pool.statementCacheConnections());
+
+			try (Connection con = pool.getConnection(); val ps = con.prepareStatement("select ?")){// a new physical connection
+				assertNotSame(cached, physical(ps));
+				assertEquals(1, pool.statementCacheConnections());// the closed one is gone
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(0, pool.statementCacheConnections());
+	}
+
+	@Test
+	void uncommittedWorkIsRolledBack () throws SQLException {
+		val pool = pool("stmtRollback");
+		try {
+			try (Connection con = pool.getConnection()){
+				con.createStatement().execute("create table t (id int)");
+				con.commit();
+				try (val ps = con.prepareStatement("insert into t values (?)")){
+					ps.setInt(1, 1);
+					assertEquals(1, ps.executeUpdate());
+				}
+			}// Hikari doesn't see statements of the physical connection: the wrapper rolls back
+			try (Connection con = pool.getConnection(); val ps = con.prepareStatement("select count(*) from t where id <> ?")){
+				assertEquals(0, select(ps, 0));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}